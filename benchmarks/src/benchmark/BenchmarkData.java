@@ -0,0 +1,61 @@
+package benchmark;
+
+import interfaces.StatusUpdate;
+
+import java.io.File;
+
+import jxmapmatch.JXMapMatchBatch;
+import myClasses.myOSMMap;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import gps.GPSTrace;
+import gps.GPSTraceStreamer;
+
+/**
+ * map and GPS trace of the benchmark data folder, loaded once per fork
+ *
+ * the data folder (system property "benchmark.data", default
+ * benchmarks/data) contains map.osm, map.net.xml and a GPS trace
+ * (*.log, *.txt or *.gpx). The map is parsed without snapshot, so no
+ * snapshot file is written into the data folder.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkData {
+
+	public static final String DATA_FOLDER_PROPERTY = "benchmark.data";
+	public static final String DEFAULT_DATA_FOLDER = "benchmarks/data";
+
+	public File osmFile;
+	public String netFilePath;
+
+	public myOSMMap myMap;
+	public GPSTrace gpsTrace;
+	public StatusUpdate statusUpdate = new JXMapMatchBatch.QuietStatusUpdate();
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		File dataFolder = getDataFolder();
+
+		osmFile = new File(dataFolder, "map.osm");
+		netFilePath = new File(dataFolder, "map.net.xml").getPath();
+		File gpsTraceFile = JXMapMatchBatch.getGPSTraceFile(dataFolder);
+
+		if (!osmFile.isFile() || !new File(netFilePath).isFile() || gpsTraceFile == null) {
+			throw new Exception("data folder needs map.osm, map.net.xml and a GPS trace: " + dataFolder.getAbsolutePath());
+		}
+
+		myMap = new myOSMMap();
+		myMap.loadMapFiles(osmFile, netFilePath, null, false);
+		myMap.getWayPartIndex();
+
+		gpsTrace = GPSTraceStreamer.convertToGPSPath(gpsTraceFile.getAbsolutePath(), statusUpdate);
+	}
+
+	public static File getDataFolder() {
+		return new File(System.getProperty(DATA_FOLDER_PROPERTY, DEFAULT_DATA_FOLDER));
+	}
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import myClasses.myOSMWayPart;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import cartesian.Coordinates;
+import gps.GPSNode;
+
+/**
+ * distance of GPS nodes to their nearest wayParts, one operation is one
+ * pair of GPS node and wayPart
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CoordinatesBenchmark {
+
+	// nearest wayParts per GPS node
+	private static final int NEAREST_WAY_PARTS = 10;
+
+	private GPSNode[] gpsNodes;
+	private myOSMWayPart[] wayParts;
+	private int index = 0;
+
+	@Setup(Level.Trial)
+	public void setup(BenchmarkData data) {
+		Vector<GPSNode> n = new Vector<GPSNode>();
+		Vector<myOSMWayPart> w = new Vector<myOSMWayPart>();
+
+		for (int i = 0; i < data.gpsTrace.getNrOfNodes(); i++) {
+			GPSNode gpsNode = data.gpsTrace.getNode(i);
+
+			for (myOSMWayPart wp : data.myMap.getWayPartIndex().getNearestWayParts(gpsNode, NEAREST_WAY_PARTS)) {
+				n.add(gpsNode);
+				w.add(wp);
+			}
+		}
+
+		gpsNodes = n.toArray(new GPSNode[n.size()]);
+		wayParts = w.toArray(new myOSMWayPart[w.size()]);
+	}
+
+	private int nextIndex() {
+		int i = index;
+		index = (i + 1 == gpsNodes.length) ? 0 : i + 1;
+		return i;
+	}
+
+	@Benchmark
+	public double getDistance() {
+		int i = nextIndex();
+		return Coordinates.getDistance(gpsNodes[i], wayParts[i]);
+	}
+
+	@Benchmark
+	public double getNearestEuclidianPoint() {
+		int i = nextIndex();
+		return Coordinates.getNearestEuclidianPoint(gpsNodes[i], wayParts[i]).getDistance();
+	}
+}
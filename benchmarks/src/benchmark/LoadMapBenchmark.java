@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import myClasses.myBoundingBox;
+import myClasses.myMapSnapshot;
+import myClasses.myOSMMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * loading of the map, one operation is one load
+ *
+ * parse: osm and net file are parsed, no snapshot is read or written
+ * snapshot: compiled snapshot is read (written once in setup, on copies of
+ * the files in a temporary folder)
+ * clip: only the part of the map around the GPS trace is parsed
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LoadMapBenchmark {
+
+	// margin around GPS trace of clipped map (meters)
+	private static final double CLIP_MARGIN = 500;
+
+	private File tempFolder;
+	private File tempOsmFile;
+	private String tempNetFilePath;
+
+	private myBoundingBox clipBox;
+
+	@Setup(Level.Trial)
+	public void setup(BenchmarkData data) throws Exception {
+		tempFolder = Files.createTempDirectory("jxmapmatch").toFile();
+
+		tempOsmFile = new File(tempFolder, data.osmFile.getName());
+		File tempNetFile = new File(tempFolder, new File(data.netFilePath).getName());
+		tempNetFilePath = tempNetFile.getPath();
+
+		Files.copy(data.osmFile.toPath(), tempOsmFile.toPath());
+		Files.copy(new File(data.netFilePath).toPath(), tempNetFile.toPath());
+
+		// write snapshot
+		new myOSMMap(tempOsmFile, tempNetFilePath);
+
+		if (!myMapSnapshot.getSnapshotFile(tempOsmFile).isFile()) {
+			throw new Exception("snapshot not written: " + myMapSnapshot.getSnapshotFile(tempOsmFile));
+		}
+
+		clipBox = myBoundingBox.fromGPSTrace(data.gpsTrace, CLIP_MARGIN);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		File[] files = tempFolder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		tempFolder.delete();
+	}
+
+	@Benchmark
+	public myOSMMap parse(BenchmarkData data) {
+		myOSMMap myMap = new myOSMMap();
+		myMap.loadMapFiles(data.osmFile, data.netFilePath, null, false);
+		return myMap;
+	}
+
+	@Benchmark
+	public myOSMMap snapshot() {
+		return new myOSMMap(tempOsmFile, tempNetFilePath);
+	}
+
+	@Benchmark
+	public myOSMMap clip(BenchmarkData data) {
+		return new myOSMMap(data.osmFile, data.netFilePath, clipBox);
+	}
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import jxmapmatch.JXMapMatchController;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import route.SelectedNRoute;
+import algorithm.MatchGPStoNRouteAlgorithm;
+import algorithm.MatchedGPSNode;
+import algorithm.NRouteAlgorithm;
+
+/**
+ * matching of the GPS trace to the selected N route (N route algorithm with
+ * default N runs once in setup), one operation is one matching
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1g"})
+@State(Scope.Benchmark)
+public class MatchGPStoNRouteBenchmark {
+
+	private SelectedNRoute selectedNRoute;
+
+	@Setup(Level.Trial)
+	public void setup(BenchmarkData data) throws Exception {
+		NRouteAlgorithm nRouteAlgorithm = new NRouteAlgorithm(data.myMap, data.gpsTrace, data.statusUpdate);
+		nRouteAlgorithm.executeNRouteAlgorithm(NRouteAlgorithm.DEFAULT_N_ROUTE_SIZE, NRouteAlgorithm.DEFAULT_INTERSECTION_REACHED_THRESHOLD);
+		selectedNRoute = new SelectedNRoute(data.myMap, nRouteAlgorithm, null);
+	}
+
+	@Benchmark
+	public Vector<MatchedGPSNode> executeMatchGPStoNRouteAlgorithm(BenchmarkData data) {
+		MatchGPStoNRouteAlgorithm matchGPStoNRouteAlgorithm = new MatchGPStoNRouteAlgorithm(selectedNRoute, data.gpsTrace,
+				JXMapMatchController.GPS_TO_N_ROUTE_UNMATCHED_LINK_COLOR, JXMapMatchController.GPS_TO_N_ROUTE_MATCHED_LINK_COLOR,
+				JXMapMatchController.GPS_TO_N_ROUTE_UNMATCHED_NODE_COLOR, JXMapMatchController.GPS_TO_N_ROUTE_MATCHED_NODE_COLOR,
+				data.statusUpdate, null);
+		matchGPStoNRouteAlgorithm.executeMatchGPStoNRouteAlgorithm(false, false);
+		return matchGPStoNRouteAlgorithm.getMatchedGPSNodes();
+	}
+}
@@ -0,0 +1,43 @@
+package benchmark;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import route.NRoute;
+import algorithm.NRouteAlgorithm;
+
+/**
+ * N route algorithm over the whole GPS trace, one operation is one run
+ *
+ * the algorithm recurses along the routes, so the fork gets a large thread
+ * stack. Child routes are built as long as they come closer to the GPS node,
+ * so their number grows with the paths between far seeds and the GPS node:
+ * on a close meshed 40 x 40 street grid N=1000 does not fit into 4 GB heap.
+ * The side streets of benchmarks/data are dead ends, there N=1000 takes a
+ * few seconds per run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class NRouteAlgorithmBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int nRouteSize;
+
+	@Benchmark
+	public Vector<NRoute> executeNRouteAlgorithm(BenchmarkData data) throws Exception {
+		NRouteAlgorithm nRouteAlgorithm = new NRouteAlgorithm(data.myMap, data.gpsTrace, data.statusUpdate);
+		nRouteAlgorithm.executeNRouteAlgorithm(nRouteSize, NRouteAlgorithm.DEFAULT_INTERSECTION_REACHED_THRESHOLD);
+		return nRouteAlgorithm.getNRoute();
+	}
+}
@@ -0,0 +1,36 @@
+package benchmark;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import myClasses.myOSMWayPart;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * seeding of N route algorithm: N nearest wayParts of a GPS node, one
+ * operation is one GPS node of the trace
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class WayPartIndexBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int nRouteSize;
+
+	private int index = 0;
+
+	@Benchmark
+	public Vector<myOSMWayPart> getNearestWayParts(BenchmarkData data) {
+		int i = index;
+		index = (i + 1 == data.gpsTrace.getNrOfNodes()) ? 0 : i + 1;
+		return data.myMap.getWayPartIndex().getNearestWayParts(data.gpsTrace.getNode(i), nRouteSize);
+	}
+}
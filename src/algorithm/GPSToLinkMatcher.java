@@ -117,7 +117,7 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 			busy = true;
 			
 			// set last added link as unmatched!
-			selectedRoute.getLastSelectedLink().addMatchedRange(-1, -1, false);
+			selectedRoute.getMatchState().addMatchedRange(selectedRoute.getLastSelectedLink(), -1, -1, false);
 			
 			// redraw
 			drawComponent.repaint();
@@ -285,7 +285,7 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 			if ( (matchedPoint.isEuclidian() && ((i - lastMatchedIndex - identicalPointsCounter) > MAX_INDEX_DIFF)) ||
 				 ((i == gpsNodesToMatch.size()-1) && !matchedPoint.isEuclidian()) ) {
 				System.err.println("\nZu weit entfernt! EuclidianStartIndex/CurrentMatchedStartIndex: [" + i + ",");	// link couldn't be matched
-				lastAddedLink.addMatchedRange(-1, -1, false);
+				selectedRoute.getMatchState().addMatchedRange(lastAddedLink, -1, -1, false);
 				return false;	// couldn't find point to start match algorithm
 			}
 			
@@ -303,12 +303,12 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 			
 		// 2.)
 		// falls es einen vorletzten link gibt prfe seine gematchten punkte ob sie besser zum neuen link passen
-		if ((lastButOneAddedLink != null) && lastButOneAddedLink.isLastMatched()) {
+		if ((lastButOneAddedLink != null) && selectedRoute.getMatchState().isLastMatched(lastButOneAddedLink)) {
 			// get matched start and end index of last but one added link
-			lastMatchedStartIndex = lastButOneAddedLink.getLastMatchedRangeStart();
-			lastMatchedEndIndex = lastButOneAddedLink.getLastMatchedRangeEnd();
+			lastMatchedStartIndex = selectedRoute.getMatchState().getLastMatchedRangeStart(lastButOneAddedLink);
+			lastMatchedEndIndex = selectedRoute.getMatchState().getLastMatchedRangeEnd(lastButOneAddedLink);
 			
-			System.out.println("Vorletzer Link vorhanden! gematched: " + lastButOneAddedLink.isLastMatched() + "\n\tAlter Range: [" + lastMatchedStartIndex + ", " + lastMatchedEndIndex + "]");
+			System.out.println("Vorletzer Link vorhanden! gematched: " + selectedRoute.getMatchState().isLastMatched(lastButOneAddedLink) + "\n\tAlter Range: [" + lastMatchedStartIndex + ", " + lastMatchedEndIndex + "]");
 			
 			int newLastMatchedEndIndex = 0;
 			
@@ -368,22 +368,22 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 		myOSMWayPart lastButOneAddedLink = selectedRoute.getLastButOneSelectedLink();
 		
 		if (lastAddedLink != null) {
-			if (lastAddedLink.isLastMatched()) {
-				System.out.println ("\nLetzer Link gematcht! Wird angepasst:\n\tAlter Range: [" + lastAddedLink.getLastMatchedRangeStart() + ", " + lastAddedLink.getLastMatchedRangeEnd() + "]" +
-									"\n\tNeuer Range: [" + lastAddedLink.getLastMatchedRangeStart() + ", " + currentIndexToMatch + "]");
-				addGPSToLink(lastAddedLink.getLastMatchedRangeEnd()+1, currentIndexToMatch, lastAddedLink);
+			if (selectedRoute.getMatchState().isLastMatched(lastAddedLink)) {
+				System.out.println ("\nLetzer Link gematcht! Wird angepasst:\n\tAlter Range: [" + selectedRoute.getMatchState().getLastMatchedRangeStart(lastAddedLink) + ", " + selectedRoute.getMatchState().getLastMatchedRangeEnd(lastAddedLink) + "]" +
+									"\n\tNeuer Range: [" + selectedRoute.getMatchState().getLastMatchedRangeStart(lastAddedLink) + ", " + currentIndexToMatch + "]");
+				addGPSToLink(selectedRoute.getMatchState().getLastMatchedRangeEnd(lastAddedLink)+1, currentIndexToMatch, lastAddedLink);
 			}
 			else {
 				System.out.println ("\nLetzer Link nicht gematcht!");
 				
 				int currentMatchedStartIndex = lastMatchedIndex + 1;
 				
-				if (lastButOneAddedLink != null && lastButOneAddedLink.isLastMatched()) {
+				if (lastButOneAddedLink != null && selectedRoute.getMatchState().isLastMatched(lastButOneAddedLink)) {
 					// get matched start and end index of last but one added link
-					int lastMatchedStartIndex = lastButOneAddedLink.getLastMatchedRangeStart();
-					int lastMatchedEndIndex = lastButOneAddedLink.getLastMatchedRangeEnd();
+					int lastMatchedStartIndex = selectedRoute.getMatchState().getLastMatchedRangeStart(lastButOneAddedLink);
+					int lastMatchedEndIndex = selectedRoute.getMatchState().getLastMatchedRangeEnd(lastButOneAddedLink);
 					
-					System.out.println("Vorletzer Link vorhanden! gematched: " + lastButOneAddedLink.isLastMatched() + "\n\tAlter Range: [" + lastMatchedStartIndex + ", " + lastMatchedEndIndex + "]");
+					System.out.println("Vorletzer Link vorhanden! gematched: " + selectedRoute.getMatchState().isLastMatched(lastButOneAddedLink) + "\n\tAlter Range: [" + lastMatchedStartIndex + ", " + lastMatchedEndIndex + "]");
 					
 					int newLastMatchedEndIndex = 0;
 					
@@ -417,7 +417,7 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 					
 				}
 				
-				lastAddedLink.removeLastMatchedRange();
+				selectedRoute.getMatchState().removeLastMatchedRange(lastAddedLink);
 				matchGPSToLink(currentMatchedStartIndex, currentIndexToMatch, lastAddedLink);
 				System.out.println("Current Range: [" + currentMatchedStartIndex + ", " + currentIndexToMatch + "]" );
 			}
@@ -435,8 +435,8 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 	
 	private void addGPSToLink(int startIndex, int endIndex, myOSMWayPart streetLink) {
 		// adjust matching range
-		streetLink.setLastMatchedRangeEnd(endIndex);
-		streetLink.setLastMatched(true);
+		selectedRoute.getMatchState().setLastMatchedRangeEnd(streetLink, endIndex);
+		selectedRoute.getMatchState().setLastMatched(streetLink, true);
 		
 		// match points
 		for (int i=startIndex; i<=endIndex; i++){
@@ -482,7 +482,7 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 			}
 			
 			// set new range
-			streetLink.setLastMatchedRangeEnd(startIndex-1);
+			selectedRoute.getMatchState().setLastMatchedRangeEnd(streetLink, startIndex-1);
 			
 			// animate release of GPS nodes
 			for (int i=0; i<COLOR_GRADIENT_STEPS; i++){		
@@ -513,7 +513,7 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 	
 	private void matchGPSToLink(int startIndex, int endIndex, myOSMWayPart streetLink){
 		// set range
-		streetLink.addMatchedRange(startIndex, endIndex, true);
+		selectedRoute.getMatchState().addMatchedRange(streetLink, startIndex, endIndex, true);
 		
 		// match points
 		for (int i=startIndex; i<=endIndex; i++){
@@ -556,17 +556,17 @@ public class GPSToLinkMatcher implements MatchingGPSObject {
 		myOSMWayPart lastAddedLink = selectedRoute.getLastSelectedLink();
 		
 		if (lastAddedLink != null) {
-			if (lastAddedLink.isLastMatched()) {
-				currentIndexToMatch = lastAddedLink.getLastMatchedRangeStart();
+			if (selectedRoute.getMatchState().isLastMatched(lastAddedLink)) {
+				currentIndexToMatch = selectedRoute.getMatchState().getLastMatchedRangeStart(lastAddedLink);
 				lastMatchedIndex = currentIndexToMatch - 1;
-				releaseGPSNodes(lastAddedLink.getLastMatchedRangeStart(), lastAddedLink.getLastMatchedRangeEnd(), lastAddedLink);
+				releaseGPSNodes(selectedRoute.getMatchState().getLastMatchedRangeStart(lastAddedLink), selectedRoute.getMatchState().getLastMatchedRangeEnd(lastAddedLink), lastAddedLink);
 				System.out.println("Letzter Link gematcht! Neuer currentIndexToMatch: " + currentIndexToMatch + ", lastMatchedIndex: " + lastMatchedIndex);
 			}
 			else {
 				System.err.print("Letzer Link nicht gematcht! ");
 				System.out.println("currentIndexToMatch: " + currentIndexToMatch + "lastMatchedIndex: " + lastMatchedIndex);
 			}
-			lastAddedLink.removeLastMatchedRange();
+			selectedRoute.getMatchState().removeLastMatchedRange(lastAddedLink);
 		}
 	}
 	
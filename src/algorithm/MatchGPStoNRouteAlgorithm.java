@@ -5,6 +5,7 @@ import interfaces.StatusUpdate;
 
 import java.awt.Color;
 import java.awt.Component;
+import java.util.Arrays;
 import java.util.Vector;
 
 import myClasses.myOSMWayPart;
@@ -72,88 +73,43 @@ public class MatchGPStoNRouteAlgorithm implements MatchingGPSObject {
 
 		int MaxCountCheckNext = 20;
 
-		double bestDistanceofAllGPSNode = Double.MAX_VALUE;
-		int bestCountCheckNext = 1;
+		int bestCountCheckNext = getBestCountCheckNext(MaxCountCheckNext);
 		
-		// 0 = Search in loop for bestCountCheckNext, without matchGPSNodeToNLink
-		// 1 = Search in loop finished, run loop again with bestCountCheckNext and matchGPSNodeToNLink 
-		// 2 = exit loop
-		int statusSearchBestCountCheckNext = 0;
+		// match with best number of links to look ahead
+		int currentNodeIndex = 0;
+		int currentNLinkIndex = 0;
+		int maxIndex = matchedNLinks.size() - 1;
 		
-		for (int iCountCheckNext = 1; iCountCheckNext <= MaxCountCheckNext || statusSearchBestCountCheckNext != 2 ; iCountCheckNext++) {
-			
-			int currentNodeIndex = 0;
-			int currentNLinkIndex = 0;
-			int maxIndex = matchedNLinks.size() - 1;
-			MatchedNLink currentMatchedNLink = matchedNLinks.get(currentNLinkIndex);
-			MatchedNLink nextMatchedNLink = currentMatchedNLink;
-			MatchedNLink nearestMatchedNLink = currentMatchedNLink;
-			
-			double tempDistanceofAllGPSNode = 0;
-			
-			int CountCheckNext;
-			if (statusSearchBestCountCheckNext == 0) {
-				CountCheckNext = iCountCheckNext;
-			} else {
-				CountCheckNext = bestCountCheckNext;
-			}			
-			
-			for (MatchedGPSNode matchedGPSNode : GPSNodes) {
-
-				currentMatchedNLink = matchedNLinks.get(currentNLinkIndex);
-				nearestMatchedNLink = currentMatchedNLink;
-
-				myOSMWayPart curWP = currentMatchedNLink.getStreetLink();
+		for (MatchedGPSNode matchedGPSNode : GPSNodes) {
 
-				double disToCur = Coordinates.getDistance(matchedGPSNode, curWP);
+			MatchedNLink nearestMatchedNLink = matchedNLinks.get(currentNLinkIndex);
 
-				double disToNearest = disToCur;
-				int IndexOfdisToNearest = currentNLinkIndex;
+			double disToNearest = Coordinates.getDistance(matchedGPSNode, nearestMatchedNLink.getStreetLink());
+			int IndexOfdisToNearest = currentNLinkIndex;
 
-				for (int i = 0; i < CountCheckNext; i++) {
-					if ((currentNLinkIndex + 1 + i) <= maxIndex) {
+			for (int i = 0; i < bestCountCheckNext; i++) {
+				if ((currentNLinkIndex + 1 + i) <= maxIndex) {
 
-						int nextNLinkIndex = currentNLinkIndex + 1 + i;
+					int nextNLinkIndex = currentNLinkIndex + 1 + i;
 
-						nextMatchedNLink = matchedNLinks.get(nextNLinkIndex);
+					MatchedNLink nextMatchedNLink = matchedNLinks.get(nextNLinkIndex);
 
-						myOSMWayPart nextWP = nextMatchedNLink.getStreetLink();
+					double disToNextTemp = Coordinates.getDistance(matchedGPSNode, nextMatchedNLink.getStreetLink());
 
-						//nextWPOsmID = nextWP.parentWay.id;
-
-						double disToNextTemp = Coordinates.getDistance(matchedGPSNode, nextWP);
-
-						if (disToNextTemp < disToNearest) {
-							disToNearest = disToNextTemp;
-							IndexOfdisToNearest = nextNLinkIndex;
-							nearestMatchedNLink = nextMatchedNLink;
-						}
+					if (disToNextTemp < disToNearest) {
+						disToNearest = disToNextTemp;
+						IndexOfdisToNearest = nextNLinkIndex;
+						nearestMatchedNLink = nextMatchedNLink;
 					}
 				}
+			}
 
-				currentNLinkIndex = IndexOfdisToNearest;
-
-				if (statusSearchBestCountCheckNext == 1) {
-					matchGPSNodeToNLink(nearestMatchedNLink, matchedGPSNode, currentNodeIndex);					
-				}
+			currentNLinkIndex = IndexOfdisToNearest;
 
-				tempDistanceofAllGPSNode += disToNearest;
+			matchGPSNodeToNLink(nearestMatchedNLink, matchedGPSNode, currentNodeIndex);
 
-				// increase node index
-				currentNodeIndex++;
-			}
-			
-			if (tempDistanceofAllGPSNode < bestDistanceofAllGPSNode) {
-				bestDistanceofAllGPSNode = tempDistanceofAllGPSNode;
-				bestCountCheckNext = iCountCheckNext;
-			}
-			
-			if (statusSearchBestCountCheckNext == 0 && iCountCheckNext == MaxCountCheckNext) {
-				statusSearchBestCountCheckNext = 1;
-			} else if (statusSearchBestCountCheckNext == 1) {
-				statusSearchBestCountCheckNext = 2;
-			}
-			
+			// increase node index
+			currentNodeIndex++;
 		}
 		
 		for (int i=0; i < (GPSNodes.size() - 1); i++) {
@@ -189,6 +145,77 @@ public class MatchGPStoNRouteAlgorithm implements MatchingGPSObject {
 
 	}
 
+	/**
+	 * return number of links to look ahead (1 ... maxCountCheckNext) with the
+	 * smallest sum of distances of all GPS nodes to their nearest link, the
+	 * smallest number if sums are equal
+	 * 
+	 * for every number of links to look ahead a GPS node is compared to the
+	 * current link of this number and the links ahead of it. All numbers are
+	 * evaluated in one pass over the GPS nodes, distances of a GPS node to a
+	 * link are computed once and shared by all numbers.
+	 * 
+	 * @param maxCountCheckNext
+	 * @return number of links to look ahead
+	 */
+	private int getBestCountCheckNext(int maxCountCheckNext) {
+
+		int maxIndex = matchedNLinks.size() - 1;
+		
+		// current link and sum of distances per number of links to look ahead (index 1 ... maxCountCheckNext)
+		int[] currentNLinkIndex = new int[maxCountCheckNext + 1];
+		double[] distanceofAllGPSNode = new double[maxCountCheckNext + 1];
+		
+		// distance of current GPS node to link, valid if distanceNodeIndex is index of GPS node
+		double[] distance = new double[matchedNLinks.size()];
+		int[] distanceNodeIndex = new int[matchedNLinks.size()];
+		Arrays.fill(distanceNodeIndex, -1);
+		
+		int currentNodeIndex = 0;
+		
+		for (MatchedGPSNode matchedGPSNode : GPSNodes) {
+			
+			for (int CountCheckNext = 1; CountCheckNext <= maxCountCheckNext; CountCheckNext++) {
+				
+				int nLinkIndex = currentNLinkIndex[CountCheckNext];
+				int lastNLinkIndex = Math.min(nLinkIndex + CountCheckNext, maxIndex);
+				
+				double disToNearest = 0;
+				int IndexOfdisToNearest = nLinkIndex;
+				
+				for (int i = nLinkIndex; i <= lastNLinkIndex; i++) {
+					
+					if (distanceNodeIndex[i] != currentNodeIndex) {
+						distance[i] = Coordinates.getDistance(matchedGPSNode, matchedNLinks.get(i).getStreetLink());
+						distanceNodeIndex[i] = currentNodeIndex;
+					}
+					
+					if (i == nLinkIndex || distance[i] < disToNearest) {
+						disToNearest = distance[i];
+						IndexOfdisToNearest = i;
+					}
+				}
+				
+				currentNLinkIndex[CountCheckNext] = IndexOfdisToNearest;
+				distanceofAllGPSNode[CountCheckNext] += disToNearest;
+			}
+			
+			currentNodeIndex++;
+		}
+		
+		double bestDistanceofAllGPSNode = Double.MAX_VALUE;
+		int bestCountCheckNext = 1;
+		
+		for (int CountCheckNext = 1; CountCheckNext <= maxCountCheckNext; CountCheckNext++) {
+			if (distanceofAllGPSNode[CountCheckNext] < bestDistanceofAllGPSNode) {
+				bestDistanceofAllGPSNode = distanceofAllGPSNode[CountCheckNext];
+				bestCountCheckNext = CountCheckNext;
+			}
+		}
+		
+		return bestCountCheckNext;
+	}
+
 	private void matchGPSNodeToNLink(MatchedNLink matchedNLink, MatchedGPSNode matchedGPSNode, int nodeIndex) {
 
 		// get matched position on link
@@ -202,7 +229,7 @@ public class MatchGPStoNRouteAlgorithm implements MatchingGPSObject {
 		matchedGPSNode.matchtedWayPart = wp;
 
 		matchedNLink.matchedGPSNodes.addElement(matchedGPSNode);
-		wp.CountMatchedGPSNodes++;
+		matchedNLink.countMatchedGPSNodes++;
 
 		// set matched position to GPS node
 		matchedGPSNode.setMatchedX(matchedX);
@@ -246,6 +273,7 @@ public class MatchGPStoNRouteAlgorithm implements MatchingGPSObject {
 
 			// create wrapped class
 			MatchedNLink matchedNLink = new MatchedNLink(streetLink, unmatchedLinkColor);
+			matchedNLink.objID = matchedNLinks.size();
 
 			// store
 			matchedNLinks.add(matchedNLink);
@@ -3,8 +3,10 @@ package algorithm;
 import gps.GPSNode;
 
 import java.awt.Color;
+import java.util.Vector;
 
 import myClasses.myOSMWayPart;
+import myClasses.myTimeIndex;
 
 public class MatchedGPSNode extends GPSNode {
 	
@@ -52,6 +54,34 @@ public class MatchedGPSNode extends GPSNode {
 		resetMatched();
 	}
 
+	/**
+	 * return GPS nodes by time
+	 * 
+	 * @param gpsNodes
+	 * @param onlyUniqueMatchedXY
+	 *            use only GPS nodes with unique matched position
+	 * @return myTimeIndex
+	 */
+	public static myTimeIndex<MatchedGPSNode> getTimeIndex(Vector<MatchedGPSNode> gpsNodes, boolean onlyUniqueMatchedXY) {
+		Vector<MatchedGPSNode> nodes = gpsNodes;
+		
+		if (onlyUniqueMatchedXY) {
+			nodes = new Vector<MatchedGPSNode>();
+			for (MatchedGPSNode n : gpsNodes) {
+				if (n.isUniqueMatchedXY) {
+					nodes.add(n);
+				}
+			}
+		}
+		
+		long[] timestamps = new long[nodes.size()];
+		for (int i = 0; i < timestamps.length; i++) {
+			timestamps[i] = nodes.get(i).getTimestamp();
+		}
+		
+		return new myTimeIndex<MatchedGPSNode>(nodes, timestamps);
+	}
+	
 	public void setMatchedXYreordered() {
 		double linkXlength = matchedNLink.getStreetLink().endNode.x - matchedNLink.getStreetLink().startNode.x;
 		double linkYlength = matchedNLink.getStreetLink().endNode.y - matchedNLink.getStreetLink().startNode.y;
@@ -5,11 +5,13 @@ import java.util.Vector;
 
 import myClasses.myCellInfo;
 import myClasses.myDataset;
+import myClasses.myMatchState;
+import myClasses.myOSMMap;
 import myClasses.myOSMWayPart;
 
 public class MatchedNLink {
 	
-	public static int objCount = 0;
+	// index in matched N links of its matching
 	public int objID = 0;
 	
 	private myOSMWayPart streetLink;
@@ -22,6 +24,9 @@ public class MatchedNLink {
 	public Vector<myDataset> matchedUpDatasetsRouteDistribution = new Vector<myDataset>();
 	public Vector<myCellInfo> matchedCellInfos = new Vector<myCellInfo>();
 	
+	// number of GPS nodes matched to this link (before reordering)
+	public int countMatchedGPSNodes = 0;
+	
 	private Color color;
 	
 	public double lengthPosStart = 0;
@@ -65,6 +70,20 @@ public class MatchedNLink {
 		}
 	}
 	
+	/*
+	 * return matching state with number of matched GPS nodes of each street
+	 * link of matchedNLinks
+	 */
+	public static myMatchState getCountMatchedGPSNodes(myOSMMap myMap, Vector<MatchedNLink> matchedNLinks) {
+		myMatchState matchState = new myMatchState(myMap);
+		
+		for (MatchedNLink matchedNLink : matchedNLinks) {
+			matchState.increaseCountMatchedGPSNodes(matchedNLink.getStreetLink(), matchedNLink.countMatchedGPSNodes);
+		}
+		
+		return matchState;
+	}
+	
 	public Color getColor() {
 		return color;
 	}
@@ -79,9 +98,6 @@ public class MatchedNLink {
 		this.streetLink = streetLink;
 		this.matchedRange = matchedRange;
 		this.color = color;
-		
-		this.objID = objCount;
-		objCount++;
 	}
 	
 	public MatchedNLink(myOSMWayPart streetLink, Color color) {
@@ -0,0 +1,190 @@
+package algorithm;
+
+import java.util.Vector;
+
+/**
+ * linear referencing of matched route: position on route (lengthPos) <->
+ * matched N link and offset in link
+ *
+ * positions of links are set by MatchedNLink.setLengthPos (prefix sums of
+ * lengths of links), link i covers lengthPosStart ... lengthPosEnd. Links
+ * are found by binary search over the end positions, if start and end
+ * positions ascend with the index of the links (always after setLengthPos),
+ * otherwise links are scanned in order. Results are the same as of a scan:
+ * the first link in order.
+ */
+public class MatchedNLinkIndex {
+
+	private Vector<MatchedNLink> matchedNLinks;
+
+	// start / end position of links
+	private double[] lengthPosStart;
+	private double[] lengthPosEnd;
+
+	private boolean isSorted = true;
+
+	/**
+	 * @param matchedNLinks
+	 *            links of route, lengthPos is set
+	 */
+	public MatchedNLinkIndex(Vector<MatchedNLink> matchedNLinks) {
+		this.matchedNLinks = matchedNLinks;
+
+		int n = matchedNLinks.size();
+
+		lengthPosStart = new double[n];
+		lengthPosEnd = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			MatchedNLink link = matchedNLinks.get(i);
+
+			lengthPosStart[i] = link.lengthPosStart;
+			lengthPosEnd[i] = link.lengthPosEnd;
+
+			if (i > 0 && !(lengthPosStart[i - 1] <= lengthPosStart[i] && lengthPosEnd[i - 1] <= lengthPosEnd[i])) {
+				isSorted = false;
+			}
+		}
+	}
+
+	/**
+	 * return index of first link with lengthPosEnd >= position, -1 if there
+	 * is none
+	 *
+	 * @param position
+	 * @return index
+	 */
+	public int getIndexOfLinkEndingAtOrAfter(double position) {
+		int n = lengthPosEnd.length;
+
+		if (isSorted == false) {
+			for (int i = 0; i < n; i++) {
+				if (position <= lengthPosEnd[i]) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int low = 0;
+		int high = n;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			// true for NaN, too
+			if (!(position <= lengthPosEnd[middle])) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return (low < n) ? low : -1;
+	}
+
+	/**
+	 * return index of first link with lengthPosStart <= position <=
+	 * lengthPosEnd, -1 if position is not on route
+	 *
+	 * @param position
+	 * @return index
+	 */
+	public int getIndexOfLink(double position) {
+		if (isSorted == false) {
+			for (int i = 0; i < lengthPosEnd.length; i++) {
+				if (lengthPosStart[i] <= position && position <= lengthPosEnd[i]) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		// if first link ending at or after position starts behind it, all
+		// following links do, too
+		int i = getIndexOfLinkEndingAtOrAfter(position);
+
+		if (i != -1 && lengthPosStart[i] <= position) {
+			return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * return first link with lengthPosStart <= position <= lengthPosEnd,
+	 * null if position is not on route
+	 *
+	 * @param position
+	 * @return MatchedNLink
+	 */
+	public MatchedNLink getLink(double position) {
+		int i = getIndexOfLink(position);
+		return (i == -1) ? null : matchedNLinks.get(i);
+	}
+
+	/**
+	 * return offset of position in link (length from start of link)
+	 *
+	 * @param link
+	 * @param position
+	 * @return offset
+	 */
+	public static double getOffset(MatchedNLink link, double position) {
+		return position - link.lengthPosStart;
+	}
+
+	/**
+	 * return position on route of offset in link
+	 *
+	 * @param link
+	 * @param offset
+	 * @return position
+	 */
+	public static double getPosition(MatchedNLink link, double offset) {
+		return link.lengthPosStart + offset;
+	}
+
+	/**
+	 * return part (0 ... 1) of wayPart of link in front of offset
+	 *
+	 * @param link
+	 * @param offset
+	 * @return distribution
+	 */
+	public static double getDistribution(MatchedNLink link, double offset) {
+		return offset / link.getStreetLink().length;
+	}
+
+	/**
+	 * return x of point on wayPart of link at distribution (0 ... 1)
+	 *
+	 * @param link
+	 * @param distribution
+	 * @return x
+	 */
+	public static double getX(MatchedNLink link, double distribution) {
+		double xLen = link.getStreetLink().endNode.x - link.getStreetLink().startNode.x;
+		xLen = xLen * distribution;
+		return link.getStreetLink().startNode.x + xLen;
+	}
+
+	/**
+	 * return y of point on wayPart of link at distribution (0 ... 1)
+	 *
+	 * @param link
+	 * @param distribution
+	 * @return y
+	 */
+	public static double getY(MatchedNLink link, double distribution) {
+		double yLen = link.getStreetLink().endNode.y - link.getStreetLink().startNode.y;
+		yLen = yLen * distribution;
+		return link.getStreetLink().startNode.y + yLen;
+	}
+
+	public int size() {
+		return matchedNLinks.size();
+	}
+
+	public MatchedNLink get(int index) {
+		return matchedNLinks.get(index);
+	}
+}
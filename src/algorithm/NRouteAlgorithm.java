@@ -3,7 +3,11 @@ package algorithm;
 import interfaces.StatusUpdate;
 
 import java.awt.Component;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.PriorityQueue;
 import java.util.TreeSet;
 import java.util.Vector;
 
@@ -11,8 +15,8 @@ import cartesian.Coordinates;
 import gps.GPSNode;
 import gps.GPSTrace;
 import myClasses.myOSMMap;
-import myClasses.myOSMWay;
 import myClasses.myOSMWayPart;
+import myClasses.myRoadGraph;
 import route.NRoute;
 
 /**
@@ -35,17 +39,20 @@ public class NRouteAlgorithm {
 	private int nRouteSize;
 
 	// reference to draw component, force repaint while animation / after
-	// changes
+	// changes (null in headless mode)
 	private Component drawComponent;
 
 	// time in ms thread should sleep after one GPS point is matched
 	private static final int DEFAULT_THREAD_SLEEP_TIME = 20;
 
+	// minimum time in ms between two progress updates in headless mode
+	private static final long HEADLESS_STATUS_UPDATE_INTERVAL = 250;
+
 	// reference to status updating object
 	private StatusUpdate statusUpdate;
 
-	// save current algorithm state here
-	private String nRouteAlgorithmState;
+	// save current algorithm state here, may be changed by other threads
+	private volatile String nRouteAlgorithmState;
 
 	// constants for N route algorithm state
 	public static final String N_ROUTE_RUNNING = "RUNNING";
@@ -93,6 +100,25 @@ public class NRouteAlgorithm {
 		nRouteAlgorithmState = N_ROUTE_RECESSED;
 	}
 
+	/**
+	 * constructor for headless mode: no animation, no sleeping between GPS
+	 * points, progress is reported through status update at a throttled rate
+	 * 
+	 * @param myMap
+	 * @param gpsTrace
+	 * @param statusUpdate
+	 */
+	public NRouteAlgorithm(myOSMMap myMap, GPSTrace gpsTrace, StatusUpdate statusUpdate) {
+		this(myMap, gpsTrace, statusUpdate, null);
+	}
+
+	/**
+	 * @return algorithm runs without draw component
+	 */
+	public boolean isHeadless() {
+		return (drawComponent == null);
+	}
+
 	/**
 	 * executes the n route algorithm, needs object that implements status
 	 * update interface in order to update current algorithm status
@@ -118,6 +144,9 @@ public class NRouteAlgorithm {
 			gpsTrace.setNodeStatus(currentGPSNodeIndex, 0);
 		}
 
+		// time of last progress update in headless mode
+		long lastStatusUpdate = System.currentTimeMillis();
+
 		// 1. get GPS Point
 		// initNewGPSPoint:
 		for (int gpsNodeIndex = 0; gpsNodeIndex < 1 /* gpsTrace.getNrOfNodes() */; gpsNodeIndex++) {
@@ -134,14 +163,26 @@ public class NRouteAlgorithm {
 				// sleep thread and refresh GUI for animation or pause if
 				// algorithm was disrupt or
 				// shut down algorithm
-				if (!sleepThread(DEFAULT_THREAD_SLEEP_TIME)) {
+				// (headless: only check state, wait while paused)
+				if (!(isHeadless() ? checkState() : sleepThread(DEFAULT_THREAD_SLEEP_TIME))) {
 					// reset N route algorithm state
 					setNRouteAlgorithmState(N_ROUTE_RECESSED);
 					return false;
 				}
 
-				// create temporary sorted set v
-				TreeSet<NRoute> sortedSetV = new TreeSet<NRoute>();
+				// report progress in headless mode
+				if (isHeadless()) {
+					long now = System.currentTimeMillis();
+
+					if (now - lastStatusUpdate >= HEADLESS_STATUS_UPDATE_INTERVAL) {
+						lastStatusUpdate = now;
+						statusUpdate.updateStatus("N route algorithm: GPS node " + currentGPSNodeIndex + " of " + gpsTrace.getNrOfNodes(),
+								100f * currentGPSNodeIndex / gpsTrace.getNrOfNodes());
+					}
+				}
+
+				// create temporary set v (in order of adding)
+				Vector<NRoute> setV = new Vector<NRoute>();
 
 				// nRouteIndex = 0;
 
@@ -161,9 +202,9 @@ public class NRouteAlgorithm {
 					//nRouteScore = nRoute.getScore();
 					//nRouteCountMatched = nRoute.getNRouteLinks().lastElement().getRangeSize();
 					
-					sortedSetV.add(nRoute);
+					setV.add(nRoute);
 
-					createChildPathAndAddToSet(nRoute, sortedSetV);
+					createChildPathAndAddToSet(nRoute, setV);
 
 					// increase n route index
 					// nRouteIndex++;
@@ -171,12 +212,12 @@ public class NRouteAlgorithm {
 
 				
 				// extract best n path and set as current sorted set
-				sortedSetS = getBestNPathFromSortedSet(sortedSetV);
+				sortedSetS = getBestNPath(setV);
 
 				// for painting
 				nRouteSet = sortedSetS;
 
-				drawComponent.repaint();
+				repaint();
 
 				// printScore(sortedSetS);
 			}
@@ -208,7 +249,7 @@ public class NRouteAlgorithm {
 		statusUpdate.finished("N route algorithm executed");
 
 		// force repaint
-		drawComponent.repaint();
+		repaint();
 
 		// reset N route algorithm state
 		setNRouteAlgorithmState(N_ROUTE_RECESSED);
@@ -234,53 +275,12 @@ public class NRouteAlgorithm {
 
 		// nRouteSize = nRouteSize *2;
 
-		double arMinDis[] = new double[nRouteSize];
-		myOSMWayPart arMinWp[] = new myOSMWayPart[nRouteSize];
-
-		for (int i = 0; i < nRouteSize; i++) {
-			arMinDis[i] = Double.MAX_VALUE;
-		}
-
-		int count = 0;
-		// search nearest link
-		myOSMWay w;
-		myOSMWayPart wp;
-		for (int wi = 0; wi < myMap.ways.size(); wi++) {
-
-			w = myMap.ways.get(wi);
-
-			for (int wpi = 0; wpi < w.WayParts.length; wpi++) {
-
-				wp = w.WayParts[wpi];
-
-				double distance = Coordinates.getDistance(gpsTrace.getNode(GPSNodeIndex), wp);
-
-				if (distance < arMinDis[nRouteSize - 1]) {
-					count++;
-
-					arMinDis[nRouteSize - 1] = distance;
-					arMinWp[nRouteSize - 1] = wp;
-
-					for (int i = nRouteSize - 1; i >= 1; i--) {
-
-						if (arMinDis[i] < arMinDis[i - 1]) {
-							double d = arMinDis[i];
-							arMinDis[i] = arMinDis[i - 1];
-							arMinDis[i - 1] = d;
-
-							myOSMWayPart wpx = arMinWp[i];
-							arMinWp[i] = arMinWp[i - 1];
-							arMinWp[i - 1] = wpx;
-						}
+		// search n nearest links via spatial index of map
+		Vector<myOSMWayPart> nearestWayParts = myMap.getWayPartIndex().getNearestWayParts(gpsTrace.getNode(GPSNodeIndex), nRouteSize);
 
-					}
-				}
-			}
-		}
-
-		for (int i = 0; i < count && i < nRouteSize; i++) {
+		for (myOSMWayPart wp : nearestWayParts) {
 			NRoute nRoute = new NRoute(gpsTrace);
-			nRoute.addLink(arMinWp[i], GPSNodeIndex);
+			nRoute.addLink(wp, GPSNodeIndex);
 
 			nRouteSet.add(nRoute);
 		}
@@ -351,21 +351,27 @@ public class NRouteAlgorithm {
 	 * outgoing links of child path
 	 * 
 	 * @param nRoute
-	 * @param sortedSet
+	 * @param nRoutes
 	 * @return
 	 */
-	private boolean createChildPathAndAddToSet(NRoute nRoute, TreeSet<NRoute> sortedSet) {
-		// try to get outgoing links for last link in n route
-		Vector<myOSMWayPart> outgoingLinks = nRoute.getOutgoingLinksForLastLink();
+	private boolean createChildPathAndAddToSet(NRoute nRoute, Vector<NRoute> nRoutes) {
+		// get last link in n route
+		MatchedLink lastMatchedLink = nRoute.getLastMatchedLink();
 
-		// build child path if we could get outgoing link(s)
-		if (outgoingLinks != null) {
+		// build child path if there is a last link
+		if (lastMatchedLink != null) {
 
 			// Logger.println("Found outgoing links for NRoute Nr." +
 			// nRouteIndex);
 
-			// create child path for every outgoing link
-			for (myOSMWayPart outgoingLink : outgoingLinks) {
+			myOSMWayPart lastLink = lastMatchedLink.getStreetLink();
+			myRoadGraph roadGraph = myMap.getRoadGraph();
+			int end = roadGraph.successorsEnd(lastLink);
+
+			// create child path for every successor of last link
+			for (int k = roadGraph.successorsBegin(lastLink); k < end; k++) {
+
+				myOSMWayPart outgoingLink = roadGraph.getSuccessor(k);
 
 				// copy given n route
 				NRoute nRouteChild = nRoute.clone();
@@ -386,8 +392,8 @@ public class NRouteAlgorithm {
 				//nRouteScore = nRouteChild.getScore();
 				//nRouteCountMatched = nRouteChild.getNRouteLinks().lastElement().getRangeSize();
 				
-				// add child path to hand over sorted set
-				sortedSet.add(nRouteChild);
+				// add child path to hand over set
+				nRoutes.add(nRouteChild);
 
 				// nRoute.getLastOSMWayPart();
 
@@ -398,7 +404,7 @@ public class NRouteAlgorithm {
 						.getStreetLink());
 
 				if (distance_nRouteChild < distance_nRoute) {
-					createChildPathAndAddToSet(nRouteChild, sortedSet);
+					createChildPathAndAddToSet(nRouteChild, nRoutes);
 				}
 			}
 
@@ -413,196 +419,111 @@ public class NRouteAlgorithm {
 
 	/**
 	 * get sorted set which only includes the n best scored path from given
-	 * sorted set
+	 * set: for every last way part only the best n route is kept, then the
+	 * n + 1 best n routes and all n routes with the same score as the last of
+	 * them are taken
 	 * 
-	 * @param sortedSet
+	 * n routes are ordered like NRoute.compareTo inside a TreeSet: score,
+	 * length and at last order of adding
+	 * 
+	 * @param nRoutes (in order of adding)
 	 * @return TreeSet<NRoute>
 	 */
-	public TreeSet<NRoute> getBestNPathFromSortedSet(TreeSet<NRoute> sortedSet) {
-
-		// NRoutes Start und Ende gleich, dann nur mit bestem Score
-
-		{
-			Vector<NRoute> filteredNRoutes = new Vector<NRoute>(sortedSet.size());
-
-			Iterator<NRoute> it = sortedSet.iterator();
-			while (it.hasNext()) {
-
-				NRoute nRoute = it.next();
-
-				boolean toAdd = true;
+	public TreeSet<NRoute> getBestNPath(final Vector<NRoute> nRoutes) {
 
-				for (int i = filteredNRoutes.size() - 1; i >= 0; i--) {
-
-					NRoute nRouteNew = filteredNRoutes.get(i);
-
-					if (nRoute != nRouteNew) {
-
-
-						myOSMWayPart wp1 = nRoute.getLastOSMWayPart().get(0);
-						myOSMWayPart wp2 = nRouteNew.getLastOSMWayPart().get(0);
-
-						if (wp1 == wp2) {
-
-							if (nRoute.getScore() < nRouteNew.getScore()) {
-
-								filteredNRoutes.remove(i);
-								filteredNRoutes.add(nRoute);
-								i = filteredNRoutes.size() - 1;
-								toAdd = false;
-
-							} else if (nRoute.getScore() == nRouteNew.getScore()) {
-
-								if (nRoute.getLength() < nRouteNew.getLength()) {
+		// compare n routes by index in given set
+		Comparator<Integer> nRouteOrder = new Comparator<Integer>() {
+			@Override
+			public int compare(Integer index1, Integer index2) {
+				return compareNRoutes(nRoutes, index1, index2);
+			}
+		};
 
-									filteredNRoutes.remove(i);
-									filteredNRoutes.add(nRoute);
-									i = filteredNRoutes.size() - 1;
-									toAdd = false;
+		// NRoutes Start und Ende gleich, dann nur mit bestem Score
+		HashMap<Integer, Integer> bestNRouteOfWayPart = new HashMap<Integer, Integer>(nRoutes.size() * 2);
 
-								} else {
+		for (int i = 0; i < nRoutes.size(); i++) {
 
-									toAdd = false;
+			Integer wayPartID = nRoutes.get(i).getLastMatchedLink().getStreetLink().ObjID;
 
-								}
+			Integer bestIndex = bestNRouteOfWayPart.get(wayPartID);
 
-							} else {
+			if (bestIndex == null || nRouteOrder.compare(i, bestIndex) < 0) {
+				bestNRouteOfWayPart.put(wayPartID, i);
+			}
+		}
 
-								toAdd = false;
+		// n + 1 best n routes, worst on top
+		PriorityQueue<Integer> nBest = new PriorityQueue<Integer>(nRouteSize + 2, Collections.reverseOrder(nRouteOrder));
 
-							}
+		for (Integer index : bestNRouteOfWayPart.values()) {
+			nBest.add(index);
 
-						}
+			if (nBest.size() > nRouteSize + 1) {
+				nBest.poll();
+			}
+		}
 
-						// }
+		// take n + 1 best n routes and all others with same score as the worst of them
+		Vector<Integer> selected = new Vector<Integer>(nBest);
 
-					}
+		if (nBest.size() == nRouteSize + 1) {
 
-				}
+			double worstScore = nRoutes.get(nBest.peek()).getScore();
 
-				if (toAdd) {
+			selected.clear();
 
-					filteredNRoutes.add(nRoute);
+			for (Integer index : bestNRouteOfWayPart.values()) {
+				double score = nRoutes.get(index).getScore();
 
+				if (score <= worstScore) {
+					selected.add(index);
 				}
-
 			}
-
-			sortedSet.clear();
-			for (int i = 0; i < filteredNRoutes.size(); i++) {
-				sortedSet.add(filteredNRoutes.get(i));
-			}
-
 		}
 
-		// store extracted routes here
-		TreeSet<NRoute> nBestSortedSet = new TreeSet<NRoute>();
+		Collections.sort(selected, nRouteOrder);
 
-		/*
-		Iterator<NRoute> itt = sortedSet.iterator();
-		int i = 0;
-		while (itt.hasNext()) {
-			NRoute nRoute = itt.next();
-			String s = "" + i + "/" + sortedSet.size() + "| " + nRoute.getNRouteLinks().lastElement().getStreetLink().parentWay.id;
-			s = s + " |" + nRoute.objID;
-			s = s + "| " + nRoute.getScore() ; 
-			s = s + " | " + nRoute.history;
-			i++;
-			System.out.println(s);
-		}
-		*/
-		
-		// initialize iterator
-		Iterator<NRoute> it = sortedSet.iterator();
+		// adding in sorted order keeps the order of equal n routes
+		TreeSet<NRoute> nBestSortedSet = new TreeSet<NRoute>();
 
-		while (it.hasNext()) {
-			
-			NRoute nRoute = it.next();
-			
-			if (nBestSortedSet.size() <= nRouteSize) {
-				nBestSortedSet.add(nRoute);
-			} else {
-				if (nBestSortedSet.last().getScore() == nRoute.getScore()) {
-					nBestSortedSet.add(nRoute);
-				} else {
-					return nBestSortedSet;					
-				}
-			}
+		for (Integer index : selected) {
+			nBestSortedSet.add(nRoutes.get(index));
 		}
-		
-		
-		//int CountAdded = 0;
-		/*
-		NRoute nRouteAlt = null;
-		NRoute nRouteNeu = null;
-		boolean istGleichGut = false;
-		boolean alteNRouteLinksgleichundScoreBesser = false;
-		while (it.hasNext()) {
-			istGleichGut = false;
-			alteNRouteLinksgleichundScoreBesser = false;
-
-			nRouteNeu = it.next();
 
-			Iterator<NRoute> it2 = nBestSortedSet.iterator();
+		// return set including best n path
+		return nBestSortedSet;
+	}
 
-			while (it2.hasNext()) {
-				nRouteAlt = it2.next();
+	/**
+	 * order of two n routes (given by index) as they would be sorted when
+	 * adding them in order of their index to a TreeSet
+	 * 
+	 * @param nRoutes
+	 * @param index1
+	 * @param index2
+	 * @return negative if first n route is better
+	 */
+	private static int compareNRoutes(Vector<NRoute> nRoutes, int index1, int index2) {
 
-				if (nRouteNeu.istGleich(nRouteAlt)) {
-					istGleichGut = true;
-				}
+		NRoute nRoute1 = nRoutes.get(index1);
+		NRoute nRoute2 = nRoutes.get(index2);
 
-				if (nRouteNeu.istNRouteLinksGleichUndScoreBesser(nRouteAlt)) {
-					nBestSortedSet.remove(nRouteAlt);
-					it2 = nBestSortedSet.iterator();
-					istGleichGut = false;
-					alteNRouteLinksgleichundScoreBesser = false;
-				} else {
-					if (nRouteAlt.istNRouteLinksGleichUndScoreBesser(nRouteNeu)) {
-						alteNRouteLinksgleichundScoreBesser = true;
-					}
-				}
-			}
+		if (nRoute1.getScore() == nRoute2.getScore()) {
 
-			if (nBestSortedSet.size() == 0) {
-				nBestSortedSet.add(nRouteNeu);
-			} else if (istGleichGut == false && alteNRouteLinksgleichundScoreBesser == false) {
-				if (nBestSortedSet.size() <= nRouteSize) {
-					nBestSortedSet.add(nRouteNeu);
-					if (nRouteNeu.getNRouteLinks().lastElement().getRangeSize() > 0) {
-//						CountAdded++;
-					}
-				} else {
-					if (nBestSortedSet.last().getScore() == nRouteNeu.getScore()) {
-						nBestSortedSet.add(nRouteNeu);
-						if (nRouteNeu.getNRouteLinks().lastElement().getRangeSize() > 0) {
-//							CountAdded++;
-						}
-					}
-					return nBestSortedSet;
-				}
+			if (nRoute1.getLength() < nRoute2.getLength()) {
+				return -1;
+			} else if (nRoute2.getLength() < nRoute1.getLength()) {
+				return 1;
 			}
 
+		} else if (nRoute1.getScore() < nRoute2.getScore()) {
+			return -1;
+		} else {
+			return 1;
 		}
-		*/
-		
 
-		/*
-		itt = nBestSortedSet.iterator();
-		i = 0;
-		while (itt.hasNext()) {
-			NRoute nRoute = itt.next();
-			String s = "" + i + "/" + sortedSet.size() + "| " + nRoute.getNRouteLinks().lastElement().getStreetLink().parentWay.id;
-			s = s + " |" + nRoute.objID;
-			s = s + "| " + nRoute.getScore() ; 
-			s = s + " | " + nRoute.history;
-			i++;
-			//System.out.println(s);
-		}
-		*/
-		
-		// return set including best n path
-		return nBestSortedSet;
+		return Integer.compare(index1, index2);
 	}
 
 	/**
@@ -762,7 +683,12 @@ public class NRouteAlgorithm {
 	 * @param status
 	 */
 	public void setNRouteAlgorithmState(String status) {
-		nRouteAlgorithmState = status;
+		synchronized (this) {
+			nRouteAlgorithmState = status;
+
+			// wake up paused algorithm in headless mode
+			notifyAll();
+		}
 	}
 
 	/**
@@ -786,6 +712,40 @@ public class NRouteAlgorithm {
 	 * }
 	 */
 
+	/**
+	 * check state in headless mode, wait (without polling) while algorithm is
+	 * paused, an interrupted thread shuts down algorithm (running or paused)
+	 * 
+	 * @return algorithm should be continued
+	 */
+	private boolean checkState() {
+		// cheap check while running
+		if (nRouteAlgorithmState == N_ROUTE_RUNNING) {
+			return !Thread.currentThread().isInterrupted();
+		}
+
+		synchronized (this) {
+			while (nRouteAlgorithmState == N_ROUTE_PAUSED) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					// interrupted thread shuts down algorithm
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+
+		// check if algorithm should be continued or shut down
+		return (nRouteAlgorithmState == N_ROUTE_RUNNING && !Thread.currentThread().isInterrupted());
+	}
+
+	private void repaint() {
+		if (drawComponent != null) {
+			drawComponent.repaint();
+		}
+	}
+
 	private boolean sleepThread(long milliseconds) {
 		// Thread sleep for animation and refresh painting
 		do {
@@ -160,26 +160,29 @@ public class ReorderedMatchedGPSNode extends MatchedGPSNode {
 			mnl.matchedGPSNodes.clear();
 		}
 
+		MatchedNLinkIndex linkIndex = new MatchedNLinkIndex(matchedNLinks);
+		
 		for (int i = 0; i < gpsNodesToMatch.size(); i++) {
 			MatchedGPSNode n = gpsNodesToMatch.get(i);
 
-			for (int j = 0; j < matchedNLinks.size(); j++) {
+			// first link ending at or after position of node
+			int j;
+			if (n.isReordered) {
+				j = linkIndex.getIndexOfLinkEndingAtOrAfter(n.lengthPosReordered);
+			} else {
+				j = linkIndex.getIndexOfLinkEndingAtOrAfter(n.lengthPos);
+			}
+			
+			if (j != -1) {
 				MatchedNLink  mnl = matchedNLinks.get(j);
+				
+				mnl.matchedGPSNodes.add(n);
+				n.matchedNLink = mnl;
 
-				if (	(n.isReordered == false && n.lengthPos <= mnl.lengthPosEnd)
-						||
-						(n.isReordered == true && n.lengthPosReordered <= mnl.lengthPosEnd)
-					) {
-					
-					mnl.matchedGPSNodes.add(n);
-					n.matchedNLink = mnl;
-
-					if (n.isReordered) {
-						double lenPosOfNinLink = n.lengthPosReordered - mnl.lengthPosStart;
-						n.matched_distribution_in_WayPartyReordered = lenPosOfNinLink / mnl.getStreetLink().length;
-						n.setMatchedXYreordered();
-					}
-					j = matchedNLinks.size();
+				if (n.isReordered) {
+					double lenPosOfNinLink = MatchedNLinkIndex.getOffset(mnl, n.lengthPosReordered);
+					n.matched_distribution_in_WayPartyReordered = MatchedNLinkIndex.getDistribution(mnl, lenPosOfNinLink);
+					n.setMatchedXYreordered();
 				}
 			}
 		}
@@ -25,8 +25,9 @@ import java.awt.geom.Point2D;
  */
 public class Coordinates {
 
-	// use static JXMapViewer instance to convert geographic coordinates
-	private static JXMapViewer MapViewer = new JXMapViewer();
+	// use static JXMapViewer instance to convert geographic coordinates for
+	// zoom levels other than 1, created on first use
+	private static JXMapViewer MapViewer = null;
 
 	/**
 	 * set JXMapViewer for converting coordinates
@@ -34,10 +35,17 @@ public class Coordinates {
 	 * @param JXMapViewer
 	 *            map
 	 */
-	public static void setMapViewer(JXMapViewer map) {
+	public static synchronized void setMapViewer(JXMapViewer map) {
 		MapViewer = map;
 	}
 
+	private static synchronized JXMapViewer getMapViewer() {
+		if (MapViewer == null) {
+			MapViewer = new JXMapViewer();
+		}
+		return MapViewer;
+	}
+
 	// Plate carre projection
 	/**
 	 *
@@ -68,10 +76,8 @@ public class Coordinates {
 	 * @return cartesian Y coordinate (int)
 	 */
 	public static Point2D getCartesianXY(double lon, double lat) {
-		// use JXMapViewer to convert geographic coordinates to cartesian
-		// geoToPixel(geoPosition(lat,lon),MapViewer.getZoom()) use Zoom=1
-		Point2D point = getCartesianXY(lon, lat, 1);
-		return point;
+		// same as geoToPixel(geoPosition(lat,lon),1) of JXMapViewer
+		return new Point2D.Double(MercatorProjection.getX(lon), MercatorProjection.getY(lat));
 	}
 
 	/**
@@ -85,7 +91,7 @@ public class Coordinates {
 	 */
 	public static Point2D getCartesianXY(double lon, double lat, int zoom) {
 		// use JXMapViewer to convert geographic coordinates to cartesian
-		Point2D point = MapViewer.getTileFactory().geoToPixel(
+		Point2D point = getMapViewer().getTileFactory().geoToPixel(
 				new GeoPosition(lat, lon), zoom);
 		return point;
 	}
@@ -99,8 +105,8 @@ public class Coordinates {
 	 * @return GeoPosition
 	 */
 	public static GeoPosition getGeoPos(double x, double y) {
-		// Point2D point2d = new Point2D.Double(x,y);
-		return getGeoPos(x, y, 1);
+		// same as pixelToGeo(new Point2D.Double(x,y),1) of JXMapViewer
+		return new GeoPosition(MercatorProjection.getLat(y), MercatorProjection.getLon(x));
 	}
 
 	/**
@@ -113,7 +119,7 @@ public class Coordinates {
 	 */
 	public static GeoPosition getGeoPos(double x, double y, int zoom) {
 		// Point2D point2d = new Point2D.Double(x,y);
-		return MapViewer.getTileFactory().pixelToGeo(new Point2D.Double(x, y),
+		return getMapViewer().getTileFactory().pixelToGeo(new Point2D.Double(x, y),
 				zoom);
 	}
 
@@ -142,11 +148,8 @@ public class Coordinates {
 	 * @return cartesian coordinate (Point2D)
 	 */
 	public static Point2D getCartesian(double lon, double lat) {
-		// use JXMapViewer to convert geographic coordinates to cartesian
-		// geoToPixel(geoPosition(lat,lon),MapViewer.getZoom()) use Zoom=1
-		Point2D point = MapViewer.getTileFactory().geoToPixel(
-				new GeoPosition(lat, lon), 1);
-		return point;
+		// same as geoToPixel(geoPosition(lat,lon),1) of JXMapViewer
+		return getCartesianXY(lon, lat);
 	}
 
 	/**
@@ -160,7 +163,7 @@ public class Coordinates {
 	 */
 	public static Point2D getCartesian(double lon, double lat, int zoom) {
 		// use JXMapViewer to convert geographic coordinates to cartesian
-		Point2D point = MapViewer.getTileFactory().geoToPixel(
+		Point2D point = getMapViewer().getTileFactory().geoToPixel(
 				new GeoPosition(lat, lon), zoom);
 		return point;
 	}
@@ -0,0 +1,145 @@
+/*
+ * This class provides the Mercator projection used by JXMapViewer
+ * (EmptyTileFactory, 256 pixel tiles, total map zoom 17) for zoom level 1
+ * without any Swing objects.
+ *
+ * results are identical to JXMapViewer.getTileFactory().geoToPixel(..., 1)
+ * and pixelToGeo(..., 1)
+ *
+ */
+
+package cartesian;
+
+public class MercatorProjection {
+
+	// map size at zoom level 1: 256 * 2^(17 - 1) pixel
+	private static final int MAP_SIZE = 256 << 16;
+
+	private static final double MAP_CENTER = MAP_SIZE / 2;
+
+	private static final double LONGITUDE_DEGREE_WIDTH = MAP_SIZE / 360.0;
+
+	private static final double LONGITUDE_RADIAN_WIDTH = MAP_SIZE / (2.0 * Math.PI);
+
+	// same constant as GeoUtil (not Math.toRadians)
+	private static final double DEGREE_TO_RADIAN = 0.017453292519943295;
+
+	private static final double MAX_SIN_LATITUDE = 0.9999;
+
+	private MercatorProjection() {
+	}
+
+	/**
+	 * get x value of a longitude at zoom level 1
+	 *
+	 * @param lon
+	 * @return x
+	 */
+	public static double getX(double lon) {
+		return MAP_CENTER + lon * LONGITUDE_DEGREE_WIDTH;
+	}
+
+	/**
+	 * get y value of a latitude at zoom level 1
+	 *
+	 * @param lat
+	 * @return y
+	 */
+	public static double getY(double lat) {
+		double sinLat = Math.sin(lat * DEGREE_TO_RADIAN);
+
+		if (sinLat > MAX_SIN_LATITUDE) {
+			sinLat = MAX_SIN_LATITUDE;
+		}
+		if (sinLat < -MAX_SIN_LATITUDE) {
+			sinLat = -MAX_SIN_LATITUDE;
+		}
+
+		return MAP_CENTER + 0.5 * Math.log((1 + sinLat) / (1 - sinLat)) * -1.0 * LONGITUDE_RADIAN_WIDTH;
+	}
+
+	/**
+	 * get longitude of a x value at zoom level 1
+	 *
+	 * @param x
+	 * @return longitude
+	 */
+	public static double getLon(double x) {
+		return (x - MAP_CENTER) / LONGITUDE_DEGREE_WIDTH;
+	}
+
+	/**
+	 * get latitude of a y value at zoom level 1
+	 *
+	 * @param y
+	 * @return latitude
+	 */
+	public static double getLat(double y) {
+		double latRadians = (y - MAP_CENTER) / (-1.0 * LONGITUDE_RADIAN_WIDTH);
+
+		return (2 * Math.atan(Math.exp(latRadians)) - Math.PI / 2) / DEGREE_TO_RADIAN;
+	}
+
+	/**
+	 * convert geographical positions [from, to) to x y values at zoom level 1
+	 *
+	 * @param lon
+	 * @param lat
+	 * @param x
+	 *            result, may be the same array as lon
+	 * @param y
+	 *            result, may be the same array as lat
+	 * @param from
+	 * @param to
+	 */
+	public static void toCartesian(double[] lon, double[] lat, double[] x, double[] y, int from, int to) {
+		for (int i = from; i < to; i++) {
+			x[i] = getX(lon[i]);
+			y[i] = getY(lat[i]);
+		}
+	}
+
+	/**
+	 * convert all geographical positions to x y values at zoom level 1
+	 *
+	 * @param lon
+	 * @param lat
+	 * @param x
+	 * @param y
+	 */
+	public static void toCartesian(double[] lon, double[] lat, double[] x, double[] y) {
+		toCartesian(lon, lat, x, y, 0, lon.length);
+	}
+
+	/**
+	 * convert x y values [from, to) at zoom level 1 back to geographical
+	 * positions
+	 *
+	 * @param x
+	 * @param y
+	 * @param lon
+	 *            result, may be the same array as x
+	 * @param lat
+	 *            result, may be the same array as y
+	 * @param from
+	 * @param to
+	 */
+	public static void toGeo(double[] x, double[] y, double[] lon, double[] lat, int from, int to) {
+		for (int i = from; i < to; i++) {
+			lon[i] = getLon(x[i]);
+			lat[i] = getLat(y[i]);
+		}
+	}
+
+	/**
+	 * convert all x y values at zoom level 1 back to geographical positions
+	 *
+	 * @param x
+	 * @param y
+	 * @param lon
+	 * @param lat
+	 */
+	public static void toGeo(double[] x, double[] y, double[] lon, double[] lat) {
+		toGeo(x, y, lon, lat, 0, x.length);
+	}
+}
@@ -11,16 +11,13 @@ import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Date;
-import java.util.Vector;
 import java.util.regex.Pattern;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
-import cartesian.Coordinates;
-import java.awt.geom.Point2D;
-import java.util.*;
+import cartesian.MercatorProjection;
 
 /**
  * @author Daniel Sathees Elmo
@@ -32,12 +29,6 @@ import java.util.*;
 
 public class GPSTraceStreamer {
 
-	// pattern for GPS point: timestamp, latitude, longitude ->
-	// digit(s),digit(s).digit(s),digit(s).digit(s)
-	static private final Pattern gpsPattern = Pattern.compile("-?\\d+(,-?\\d+.\\d+){2}");
-	static private final Pattern gpsPattern2 = Pattern.compile("-?\\d+(,-?\\d+.\\d+){4}");
-	static private final Pattern gpsSplitPattern = Pattern.compile(",");
-
 	// pattern for date strings in GPX files (e.g. "2012-10-02T16:17:16Z"), we
 	// have to split at '-', 'T' and 'Z' Position
 	static private final Pattern gpxDateSplitPattern = Pattern.compile("[-TZ]");
@@ -46,8 +37,13 @@ public class GPSTraceStreamer {
 														// 1.Year 2.Month 3.Day
 														// 4.Time(HH:MM:ss)
 
-	// create date formatter for parsing date string
-	static private DateFormat dateFormatter = DateFormat.getDateTimeInstance();
+	// create date formatter for parsing date string, one per thread
+	static private ThreadLocal<DateFormat> dateFormatter = new ThreadLocal<DateFormat>() {
+		@Override
+		protected DateFormat initialValue() {
+			return DateFormat.getDateTimeInstance();
+		}
+	};
 
 	// for GPX parsing (XML)
 	static private XMLInputFactory xmlInputfactory = XMLInputFactory.newInstance();
@@ -58,9 +54,20 @@ public class GPSTraceStreamer {
 		dfS.setDecimalSeparator('.');
 	}
 	
-	// create formations for latitude (+-90) and longitude (+-180)
-	static private DecimalFormat latFormat = new DecimalFormat("##.000000000", dfS);
-	static private DecimalFormat lonFormat = new DecimalFormat("###.000000000", dfS);
+	// create formations for latitude (+-90) and longitude (+-180),
+	// one per thread, DecimalFormat is not thread safe
+	static private ThreadLocal<DecimalFormat> latFormat = new ThreadLocal<DecimalFormat>() {
+		@Override
+		protected DecimalFormat initialValue() {
+			return new DecimalFormat("##.000000000", dfS);
+		}
+	};
+	static private ThreadLocal<DecimalFormat> lonFormat = new ThreadLocal<DecimalFormat>() {
+		@Override
+		protected DecimalFormat initialValue() {
+			return new DecimalFormat("###.000000000", dfS);
+		}
+	};
 
 	/** 
 	 * converts Text or GPX formated files including a trace to a GPSTrace 
@@ -89,9 +96,9 @@ public class GPSTraceStreamer {
 
 		// update status, work finished!
 		statusUpdate.finished("GPS trace file \"" + gpsTraceFile.getName() + "\" with " + gpsTrace.getNrOfNodes()
-				+ " GPS points loaded! Boundary min(lon/lat) max (lon/lat): (" + lonFormat.format(gpsTrace.getMinLon())
-				+ ", " + latFormat.format(gpsTrace.getMinLat()) + ") (" + lonFormat.format(gpsTrace.getMaxLon()) + ", "
-				+ latFormat.format(gpsTrace.getMaxLat()) + ")");
+				+ " GPS points loaded! Boundary min(lon/lat) max (lon/lat): (" + lonFormat.get().format(gpsTrace.getMinLon())
+				+ ", " + latFormat.get().format(gpsTrace.getMinLat()) + ") (" + lonFormat.get().format(gpsTrace.getMaxLon()) + ", "
+				+ latFormat.get().format(gpsTrace.getMaxLat()) + ")");
 		/*
 		 * System.out.println("GPS trace file \"" + gpsTraceFile.getName() +
 		 * "\" with " + gpsTrace.getNrOfNodes() +
@@ -120,169 +127,8 @@ public class GPSTraceStreamer {
 	 */
 	public static GPSTrace convertToGPSPathFromTextFile(String filePath, StatusUpdate statusUpdate) throws Exception {
 		try {
-			// variables
-			GPSTrace gpsTrace;
-			int nrOfGPSPoints = 0;
-			long refTimeStamp = 0;
-
-			// access file and save name
-			File gpsTraceFile = new File(filePath);
-
-			// read file via buffered Reader due to better performance
-			FileReader fReader = new FileReader(gpsTraceFile);
-			BufferedReader bReader = new BufferedReader(fReader);
-
-			// read first line
-			String line = bReader.readLine();
-
-			// line must be "#n" with n = Number Of GPS Points in file
-			if (line.matches("#\\d+")) {
-				nrOfGPSPoints = Integer.parseInt(line.substring(1));
-				
-				// read second line
-				line = bReader.readLine();
-
-				// line must contain reference time stamp, ignore case sensitivity
-				if (line.matches("(?i)#all Tstamps substracted by \\d+"))
-					refTimeStamp = Long.parseLong(line.substring(28));
-				else
-					System.out.println("Numbers of GPS Point information couldn't be read");
-
-				// read third line, ignore though it contains information about GPS
-				// information syntax
-				bReader.readLine();
-
-				// initialize GPS path
-				gpsTrace = new GPSTrace(nrOfGPSPoints, refTimeStamp);
-
-				// store read data
-				long timeStamp = 0;
-				long prevTime = Long.MIN_VALUE;
-				double latitude = 0.0;
-				double longitude = 0.0;
-
-				// store read data from file
-				String[] gpsData;
-
-				// current read line
-				int currentLineNr = 0;
-				float currentProgress = 0;
-
-				int count = 0;
-
-				while ((line = bReader.readLine()) != null) {
-					count++;
-
-					// read line must confirm to pattern
-					if (gpsPattern.matcher(line).matches() || gpsPattern2.matcher(line).matches()
-							|| line.startsWith("2014-")) {
-						gpsData = gpsSplitPattern.split(line);
-
-						// read time, read latitude/longitude
-						if (line.startsWith("2014-")) {
-							Calendar c = Calendar.getInstance();
-
-							String[] sdatetime = line.split(" ");
-							String[] sdate = sdatetime[0].split("-");
-							String[] stime = sdatetime[1].split(".0000000,");
-							stime = stime[0].split(":");
-
-							c.set(Integer.parseInt(sdate[0]), Integer.parseInt(sdate[1]), Integer.parseInt(sdate[2]),
-									Integer.parseInt(stime[0]), Integer.parseInt(stime[1]), Integer.parseInt(stime[2]));
-
-							timeStamp = c.getTimeInMillis();
-						} else {
-							timeStamp = Long.parseLong(gpsData[0]);
-						}
-
-						latitude = Double.parseDouble(gpsData[1]);
-						longitude = Double.parseDouble(gpsData[2]);
-
-						// check if its time is greater then previous GPS point's
-						// time
-						if (timeStamp > prevTime) {
-							// add node to GPS Path
-							Point2D p = Coordinates.getCartesianXY(longitude, latitude);
-							gpsTrace.addNode(p.getX(), p.getY(), timeStamp, longitude, latitude);
-							prevTime = timeStamp;
-						}
-					}
-					// ignore comments
-					else if (line.startsWith("#"))
-						continue;
-					else
-						System.out.println(line + " doesn't match gps information pattern!");
-
-					// update status
-					currentLineNr++;
-					currentProgress = ((float) currentLineNr / nrOfGPSPoints * 100);
-					statusUpdate.updateStatus("reading line Nr." + currentLineNr + "...", currentProgress);
-				}
-
-				nrOfGPSPoints = count;
-
-				// close reader
-				bReader.close();
-				fReader.close();
-
-				// return created GPS path
-				return gpsTrace;
-
-			} if (line.matches("\\d+:(.*)$") && line.matches("(.*)\"class\":(.*)")) {
-				Vector<GPSNode> vTemp = new Vector<GPSNode>();
-
-				long prevTime = Long.MIN_VALUE;
-				
-				line = bReader.readLine();
-
-				while (line != null) {
-					if (line.matches("\\d+:(.*)$") && line.contains("\"lat\":") && line.contains("\"lon\":")) {
-						String[] lines = line.split(":", 2);
-
-						long timeStamp = Long.parseLong(lines[0]);
-
-						lines = line.split("\"lat\":", 2);
-						
-						lines = lines[1].split(",\"lon\":", 2);
-						
-						double lat = Double.parseDouble(lines[0]); 
-						
-						lines = lines[1].split(",", 2);
-						
-						double lon = Double.parseDouble(lines[0]); 
-						
-						Point2D p = Coordinates.getCartesianXY(lon, lat);
-						
-						GPSNode gpsNode = new GPSNode(p.getX(), p.getY(), timeStamp, lon, lat);
-						
-						if (timeStamp > prevTime) {
-							vTemp.addElement(gpsNode);	
-							prevTime = timeStamp;
-						}
-					}
-					
-					line = bReader.readLine();
-				}
-				
-				// close reader
-				bReader.close();
-				fReader.close();
-
-				gpsTrace = new GPSTrace(vTemp.size(), 0);
-				
-				for (int i = 0; i < vTemp.size(); i++) {
-					gpsTrace.addNode(vTemp.get(i));
-				}
-				
-				// return created GPS path
-				return gpsTrace;
-				
-				
-			} else {
-				System.out.println("Numbers of GPS Point information couldn't be read");
-				bReader.close();
-				throw new Exception("Numbers of GPS Point information couldn't be read");
-			}
+			// parse bytes of file, see GPSTraceTextParser for supported formats
+			return new GPSTraceTextParser(filePath, statusUpdate).parse();
 
 		} catch (FileNotFoundException e) {
 			System.out.println("GPS-trace file not found!");
@@ -398,8 +244,7 @@ public class GPSTraceStreamer {
 				// reset track point flag
 				else if (parser.getLocalName().equals("time") && isInsideTrackPointBlock) {
 					timeStamp = readGPXTimeStamp(parser);
-					Point2D p = Coordinates.getCartesianXY(lon, lat);
-					gpsTrace.addNode(p.getX(), p.getY(), timeStamp, lon, lat);
+					gpsTrace.addNode(MercatorProjection.getX(lon), MercatorProjection.getY(lat), timeStamp, lon, lat);
 					isInsideTrackPointBlock = false;
 
 					// calculate progress
@@ -488,7 +333,7 @@ public class GPSTraceStreamer {
 			throw new Exception("GPX date string doesn't match to format YYYY-MM-DDTHH:MM:ssZ");
 
 		// parse date string
-		Date date = dateFormatter.parse(dateString);
+		Date date = dateFormatter.get().parse(dateString);
 
 		// return date in milliseconds since 1.January.1970
 		return date.getTime();
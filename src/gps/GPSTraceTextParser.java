@@ -0,0 +1,608 @@
+/*
+ * Parse text based GPS traces
+ */
+
+package gps;
+
+import interfaces.StatusUpdate;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Vector;
+import java.util.regex.Pattern;
+
+import cartesian.MercatorProjection;
+
+/**
+ * streaming parser for the text formats read by
+ * GPSTraceStreamer.convertToGPSPathFromTextFile:
+ *
+ * "timestamp,lat,lon" or "timestamp,lat,lon,x,y" lines after a "#n" header,
+ * "2014-MM-DD HH:MM:SS.0000000,lat,lon,..." lines after a "#n" header and
+ * "timestamp:{...,"lat":lat,"lon":lon,...}" lines after a "timestamp:{"class":...}" line
+ *
+ * the file is read through a large byte buffer, numbers are parsed in place
+ * without creating strings. Lines which don't fit these layouts exactly are
+ * parsed by the regular expressions as before, so results don't change.
+ */
+class GPSTraceTextParser {
+
+	// pattern for GPS point: timestamp, latitude, longitude ->
+	// digit(s),digit(s).digit(s),digit(s).digit(s)
+	static private final Pattern gpsPattern = Pattern.compile("-?\\d+(,-?\\d+.\\d+){2}");
+	static private final Pattern gpsPattern2 = Pattern.compile("-?\\d+(,-?\\d+.\\d+){4}");
+	static private final Pattern gpsSplitPattern = Pattern.compile(",");
+
+	static private final byte[] DATE_PREFIX = { '2', '0', '1', '4', '-' };
+	static private final byte[] LAT_KEY = { '"', 'l', 'a', 't', '"', ':' };
+	static private final byte[] LON_KEY = { ',', '"', 'l', 'o', 'n', '"', ':' };
+	static private final byte[] DATE_SEPARATORS = { '-', ' ', ':', ':' };
+
+	static private final int BUFFER_SIZE = 1 << 20;
+
+	// update status at most every 250 ms, check time every 1024 lines
+	static private final long STATUS_INTERVAL = 250000000L;
+	static private final int STATUS_CHECK_LINES = 1024;
+
+	// decimals with up to 15 digits and 22 fraction digits are exact as double
+	static private final int MAX_EXACT_DIGITS = 15;
+	static private final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	// result of parsing a GPS line
+	static private final int GPS_LINE = 0;
+	static private final int COMMENT_LINE = 1;
+	static private final int UNKNOWN_LINE = 2;
+
+	private String filePath;
+	private StatusUpdate statusUpdate;
+
+	// read buffer, current line is buffer[lineStart] ... buffer[lineEnd - 1]
+	private InputStream inputStream;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+	private boolean endOfFile = false;
+	private boolean skipLineFeed = false;
+	private int lineStart;
+	private int lineEnd;
+
+	// values of last parsed line
+	private long timeStamp;
+	private double latitude;
+	private double longitude;
+
+	// value of last parsed number
+	private long parsedLong;
+	private double parsedDouble;
+
+	// for "2014-..." lines: month, day, hour, minute, second
+	private int[] dateValues = new int[5];
+	private Calendar calendar = null;
+
+	private long lastStatusTime;
+
+	GPSTraceTextParser(String filePath, StatusUpdate statusUpdate) {
+		this.filePath = filePath;
+		this.statusUpdate = statusUpdate;
+	}
+
+	/**
+	 * parse file to GPS trace
+	 *
+	 * @return GPS trace
+	 * @throws Exception
+	 */
+	GPSTrace parse() throws Exception {
+		inputStream = new FileInputStream(filePath);
+
+		try {
+			// line must be "#n" with n = Number Of GPS Points in file
+			String line = readLine() ? getLine() : "";
+
+			if (line.matches("#\\d+")) {
+				return parseCSV(Integer.parseInt(line.substring(1)));
+			}
+
+			if (line.matches("\\d+:(.*)$") && line.matches("(.*)\"class\":(.*)")) {
+				return parseJSON();
+			}
+
+			System.out.println("Numbers of GPS Point information couldn't be read");
+			throw new Exception("Numbers of GPS Point information couldn't be read");
+
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/*
+	 * "timestamp,lat,lon[,x,y]" or "2014-..." lines
+	 */
+	private GPSTrace parseCSV(int nrOfGPSPoints) throws IOException {
+		long refTimeStamp = 0;
+
+		// line must contain reference time stamp, ignore case sensitivity
+		String line = readLine() ? getLine() : "";
+
+		if (line.matches("(?i)#all Tstamps substracted by \\d+"))
+			refTimeStamp = Long.parseLong(line.substring(28));
+		else
+			System.out.println("Numbers of GPS Point information couldn't be read");
+
+		// ignore third line, it contains information about GPS information syntax
+		readLine();
+
+		GPSTrace gpsTrace = new GPSTrace(nrOfGPSPoints, refTimeStamp);
+
+		long prevTime = Long.MIN_VALUE;
+		int currentLineNr = 0;
+
+		lastStatusTime = System.nanoTime();
+
+		while (readLine()) {
+			int lineType;
+
+			if (parseCSVLine(lineStart, lineEnd) || parseDateLine(lineStart, lineEnd)) {
+				lineType = GPS_LINE;
+			} else {
+				lineType = parseCSVLine(getLine());
+			}
+
+			if (lineType == GPS_LINE) {
+				// check if its time is greater then previous GPS point's time
+				if (timeStamp > prevTime) {
+					gpsTrace.addNode(MercatorProjection.getX(longitude), MercatorProjection.getY(latitude), timeStamp, longitude, latitude);
+					prevTime = timeStamp;
+				}
+			}
+			// ignore comments
+			else if (lineType == COMMENT_LINE)
+				continue;
+			else
+				System.out.println(getLine() + " doesn't match gps information pattern!");
+
+			// update status
+			currentLineNr++;
+			if (currentLineNr % STATUS_CHECK_LINES == 0)
+				updateStatus(currentLineNr, nrOfGPSPoints, false);
+		}
+
+		updateStatus(currentLineNr, nrOfGPSPoints, true);
+
+		return gpsTrace;
+	}
+
+	/*
+	 * "timestamp:{...}" lines
+	 */
+	private GPSTrace parseJSON() throws IOException {
+		Vector<GPSNode> vTemp = new Vector<GPSNode>();
+
+		long prevTime = Long.MIN_VALUE;
+		int currentLineNr = 0;
+
+		lastStatusTime = System.nanoTime();
+
+		while (readLine()) {
+			if (parseJSONLine(lineStart, lineEnd) || parseJSONLine(getLine())) {
+				if (timeStamp > prevTime) {
+					vTemp.addElement(new GPSNode(MercatorProjection.getX(longitude), MercatorProjection.getY(latitude), timeStamp, longitude, latitude));
+					prevTime = timeStamp;
+				}
+			}
+
+			currentLineNr++;
+			if (currentLineNr % STATUS_CHECK_LINES == 0)
+				updateStatus(currentLineNr, 0, false);
+		}
+
+		GPSTrace gpsTrace = new GPSTrace(vTemp.size(), 0);
+
+		for (int i = 0; i < vTemp.size(); i++) {
+			gpsTrace.addNode(vTemp.get(i));
+		}
+
+		return gpsTrace;
+	}
+
+	/*
+	 * update status if last update is long enough ago
+	 */
+	private void updateStatus(int currentLineNr, int nrOfGPSPoints, boolean force) {
+		long time = System.nanoTime();
+
+		if (force || time - lastStatusTime >= STATUS_INTERVAL) {
+			if (nrOfGPSPoints > 0)
+				statusUpdate.updateStatus("reading line Nr." + currentLineNr + "...", (float) currentLineNr / nrOfGPSPoints * 100);
+			else
+				statusUpdate.updateStatus("reading line Nr." + currentLineNr + "...");
+
+			lastStatusTime = time;
+		}
+	}
+
+	// ///////////// fast parsing on bytes //////////////////////////////
+
+	/*
+	 * "timestamp,lat,lon" or "timestamp,lat,lon,x,y" with decimals "-d.d"
+	 */
+	private boolean parseCSVLine(int start, int end) {
+		int p = parseLong(start, end);
+		if (p < 0 || p >= end || buffer[p] != ',')
+			return false;
+		long t = parsedLong;
+
+		p = parseDecimal(p + 1, end, true);
+		if (p < 0 || p >= end || buffer[p] != ',')
+			return false;
+		double lat = parsedDouble;
+
+		p = parseDecimal(p + 1, end, true);
+		if (p < 0)
+			return false;
+		double lon = parsedDouble;
+
+		if (p < end) {
+			// two more values, not used
+			if (buffer[p] != ',')
+				return false;
+			p = parseDecimal(p + 1, end, true);
+			if (p < 0 || p >= end || buffer[p] != ',')
+				return false;
+			p = parseDecimal(p + 1, end, true);
+			if (p != end)
+				return false;
+		}
+
+		timeStamp = t;
+		latitude = lat;
+		longitude = lon;
+
+		return true;
+	}
+
+	/*
+	 * "2014-MM-DD HH:MM:SS.0000000,lat,lon..."
+	 */
+	private boolean parseDateLine(int start, int end) {
+		if (!startsWith(start, end, DATE_PREFIX))
+			return false;
+
+		int p = start + DATE_PREFIX.length;
+		for (int i = 0; i < dateValues.length; i++) {
+			p = parseInt(p, end);
+			if (p < 0)
+				return false;
+			dateValues[i] = (int) parsedLong;
+
+			if (i < DATE_SEPARATORS.length) {
+				if (p >= end || buffer[p] != DATE_SEPARATORS[i])
+					return false;
+				p++;
+			}
+		}
+
+		// seconds are followed by ".0000000,"
+		if (p + 9 > end || buffer[p + 8] != ',')
+			return false;
+		for (int i = 1; i < 8; i++) {
+			if (buffer[p + i] != '0')
+				return false;
+		}
+
+		p = parseDecimal(p + 9, end, true);
+		if (p < 0 || p >= end || buffer[p] != ',')
+			return false;
+		double lat = parsedDouble;
+
+		p = parseDecimal(p + 1, end, true);
+		if (p < 0 || (p < end && buffer[p] != ','))
+			return false;
+		double lon = parsedDouble;
+
+		if (calendar == null) {
+			calendar = Calendar.getInstance();
+			calendar.clear();
+		}
+		calendar.set(2014, dateValues[0], dateValues[1], dateValues[2], dateValues[3], dateValues[4]);
+
+		timeStamp = calendar.getTimeInMillis();
+		latitude = lat;
+		longitude = lon;
+
+		return true;
+	}
+
+	/*
+	 * "timestamp:{...,"lat":lat,"lon":lon,...}"
+	 */
+	private boolean parseJSONLine(int start, int end) {
+		int p = parseLong(start, end);
+		if (p < 0 || p >= end || buffer[p] != ':' || buffer[start] == '-')
+			return false;
+		long t = parsedLong;
+
+		p = indexOf(p, end, LAT_KEY);
+		if (p < 0)
+			return false;
+
+		p = parseDecimal(p + LAT_KEY.length, end, false);
+		if (p < 0 || !startsWith(p, end, LON_KEY))
+			return false;
+		double lat = parsedDouble;
+
+		p = parseDecimal(p + LON_KEY.length, end, false);
+		if (p < 0 || (p < end && buffer[p] != ','))
+			return false;
+		double lon = parsedDouble;
+
+		timeStamp = t;
+		latitude = lat;
+		longitude = lon;
+
+		return true;
+	}
+
+	/*
+	 * parse "-?\d+" with up to 18 digits to parsedLong, return end index or -1
+	 */
+	private int parseLong(int p, int end) {
+		boolean negative = (p < end && buffer[p] == '-');
+		if (negative)
+			p++;
+
+		int first = p;
+		long value = 0;
+
+		while (p < end && buffer[p] >= '0' && buffer[p] <= '9') {
+			value = value * 10 + (buffer[p] - '0');
+			p++;
+		}
+
+		if (p == first || p - first > 18)
+			return -1;
+
+		parsedLong = negative ? -value : value;
+		return p;
+	}
+
+	/*
+	 * parse "\d+" with up to 9 digits to parsedLong, return end index or -1
+	 */
+	private int parseInt(int p, int end) {
+		if (p >= end || buffer[p] == '-')
+			return -1;
+
+		int next = parseLong(p, end);
+		if (next - p > 9)
+			return -1;
+
+		return next;
+	}
+
+	/*
+	 * parse "-?\d+.\d+" (or "-?\d+(.\d+)?" if fraction is not required) to
+	 * parsedDouble, return end index or -1. Result is identical to
+	 * Double.parseDouble.
+	 */
+	private int parseDecimal(int p, int end, boolean fractionRequired) {
+		int start = p;
+
+		boolean negative = (p < end && buffer[p] == '-');
+		if (negative)
+			p++;
+
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+
+		int first = p;
+		while (p < end && buffer[p] >= '0' && buffer[p] <= '9') {
+			if (digits < 18) {
+				mantissa = mantissa * 10 + (buffer[p] - '0');
+				if (mantissa > 0)
+					digits++;
+			} else {
+				digits++;
+			}
+			p++;
+		}
+		if (p == first)
+			return -1;
+
+		if (p < end && buffer[p] == '.') {
+			p++;
+			first = p;
+			while (p < end && buffer[p] >= '0' && buffer[p] <= '9') {
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (buffer[p] - '0');
+					if (mantissa > 0)
+						digits++;
+				} else {
+					digits++;
+				}
+				fractionDigits++;
+				p++;
+			}
+			if (p == first)
+				return -1;
+		} else if (fractionRequired) {
+			return -1;
+		}
+
+		if (digits <= MAX_EXACT_DIGITS && fractionDigits < POWERS_OF_TEN.length) {
+			// mantissa and power of ten are exact, so division is rounded correctly
+			double value = (double) mantissa / POWERS_OF_TEN[fractionDigits];
+			parsedDouble = negative ? -value : value;
+		} else {
+			parsedDouble = Double.parseDouble(new String(buffer, start, p - start));
+		}
+
+		return p;
+	}
+
+	private boolean startsWith(int p, int end, byte[] prefix) {
+		if (end - p < prefix.length)
+			return false;
+
+		for (int i = 0; i < prefix.length; i++) {
+			if (buffer[p + i] != prefix[i])
+				return false;
+		}
+		return true;
+	}
+
+	private int indexOf(int p, int end, byte[] key) {
+		for (; p <= end - key.length; p++) {
+			if (startsWith(p, end, key))
+				return p;
+		}
+		return -1;
+	}
+
+	// ///////////// parsing of strings (all other lines) ///////////////
+
+	/*
+	 * parse line as GPS point like before, throws NumberFormatException if a
+	 * number can't be read
+	 */
+	private int parseCSVLine(String line) {
+		if (gpsPattern.matcher(line).matches() || gpsPattern2.matcher(line).matches() || line.startsWith("2014-")) {
+			String[] gpsData = gpsSplitPattern.split(line);
+
+			// read time, read latitude/longitude
+			if (line.startsWith("2014-")) {
+				String[] sdatetime = line.split(" ");
+				String[] sdate = sdatetime[0].split("-");
+				String[] stime = sdatetime[1].split(".0000000,");
+				stime = stime[0].split(":");
+
+				if (calendar == null) {
+					calendar = Calendar.getInstance();
+					calendar.clear();
+				}
+				calendar.set(Integer.parseInt(sdate[0]), Integer.parseInt(sdate[1]), Integer.parseInt(sdate[2]),
+						Integer.parseInt(stime[0]), Integer.parseInt(stime[1]), Integer.parseInt(stime[2]));
+
+				timeStamp = calendar.getTimeInMillis();
+			} else {
+				timeStamp = Long.parseLong(gpsData[0]);
+			}
+
+			latitude = Double.parseDouble(gpsData[1]);
+			longitude = Double.parseDouble(gpsData[2]);
+
+			return GPS_LINE;
+		}
+		else if (line.startsWith("#"))
+			return COMMENT_LINE;
+		else
+			return UNKNOWN_LINE;
+	}
+
+	/*
+	 * parse line as JSON GPS point like before
+	 */
+	private boolean parseJSONLine(String line) {
+		if (line.matches("\\d+:(.*)$") && line.contains("\"lat\":") && line.contains("\"lon\":")) {
+			String[] lines = line.split(":", 2);
+
+			timeStamp = Long.parseLong(lines[0]);
+
+			lines = line.split("\"lat\":", 2);
+			lines = lines[1].split(",\"lon\":", 2);
+
+			latitude = Double.parseDouble(lines[0]);
+
+			lines = lines[1].split(",", 2);
+
+			longitude = Double.parseDouble(lines[0]);
+
+			return true;
+		}
+
+		return false;
+	}
+
+	// ///////////// reading lines //////////////////////////////////////
+
+	/*
+	 * read next line ("\n", "\r" or "\r\n" terminated) into buffer
+	 */
+	private boolean readLine() throws IOException {
+		if (skipLineFeed) {
+			skipLineFeed = false;
+			if (position == limit)
+				fill();
+			if (position < limit && buffer[position] == '\n')
+				position++;
+		}
+
+		int i = position;
+
+		while (true) {
+			for (; i < limit; i++) {
+				byte b = buffer[i];
+
+				if (b == '\n' || b == '\r') {
+					lineStart = position;
+					lineEnd = i;
+					position = i + 1;
+					skipLineFeed = (b == '\r');
+					return true;
+				}
+			}
+
+			int scanned = i - position;
+
+			if (!fill()) {
+				// last line without line break
+				if (position < limit) {
+					lineStart = position;
+					lineEnd = limit;
+					position = limit;
+					return true;
+				}
+				return false;
+			}
+
+			i = position + scanned;
+		}
+	}
+
+	/*
+	 * move unread bytes to start of buffer and read more bytes
+	 */
+	private boolean fill() throws IOException {
+		if (endOfFile)
+			return false;
+
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			limit -= position;
+			position = 0;
+		}
+
+		// line longer than buffer
+		if (limit == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+		int n = inputStream.read(buffer, limit, buffer.length - limit);
+
+		if (n < 0) {
+			endOfFile = true;
+			return false;
+		}
+
+		limit += n;
+		return true;
+	}
+
+	private String getLine() {
+		return new String(buffer, lineStart, lineEnd - lineStart);
+	}
+}
@@ -349,7 +349,7 @@ public class JXMapPainter {
         	//get selected street links, draw them
         	for(myOSMWayPart selectedStreetLink : selectedRoute.getSelectedLinks()){
                 // set color
-                g.setColor((selectedStreetLink.isLastMatched() ? selectedColor : nonMatchedColor));                
+                g.setColor((selectedRoute.getMatchState().isLastMatched(selectedStreetLink) ? selectedColor : nonMatchedColor));                
         		// draw line for every link
         		// devide x,y coordinates by 2^(zoom-1) to fit to current zoom
         		g.drawLine( (int)(selectedStreetLink.getStartX()/zoomFactor),
@@ -363,7 +363,7 @@ public class JXMapPainter {
         if (selectedRoute.selectableStreetLink()){
         	//System.out.println(selectedRoute.getSelectableStreetLink().getSelectCounter());
         	//set color
-        	g.setColor( (selectedRoute.getSelectableLink().getSelectCounter() < 1) ? selectableColor : multiSelectableColor); 
+        	g.setColor( (selectedRoute.getSelectCounter(selectedRoute.getSelectableLink()) < 1) ? selectableColor : multiSelectableColor); 
         	g.drawLine( (int) (selectedRoute.getSelectableLink().getStartX()/zoomFactor),
     				    (int) (selectedRoute.getSelectableLink().getStartY()/zoomFactor),
     				    (int) (selectedRoute.getSelectableLink().getEndX()/zoomFactor),
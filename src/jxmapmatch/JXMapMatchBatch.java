@@ -0,0 +1,395 @@
+package jxmapmatch;
+
+import interfaces.StatusUpdate;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import myClasses.myDataset;
+import myClasses.myOSMMap;
+import myClasses.mySaveToFile;
+import route.SelectedNRoute;
+import algorithm.MatchGPStoNRouteAlgorithm;
+import algorithm.NRouteAlgorithm;
+import algorithm.ReorderedMatchedGPSNode;
+import gps.GPSTrace;
+import gps.GPSTraceStreamer;
+
+/**
+ * This class matches many GPS traces against one loaded map without GUI.
+ *
+ * Every trace folder contains one GPS trace (*.log, *.txt or *.gpx) and its
+ * upstream-data.csv, downstream-data.csv and cellinfo.txt. The traces are
+ * matched in parallel on a fixed number of threads (default: number of
+ * cores); each trace runs N route algorithm, match GPS to N route algorithm
+ * and saves the result into its folder (same steps as the GUI with default
+ * settings).
+ *
+ * usage: JXMapMatchBatch map.osm|map.osm.pbf traceFolder [threads] [N route size] [threshold]
+ */
+
+public class JXMapMatchBatch {
+
+	// file name of matched GPS trace, written into every trace folder
+	public static final String MATCHED_FILE_NAME = "matched.csv";
+
+	private static final String CELL_INFO_FILE_NAME = "cellinfo.txt";
+	private static final String[] GPS_FILE_EXTENSIONS = {".log", ".txt", ".gpx"};
+
+	// same settings as GUI defaults
+	private static final boolean REORDER_N_MATCH = false;
+	private static final boolean PROJECT_N_MATCH = false;
+	private static final boolean NORMALIZE_GPS_TIME_STAMP = false;
+	private static final boolean KML_NORM = true;
+	private static final boolean UNIQUE_GPS = true;
+
+	private myOSMMap myMap;
+	private int nRouteSize;
+	private double nRouteThreshold;
+
+	/**
+	 * result and timing (ms) of one matched trace
+	 */
+	public static class TraceResult {
+		public File traceFolder;
+		public boolean isMatched = false;
+		public String message = "";
+		public int nrOfGPSNodes = 0;
+		public double loadTime = 0;
+		public double nRouteTime = 0;
+		public double matchTime = 0;
+		public double saveTime = 0;
+
+		public TraceResult(File traceFolder) {
+			this.traceFolder = traceFolder;
+		}
+
+		public double getTime() {
+			return loadTime + nRouteTime + matchTime + saveTime;
+		}
+
+		@Override
+		public String toString() {
+			if (!isMatched) {
+				return traceFolder.getPath() + ": failed: " + message;
+			}
+			return traceFolder.getPath() + ": " + nrOfGPSNodes + " GPS points, load " + format(loadTime)
+					+ " ms, N route " + format(nRouteTime) + " ms, match " + format(matchTime) + " ms, save "
+					+ format(saveTime) + " ms, total " + format(getTime()) + " ms";
+		}
+	}
+
+	/*
+	 * status update without output, batch only prints per trace results
+	 */
+	public static class QuietStatusUpdate implements StatusUpdate {
+		public void updateStatus(String updateMessage) {}
+		public void updateStatus(float percent) {}
+		public void updateStatus(String updateMessage, float percent) {}
+		public void updateUndefinedStatus() {}
+		public void updateUndefinedStatus(String undefinedMessage) {}
+		public void updateUndefinedStatus(String undefinedMessage, String updateMessage) {}
+		public void finished() {}
+		public void finished(String resultMessage) {}
+	}
+
+	/**
+	 * @param myMap
+	 *            loaded map,
+	 *            shared by all traces
+	 * @param nRouteSize
+	 * @param nRouteThreshold
+	 */
+	public JXMapMatchBatch(myOSMMap myMap, int nRouteSize, double nRouteThreshold) {
+		this.myMap = myMap;
+		this.nRouteSize = nRouteSize;
+		this.nRouteThreshold = nRouteThreshold;
+
+		// build spatial index once, before traces run in parallel
+		myMap.getWayPartIndex();
+	}
+
+	/**
+	 * returns GPS trace file of a trace folder, null if there is none
+	 *
+	 * @param traceFolder
+	 * @return File
+	 */
+	public static File getGPSTraceFile(File traceFolder) {
+		File[] files = traceFolder.listFiles();
+
+		if (files == null) {
+			return null;
+		}
+
+		Arrays.sort(files);
+
+		for (File file : files) {
+			if (!file.isFile() || file.getName().equals(CELL_INFO_FILE_NAME)) {
+				continue;
+			}
+			for (String extension : GPS_FILE_EXTENSIONS) {
+				if (file.getName().endsWith(extension)) {
+					return file;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * returns given folder and all its sub folders containing a GPS trace,
+	 * sorted by name
+	 *
+	 * @param folder
+	 * @return Vector<File>
+	 */
+	public static Vector<File> getTraceFolders(File folder) {
+		Vector<File> traceFolders = new Vector<File>();
+
+		if (getGPSTraceFile(folder) != null) {
+			traceFolders.add(folder);
+		}
+
+		File[] files = folder.listFiles();
+
+		if (files != null) {
+			Arrays.sort(files);
+
+			for (File file : files) {
+				if (file.isDirectory() && getGPSTraceFile(file) != null) {
+					traceFolders.add(file);
+				}
+			}
+		}
+
+		return traceFolders;
+	}
+
+	/**
+	 * matches GPS trace of given folder and saves matched GPS trace into the
+	 * folder
+	 *
+	 * several traces can be matched at the same time: the shared map (nodes,
+	 * ways, wayParts) is only read, everything a matching changes (selected
+	 * links, matched ranges, counters) is kept by the myMatchState of its own
+	 * routes, datasets and cell infos by its own traceMap
+	 *
+	 * @param traceFolder
+	 * @return TraceResult
+	 */
+	public TraceResult matchTrace(File traceFolder) {
+		TraceResult result = new TraceResult(traceFolder);
+		StatusUpdate statusUpdate = new QuietStatusUpdate();
+
+		try {
+			long time = System.nanoTime();
+
+			// datasets and cell infos of this trace, map graph is shared
+			myOSMMap traceMap = new myOSMMap(myMap);
+
+			String folderPath = traceFolder.getPath() + File.separator;
+
+			traceMap.loadDatasets(folderPath);
+			traceMap.loadCellInfos(folderPath);
+
+			GPSTrace gpsTrace = GPSTraceStreamer.convertToGPSPath(getGPSTraceFile(traceFolder).getAbsolutePath(), statusUpdate);
+
+			result.nrOfGPSNodes = gpsTrace.getNrOfNodes();
+			result.loadTime = getMilliSeconds(time);
+
+			// N route algorithm
+			time = System.nanoTime();
+
+			NRouteAlgorithm nRouteAlgorithm = new NRouteAlgorithm(traceMap, gpsTrace, statusUpdate);
+
+			if (!nRouteAlgorithm.executeNRouteAlgorithm(nRouteSize, nRouteThreshold)) {
+				result.message = "N route algorithm aborted";
+				return result;
+			}
+
+			SelectedNRoute selectedNRoute = new SelectedNRoute(traceMap, nRouteAlgorithm, null);
+
+			result.nRouteTime = getMilliSeconds(time);
+
+			if (selectedNRoute.isNRouteSplit()) {
+				result.message = "N route is split";
+				return result;
+			}
+
+			// match GPS nodes and datasets to N route
+			time = System.nanoTime();
+
+			MatchGPStoNRouteAlgorithm matchGPStoNRouteAlgorithm = new MatchGPStoNRouteAlgorithm(selectedNRoute, gpsTrace,
+					JXMapMatchController.GPS_TO_N_ROUTE_UNMATCHED_LINK_COLOR, JXMapMatchController.GPS_TO_N_ROUTE_MATCHED_LINK_COLOR,
+					JXMapMatchController.GPS_TO_N_ROUTE_UNMATCHED_NODE_COLOR, JXMapMatchController.GPS_TO_N_ROUTE_MATCHED_NODE_COLOR,
+					statusUpdate, null);
+
+			matchGPStoNRouteAlgorithm.executeMatchGPStoNRouteAlgorithm(REORDER_N_MATCH, PROJECT_N_MATCH);
+
+			ReorderedMatchedGPSNode.reorderMatchedGPSNodes(matchGPStoNRouteAlgorithm.getMatchedNLinks(), matchGPStoNRouteAlgorithm.getMatchedGPSNodes());
+
+			myDataset.matchMatchedGPSNode(traceMap.DatasetsDown, true, matchGPStoNRouteAlgorithm.getMatchedGPSNodes(), matchGPStoNRouteAlgorithm.getMatchedNLinks(), traceMap.CellInfos, UNIQUE_GPS);
+			myDataset.matchMatchedGPSNode(traceMap.DatasetsUp, false, matchGPStoNRouteAlgorithm.getMatchedGPSNodes(), matchGPStoNRouteAlgorithm.getMatchedNLinks(), traceMap.CellInfos, UNIQUE_GPS);
+
+			result.matchTime = getMilliSeconds(time);
+
+			// save matched GPS trace
+			time = System.nanoTime();
+
+			mySaveToFile.saveMatchedGPSTraceToFile(traceMap, matchGPStoNRouteAlgorithm.getMatchedGPSNodes(), matchGPStoNRouteAlgorithm.getRefTimeStamp(),
+					NORMALIZE_GPS_TIME_STAMP, new File(traceFolder, MATCHED_FILE_NAME).getAbsolutePath(), statusUpdate,
+					matchGPStoNRouteAlgorithm.getMatchedNLinks(), KML_NORM, UNIQUE_GPS);
+
+			result.saveTime = getMilliSeconds(time);
+
+			result.isMatched = true;
+
+		} catch (Exception e) {
+			result.message = e.toString();
+		}
+
+		return result;
+	}
+
+	/**
+	 * matches GPS traces of all given folders on a fixed number of threads
+	 *
+	 * @param traceFolders
+	 * @param nrOfThreads
+	 * @return results in order of traceFolders
+	 */
+	public Vector<TraceResult> matchTraces(Vector<File> traceFolders, int nrOfThreads) {
+		Vector<TraceResult> results = new Vector<TraceResult>(traceFolders.size());
+		Vector<Future<TraceResult>> futures = new Vector<Future<TraceResult>>(traceFolders.size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(nrOfThreads, 1));
+
+		try {
+			for (final File traceFolder : traceFolders) {
+				futures.add(executor.submit(new Callable<TraceResult>() {
+					@Override
+					public TraceResult call() {
+						TraceResult result = matchTrace(traceFolder);
+						System.out.println(result);
+						return result;
+					}
+				}));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (Exception e) {
+					TraceResult result = new TraceResult(traceFolders.get(i));
+					result.message = e.toString();
+					results.add(result);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		return results;
+	}
+
+	private static double getMilliSeconds(long startTime) {
+		return (System.nanoTime() - startTime) / 1000000.0;
+	}
+
+	private static String format(double milliSeconds) {
+		return String.format("%.1f", milliSeconds);
+	}
+
+	/**
+	 * Launch batch matching.
+	 */
+	public static void main(String[] args) {
+
+		if (args.length < 2) {
+			System.out.println("usage: JXMapMatchBatch map.osm|map.osm.pbf traceFolder [threads] [N route size] [threshold]");
+			System.exit(-1);
+		}
+
+		String osmFilePath = args[0];
+		String netFilePath;
+
+		if (osmFilePath.endsWith(".osm")) {
+			netFilePath = osmFilePath.replace(".osm", ".net.xml");
+		} else if (osmFilePath.endsWith(".osm.xml")) {
+			netFilePath = osmFilePath.replace(".osm.xml", ".net.xml");
+		} else if (osmFilePath.endsWith(".osm.pbf")) {
+			netFilePath = osmFilePath.replace(".osm.pbf", ".net.xml");
+		} else {
+			System.out.println("OSM Filename has to end with \".osm\", \".osm.xml\" or \".osm.pbf\" !");
+			System.out.println(".NET Filenname has to be the smae like the OSM Filename and has to end with \".net.xml\" !");
+			System.exit(-1);
+			return;
+		}
+
+		int nrOfThreads = Runtime.getRuntime().availableProcessors();
+		int nRouteSize = NRouteAlgorithm.DEFAULT_N_ROUTE_SIZE;
+		double nRouteThreshold = NRouteAlgorithm.DEFAULT_INTERSECTION_REACHED_THRESHOLD;
+
+		try {
+			if (args.length > 2) nrOfThreads = Integer.parseInt(args[2]);
+			if (args.length > 3) nRouteSize = Integer.parseInt(args[3]);
+			if (args.length > 4) nRouteThreshold = Double.parseDouble(args[4]);
+		} catch (NumberFormatException e) {
+			System.out.println("Error: JXMapMatchBatch: " + e.toString());
+			System.exit(-1);
+		}
+
+		Vector<File> traceFolders = getTraceFolders(new File(args[1]));
+
+		if (traceFolders.isEmpty()) {
+			System.out.println("no GPS trace found in " + args[1]);
+			System.exit(-1);
+		}
+
+		// load map once
+		long time = System.nanoTime();
+
+		myOSMMap myMap = new myOSMMap(new File(osmFilePath), netFilePath);
+
+		JXMapMatchBatch batch = new JXMapMatchBatch(myMap, nRouteSize, nRouteThreshold);
+
+		System.out.println("map loaded in " + format(getMilliSeconds(time)) + " ms");
+
+		// match all traces
+		time = System.nanoTime();
+
+		Vector<TraceResult> results = batch.matchTraces(traceFolders, nrOfThreads);
+
+		double wallTime = getMilliSeconds(time);
+		double traceTime = 0;
+		int nrOfMatched = 0;
+		int nrOfGPSNodes = 0;
+
+		for (TraceResult result : results) {
+			if (result.isMatched) {
+				nrOfMatched++;
+				nrOfGPSNodes += result.nrOfGPSNodes;
+				traceTime += result.getTime();
+			}
+		}
+
+		System.out.println("matched " + nrOfMatched + " of " + results.size() + " traces (" + nrOfGPSNodes + " GPS points) in "
+				+ format(wallTime) + " ms on " + nrOfThreads + " threads, " + format(traceTime) + " ms summed trace time, "
+				+ format(results.size() * 1000.0 / Math.max(wallTime, 1)) + " traces/s");
+
+		for (TraceResult result : results) {
+			if (!result.isMatched) {
+				System.out.println(result);
+			}
+		}
+
+		System.exit(nrOfMatched == results.size() ? 0 : 1);
+	}
+}
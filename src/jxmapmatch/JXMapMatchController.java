@@ -192,8 +192,8 @@ public class JXMapMatchController implements ActionListener,
 		initMapPainter(jxMapKit, jxMapPainter);
 		
 		// initialize file dialogs with file extension filters
-		String [] s1 = {"xml", "osm"};
-		String [] s2 = {"OpenStreetMap (*.xml)", "OpenStreetMap (*.osm)"};
+		String [] s1 = {"xml", "osm", "pbf"};
+		String [] s2 = {"OpenStreetMap (*.xml)", "OpenStreetMap (*.osm)", "OpenStreetMap PBF (*.osm.pbf)"};
 		//jFileOpenDialogGraph = new JFileDialog((Component) jxMapMatchGUI, "large", "Large routing graph (*.large)");
 		jFileOpenDialogGraph = new JFileDialog((Component) jxMapMatchGUI, s1, s2, "C:\\priv\\uni\\MA\\osm_Maps");
 		jFileOpenDialogGPS = new JFileDialog((Component) jxMapMatchGUI, gpsFileExtensions , gpsFileDescriptions, "C:\\priv\\uni\\MA\\TRACES\\TRACES.r59619");
@@ -225,8 +225,10 @@ public class JXMapMatchController implements ActionListener,
 					s = s.replace(".osm", ".net.xml");
 				} else if (s.endsWith(".osm.xml")) {
 					s = s.replace(".osm.xml", ".net.xml");
+				} else if (s.endsWith(".osm.pbf")) {
+					s = s.replace(".osm.pbf", ".net.xml");
 				} else {
-					System.out.println("OSM Filename has to end with \".osm\" or \".osm.xml\" !");
+					System.out.println("OSM Filename has to end with \".osm\", \".osm.xml\" or \".osm.pbf\" !");
 					System.out.println(".NET Filenname has to be the smae like the OSM Filename and has to end with \".net.xml\" !");
 					System.exit(-1);
 				}
@@ -247,8 +249,10 @@ public class JXMapMatchController implements ActionListener,
 					s = s.replace(".osm", ".net.xml");
 				} else if (s.endsWith(".osm.xml")) {
 					s = s.replace(".osm.xml", ".net.xml");
+				} else if (s.endsWith(".osm.pbf")) {
+					s = s.replace(".osm.pbf", ".net.xml");
 				} else {
-					System.out.println("OSM Filename has to end with \".osm\" or \".osm.xml\" !");
+					System.out.println("OSM Filename has to end with \".osm\", \".osm.xml\" or \".osm.pbf\" !");
 					System.out.println(".NET Filenname has to be the smae like the OSM Filename and has to end with \".net.xml\" !");
 					System.exit(-1);
 				}
@@ -528,8 +532,10 @@ public class JXMapMatchController implements ActionListener,
 				s = s.replace(".osm", ".net.xml");
 			} else if (s.endsWith(".osm.xml")) {
 				s = s.replace(".osm.xml", ".net.xml");
+			} else if (s.endsWith(".osm.pbf")) {
+				s = s.replace(".osm.pbf", ".net.xml");
 			} else {
-				System.out.println("OSM Filename has to end with \".osm\" or \".osm.xml\" !");
+				System.out.println("OSM Filename has to end with \".osm\", \".osm.xml\" or \".osm.pbf\" !");
 				System.out.println(".NET Filenname has to be the smae like the OSM Filename and has to end with \".net.xml\" !");
 				System.exit(-1);
 			}
@@ -573,7 +579,7 @@ public class JXMapMatchController implements ActionListener,
 			protected Boolean doInBackground() throws Exception {
 				try {
 					
-					if (streetMapFile.getName().endsWith(".osm") || streetMapFile.getName().endsWith(".osm.xml")) {
+					if (streetMapFile.getName().endsWith(".osm") || streetMapFile.getName().endsWith(".osm.xml") || streetMapFile.getName().endsWith(".osm.pbf")) {
 						
 						if (myMap == null) {
 							myMap = new myOSMMap(streetMapFile, netFilePath);							
@@ -581,7 +587,6 @@ public class JXMapMatchController implements ActionListener,
 							myMap.loadMapFiles(streetMapFile, netFilePath);
 						}
 						
-						myMap.removeUnusedNotesAndWaysAndSetWayParts();
 //		                streetMap = myMap.getSteetMap();
 					}
 					else {						
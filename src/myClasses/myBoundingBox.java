@@ -0,0 +1,104 @@
+package myClasses;
+
+import gps.GPSTrace;
+
+/*
+ * latitude / longitude box, used to load only the part of a map around a
+ * GPS trace
+ */
+public class myBoundingBox {
+
+	// meters per degree latitude
+	private static final double METERS_PER_DEGREE = 111320.0;
+
+	public double minLat;
+	public double minLon;
+	public double maxLat;
+	public double maxLon;
+
+	public myBoundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+		this.minLat = minLat;
+		this.minLon = minLon;
+		this.maxLat = maxLat;
+		this.maxLon = maxLon;
+	}
+
+	/**
+	 * return box around all nodes of GPS trace, extended by margin
+	 *
+	 * @param gpsTrace
+	 * @param margin
+	 *            meters
+	 * @return myBoundingBox
+	 */
+	public static myBoundingBox fromGPSTrace(GPSTrace gpsTrace, double margin) {
+		myBoundingBox box = new myBoundingBox(gpsTrace.getMinLat(), gpsTrace.getMinLon(), gpsTrace.getMaxLat(), gpsTrace.getMaxLon());
+		box.extend(margin);
+		return box;
+	}
+
+	/**
+	 * extend box by margin on each side
+	 *
+	 * @param margin
+	 *            meters
+	 */
+	public void extend(double margin) {
+		double dLat = margin / METERS_PER_DEGREE;
+		// degree longitude is shorter away from equator, use latitude nearest to a pole
+		double maxAbsLat = Math.min(Math.max(Math.abs(minLat), Math.abs(maxLat)) + dLat, 89.0);
+		double dLon = margin / (METERS_PER_DEGREE * Math.cos(Math.toRadians(maxAbsLat)));
+
+		minLat -= dLat;
+		maxLat += dLat;
+		minLon -= dLon;
+		maxLon += dLon;
+	}
+
+	public boolean contains(double lat, double lon) {
+		return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+	}
+
+	/**
+	 * return straight line between two points crosses or touches box
+	 * (Liang-Barsky: part of line inside each pair of box borders)
+	 *
+	 * @return boolean
+	 */
+	public boolean intersects(double lat1, double lon1, double lat2, double lon2) {
+		double[] p = {lat1 - lat2, lat2 - lat1, lon1 - lon2, lon2 - lon1};
+		double[] q = {lat1 - minLat, maxLat - lat1, lon1 - minLon, maxLon - lon1};
+
+		// part of line inside the box: t0 ... t1 (0: point 1, 1: point 2)
+		double t0 = 0;
+		double t1 = 1;
+
+		for (int k = 0; k < 4; k++) {
+			if (p[k] == 0) {
+				// parallel to border, outside of it
+				if (q[k] < 0) {
+					return false;
+				}
+			} else {
+				double t = q[k] / p[k];
+
+				if (p[k] < 0) {
+					t0 = Math.max(t0, t);
+				} else {
+					t1 = Math.min(t1, t);
+				}
+
+				if (t0 > t1) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "(" + minLat + ", " + minLon + "),(" + maxLat + ", " + maxLon + ")";
+	}
+}
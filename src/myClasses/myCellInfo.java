@@ -10,6 +10,7 @@ import javax.swing.JOptionPane;
 
 import algorithm.MatchedGPSNode;
 import algorithm.MatchedNLink;
+import algorithm.MatchedNLinkIndex;
 
 /**
  * @author Adrian Skuballa
@@ -38,40 +39,45 @@ public class myCellInfo {
      * @param gpsNodesToMatch: Vector of all matched gps nodes
      */
 	public static void matchMatchedGPSNode(Vector<myCellInfo> CellInfos, Vector<MatchedNLink> matchedNLinks, Vector<MatchedGPSNode> gpsNodesToMatch) {		
+		// cell infos sorted by time are matched in one pass over the GPS nodes
+		myTimeIndex<MatchedGPSNode> gpsNodes = MatchedGPSNode.getTimeIndex(gpsNodesToMatch, false);
+		MatchedNLinkIndex linkIndex = new MatchedNLinkIndex(matchedNLinks);
+		
 		for (myCellInfo ci : CellInfos) {
-			ci.match(gpsNodesToMatch, matchedNLinks);
+			ci.match(gpsNodes, linkIndex);
 		}
 	}
 
+	/**
+	 * return cell infos by time
+	 * 
+	 * @param CellInfos
+	 * @return myTimeIndex
+	 */
+	public static myTimeIndex<myCellInfo> getTimeIndex(Vector<myCellInfo> CellInfos) {
+		long[] timestamps = new long[CellInfos.size()];
+		for (int i = 0; i < timestamps.length; i++) {
+			timestamps[i] = CellInfos.get(i).getTimestamp();
+		}
+		
+		return new myTimeIndex<myCellInfo>(CellInfos, timestamps);
+	}
+
 	/**
      * match "this" to a wayPart of matchedNLinks
      * 
-     * @param matchedNLinks: Vector of all matched wayParts (MatchedNLink)
-     * @param gpsNodesToMatch: Vector of all matched gps nodes
+     * @param gpsNodes: all matched gps nodes by time
+     * @param linkIndex: all matched wayParts (MatchedNLink) by position on route
      */
-	private void match(Vector<MatchedGPSNode> gpsNodesToMatch, Vector<MatchedNLink> matchedNLinks) {
-		MatchedGPSNode lastNode = null;
-		for (int i = gpsNodesToMatch.size()-1; i >= 0; i--) {
-			MatchedGPSNode n = gpsNodesToMatch.get(i);
-			if (n.getTimestamp() <= this.getTimestamp()) {
-				lastNode = n;
-				break;
-			}
-		}
+	private void match(myTimeIndex<MatchedGPSNode> gpsNodes, MatchedNLinkIndex linkIndex) {
+		MatchedGPSNode lastNode = gpsNodes.getLastAtOrBefore(this.getTimestamp());
 
 		if (lastNode == null) {
 			isMatched = false;
 			return;
 		}
 
-		MatchedGPSNode nextNode = null;
-		for (int i = 0; i < gpsNodesToMatch.size(); i++) {
-			MatchedGPSNode n = gpsNodesToMatch.get(i);
-			if (this.getTimestamp() <= n.getTimestamp()) {
-				nextNode = n;
-				break;
-			}
-		}
+		MatchedGPSNode nextNode = gpsNodes.getFirstAtOrAfter(this.getTimestamp());
 
 		if (nextNode == null) {
 			isMatched = false;
@@ -102,13 +108,9 @@ public class myCellInfo {
 			lengthPos += lastNode.lengthPos;
 		}
 
-		MatchedNLink matchedNLink = null;
-		for (MatchedNLink link : matchedNLinks) {
-			if (link.lengthPosStart <= lengthPos && lengthPos <= link.lengthPosEnd) {
-				matchedNLink = link;
-				link.matchedCellInfos.add(this);
-				break;
-			}
+		MatchedNLink matchedNLink = linkIndex.getLink(lengthPos);
+		if (matchedNLink != null) {
+			matchedNLink.matchedCellInfos.add(this);
 		}
 
 		if (matchedNLink == null) {
@@ -1,9 +1,6 @@
 package myClasses;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
 import java.util.Vector;
 
 import javax.swing.JOptionPane;
@@ -11,132 +8,117 @@ import javax.swing.JOptionPane;
 import cartesian.Coordinates;
 import algorithm.MatchedGPSNode;
 import algorithm.MatchedNLink;
+import algorithm.MatchedNLinkIndex;
 
+/*
+ * dataset (one row of upstream-data.csv or downstream-data.csv) as view of a
+ * row of a myDatasetStore, all values are kept by the store
+ */
 public class myDataset {
 
-	@SuppressWarnings("unused")
-	private long timestampOrginal = 0;
-    private long timestampInNanoSec = 0;
-    public int datarate = -1;
-	public double delay = -1;
-	public double loss_rate = -1;
-	public double lengthPos = -1;
-	public double lengthPosInLink = -1;
-	public MatchedNLink matchedNLink = null;
-	public double matched_distribution_in_WayPart = -1;
-	public double X = 0;
-	public double Y = 0;
-	public double Xunmatched = 0;
-	public double Yunmatched = 0;
-	public boolean isMatched = false;
-	
-	private double lengthPosRouteDistributionUnmatched = -1;
-	private double lengthPosRouteDistributionMatched = -1;
-	private MatchedNLink matchedNLinkRouteDistribution = null;
-	private double matched_distribution_in_WayPart_RouteDistribution = -1;
-	public double X_RouteDistribution = 0;
-	public double Y_RouteDistribution = 0;
-	
-	@SuppressWarnings("unused")
-	private long objID = 0;
-	private static long objCount = 0;
-	
-	public myCellInfo cellInfo = null;
+	private final myDatasetStore store;
+	private final int index;
 	
 	/*
-	 * constructor
+	 * constructor, see myDatasetStore.get
 	 */
-	public myDataset() {
-		objID = objCount;
-		objCount++;		
+	myDataset(myDatasetStore store, int index) {
+		this.store = store;
+		this.index = index;
 	}
 	
     /**
      * match all myDataset of Datasets
      * 
-     * @param Datasets: Vector of all myDataset
+     * @param Datasets: store of all datasets
      * @param isDatasetDown: info if datasets are from downstream
      * @param gpsNodesToMatch: Vector of all matched gps nodes
      * @param matchedNLinks: Vector of all matched wayParts (MatchedNLink)
      * @param CellInfos: Vector of all myCellInfos
      * @param onlyUniqueMatchedGPS: info if to use ""Unique GPS function"
      */
-	public static void matchMatchedGPSNode(Vector<myDataset> Datasets, boolean isDatasetDown, Vector<MatchedGPSNode> gpsNodesToMatch,  Vector<MatchedNLink> matchedNLinks, Vector<myCellInfo> CellInfos, boolean onlyUniqueMatchedGPS) {
-		for (myDataset d : Datasets) {
-			d.match(gpsNodesToMatch, matchedNLinks, isDatasetDown, CellInfos, onlyUniqueMatchedGPS);
+	public static void matchMatchedGPSNode(myDatasetStore Datasets, boolean isDatasetDown, Vector<MatchedGPSNode> gpsNodesToMatch,  Vector<MatchedNLink> matchedNLinks, Vector<myCellInfo> CellInfos, boolean onlyUniqueMatchedGPS) {
+		// GPS nodes and cell infos by time: datasets sorted by time are
+		// matched in one pass over them, others by binary search
+		myTimeIndex<MatchedGPSNode> gpsNodes = MatchedGPSNode.getTimeIndex(gpsNodesToMatch, false);
+		myTimeIndex<MatchedGPSNode> uniqueGPSNodes = null;
+		if (onlyUniqueMatchedGPS) {
+			uniqueGPSNodes = MatchedGPSNode.getTimeIndex(gpsNodesToMatch, true);
+		}
+		myTimeIndex<myCellInfo> cellInfos = myCellInfo.getTimeIndex(CellInfos);
+		
+		// links by position on route
+		MatchedNLinkIndex linkIndex = new MatchedNLinkIndex(matchedNLinks);
+		
+		// results of former matchings are kept where a dataset is not matched again
+		Datasets.allocateResults();
+		
+		for (int i = 0; i < Datasets.size(); i++) {
+			Datasets.get(i).match(gpsNodes, uniqueGPSNodes, linkIndex, isDatasetDown, cellInfos);
 		}
 
 		// set var for RouteDistribution
-		myDataset firstMatchedDs = null;
-		int firstMatchedIndex = 0;
+		boolean[] isMatched = Datasets.isMatched;
+		double[] lengthPos = Datasets.lengthPos;
+		double[] lengthPosRouteDistributionUnmatched = Datasets.lengthPosRouteDistributionUnmatched;
+		MatchedNLink[] matchedNLinkRouteDistribution = Datasets.matchedNLinkRouteDistribution;
+		
+		int firstMatchedIndex = -1;
 		for (int i = 0; i < Datasets.size(); i++) {
-			if (Datasets.get(i).isMatched) {
-				firstMatchedDs = Datasets.get(i);
+			if (isMatched[i]) {
 				firstMatchedIndex = i;
 				break;
 			}
 		}
-		myDataset lastMatchedDs = null;
-		int lastMatchedIndex = 0;
+		int lastMatchedIndex = -1;
 		for (int i = Datasets.size() - 1; i >= 0; i--) {
-			if (Datasets.get(i).isMatched) {
-				lastMatchedDs = Datasets.get(i);
+			if (isMatched[i]) {
 				lastMatchedIndex = i;
 				break;
 			}
 		}
 		
-		if (firstMatchedDs != null && lastMatchedDs != null) {
+		if (firstMatchedIndex != -1 && lastMatchedIndex != -1) {
 			double lengthPosUnmatched = 0;
 			double dis = 0;
-			myDataset lastDs = null;
+			int lastIndex = -1;
 			for (int i = firstMatchedIndex; i <= lastMatchedIndex; i++) {
-				myDataset Ds = Datasets.get(i);
-				
-				if (Ds.isMatched) {
-					if (lastDs != null) {
-						dis = Coordinates.getDistance(lastDs.Xunmatched, lastDs.Yunmatched, Ds.Xunmatched, Ds.Yunmatched);
+				if (isMatched[i]) {
+					if (lastIndex != -1) {
+						dis = Coordinates.getDistance(Datasets.xUnmatched[lastIndex], Datasets.yUnmatched[lastIndex], Datasets.xUnmatched[i], Datasets.yUnmatched[i]);
 					}
 					lengthPosUnmatched += dis;
 					
-					Ds.lengthPosRouteDistributionUnmatched = lengthPosUnmatched;
-					lastDs = Ds;
+					lengthPosRouteDistributionUnmatched[i] = lengthPosUnmatched;
+					lastIndex = i;
 				}
 			}
 			
-			double TotalRouteLenMatched = lastMatchedDs.lengthPos - firstMatchedDs.lengthPos;
+			double TotalRouteLenMatched = lengthPos[lastMatchedIndex] - lengthPos[firstMatchedIndex];
 
 			for (int i = firstMatchedIndex; i <= lastMatchedIndex; i++) {
-				myDataset Ds = Datasets.get(i);
-				
-				Ds.lengthPosRouteDistributionMatched = firstMatchedDs.lengthPos;
-				double distri = Ds.lengthPosRouteDistributionUnmatched / lengthPosUnmatched;
-				Ds.lengthPosRouteDistributionMatched += TotalRouteLenMatched * distri;
+				double lengthPosRouteDistributionMatched = lengthPos[firstMatchedIndex];
+				double distri = lengthPosRouteDistributionUnmatched[i] / lengthPosUnmatched;
+				lengthPosRouteDistributionMatched += TotalRouteLenMatched * distri;
 				
-				for (MatchedNLink link : matchedNLinks) {
-					if (link.lengthPosStart <= Ds.lengthPosRouteDistributionMatched && Ds.lengthPosRouteDistributionMatched <= link.lengthPosEnd) {
-						Ds.matchedNLinkRouteDistribution = link;
-						if (isDatasetDown) {
-							link.matchedDownDatasetsRouteDistribution.add(Ds);							
-						} else {
-							link.matchedUpDatasetsRouteDistribution.add(Ds);
-						}
-						break;
+				MatchedNLink link = linkIndex.getLink(lengthPosRouteDistributionMatched);
+				if (link != null) {
+					matchedNLinkRouteDistribution[i] = link;
+					if (isDatasetDown) {
+						link.matchedDownDatasetsRouteDistribution.add(Datasets.get(i));							
+					} else {
+						link.matchedUpDatasetsRouteDistribution.add(Datasets.get(i));
 					}
 				}
 				
-				if (Ds.matchedNLinkRouteDistribution != null) {
-					double lengthPosInLink = Ds.lengthPosRouteDistributionMatched - Ds.matchedNLinkRouteDistribution.lengthPosStart;
+				if (matchedNLinkRouteDistribution[i] != null) {
+					double lengthPosInLink = MatchedNLinkIndex.getOffset(matchedNLinkRouteDistribution[i], lengthPosRouteDistributionMatched);
 					
-					Ds.matched_distribution_in_WayPart_RouteDistribution = lengthPosInLink / Ds.matchedNLinkRouteDistribution.getStreetLink().length;
+					double distribution = MatchedNLinkIndex.getDistribution(matchedNLinkRouteDistribution[i], lengthPosInLink);
 
 					// set X Y RouteDistribution matched
-					double xLen = Ds.matchedNLinkRouteDistribution.getStreetLink().endNode.x - Ds.matchedNLinkRouteDistribution.getStreetLink().startNode.x;
-					xLen = xLen * Ds.matched_distribution_in_WayPart_RouteDistribution;	
-					Ds.X_RouteDistribution = Ds.matchedNLinkRouteDistribution.getStreetLink().startNode.x + xLen;
-					double yLen = Ds.matchedNLinkRouteDistribution.getStreetLink().endNode.y - Ds.matchedNLinkRouteDistribution.getStreetLink().startNode.y;
-					yLen = yLen * Ds.matched_distribution_in_WayPart_RouteDistribution;	
-					Ds.Y_RouteDistribution = Ds.matchedNLinkRouteDistribution.getStreetLink().startNode.y + yLen;
+					Datasets.xRouteDistribution[i] = MatchedNLinkIndex.getX(matchedNLinkRouteDistribution[i], distribution);
+					Datasets.yRouteDistribution[i] = MatchedNLinkIndex.getY(matchedNLinkRouteDistribution[i], distribution);
 				}
 
 			}
@@ -148,76 +130,54 @@ public class myDataset {
     /**
      * match "this" to a wayPart of matchedNLinks
      * 
-     * @param gpsNodesToMatch: Vector of all matched gps nodes
-     * @param matchedNLinks: Vector of all matched wayParts (MatchedNLink)
+     * @param gpsNodes: all matched gps nodes by time
+     * @param uniqueGPSNodes: matched gps nodes with unique matched position by time, null if "Unique GPS function" is not used
+     * @param linkIndex: all matched wayParts (MatchedNLink) by position on route
      * @param isDatasetDown: info if datasets are from downstream
-     * @param CellInfos: Vector of all myCellInfos
-     * @param onlyUniqueMatchedGPS: info if to use ""Unique GPS function"
+     * @param cellInfos: all myCellInfos by time
      */
-	public void match(Vector<MatchedGPSNode> gpsNodesToMatch,  Vector<MatchedNLink> matchedNLinks, boolean isDatasetDown, Vector<myCellInfo> CellInfos, boolean onlyUniqueMatchedGPS) {
+	private void match(myTimeIndex<MatchedGPSNode> gpsNodes, myTimeIndex<MatchedGPSNode> uniqueGPSNodes, MatchedNLinkIndex linkIndex, boolean isDatasetDown, myTimeIndex<myCellInfo> cellInfos) {
 		
-		for (int i = CellInfos.size() - 1; i >= 0 ; i--) {
-			myCellInfo ci = CellInfos.get(i);
-			if (ci.getTimestamp() <= this.getTimestamp()) {
-				this.cellInfo = ci;
-				break;
-			}
+		boolean onlyUniqueMatchedGPS = (uniqueGPSNodes != null);
+		
+		myCellInfo ci = cellInfos.getLastAtOrBefore(this.getTimestamp());
+		if (ci != null) {
+			store.cellInfo[index] = ci;
 		}
 		
-		MatchedGPSNode lastNode = null;
+		// last / next GPS node in time, and last / next with unique matched position
+		MatchedGPSNode lastNode = gpsNodes.getLastAtOrBefore(this.getTimestamp());
 		MatchedGPSNode lastNodeUnique = null;
-		for (int i = gpsNodesToMatch.size()-1; i >= 0; i--) {
-			MatchedGPSNode n = gpsNodesToMatch.get(i);
-			if (n.getTimestamp() <= this.getTimestamp()) {
-				if (lastNode == null) {
-					lastNode = n;
-					if (onlyUniqueMatchedGPS == false) {
-						break;
-					}
-				}
-				if (n.isUniqueMatchedXY) {
-					lastNodeUnique = n;
-					break;
-				}
-			}
-		}
-
+		
 		if (lastNode == null) {
-			isMatched = false;
+			store.isMatched[index] = false;
 			return;
 		}
 		
-		if (onlyUniqueMatchedGPS && lastNodeUnique == null) {
-			isMatched = false;
-			return;			
+		if (onlyUniqueMatchedGPS) {
+			lastNodeUnique = uniqueGPSNodes.getLastAtOrBefore(this.getTimestamp());
+			
+			if (lastNodeUnique == null) {
+				store.isMatched[index] = false;
+				return;			
+			}
 		}
 
-		MatchedGPSNode nextNode = null;
+		MatchedGPSNode nextNode = gpsNodes.getFirstAtOrAfter(this.getTimestamp());
 		MatchedGPSNode nextNodeUnique = null;
-		for (int i = 0; i < gpsNodesToMatch.size(); i++) {
-			MatchedGPSNode n = gpsNodesToMatch.get(i);
-			if (this.getTimestamp() <= n.getTimestamp()) {
-				if (nextNode == null) {
-					nextNode = n;
-					if (onlyUniqueMatchedGPS == false) {
-						break;
-					}
-				}
-				if (n.isUniqueMatchedXY) {
-					nextNodeUnique = n;
-					break;
-				}
-			}
-		}
 		
 		if (nextNode == null) {
-			isMatched = false;
+			store.isMatched[index] = false;
 			return;
 		}
 		
-		if (onlyUniqueMatchedGPS && nextNodeUnique == null) {
-			isMatched = false;
-			return;			
+		if (onlyUniqueMatchedGPS) {
+			nextNodeUnique = uniqueGPSNodes.getFirstAtOrAfter(this.getTimestamp());
+			
+			if (nextNodeUnique == null) {
+				store.isMatched[index] = false;
+				return;			
+			}
 		}
 
 		if (onlyUniqueMatchedGPS) {
@@ -236,12 +196,12 @@ public class myDataset {
 				lenPosTotal -= lastNodeUnique.lengthPos;
 			}
 			
-			this.lengthPos = lenPosTotal * timeDistribution;
+			store.lengthPos[index] = lenPosTotal * timeDistribution;
 			
 			if (lastNodeUnique.isReordered) {
-				this.lengthPos += lastNodeUnique.lengthPosReordered;
+				store.lengthPos[index] += lastNodeUnique.lengthPosReordered;
 			} else {
-				this.lengthPos += lastNodeUnique.lengthPos;
+				store.lengthPos[index] += lastNodeUnique.lengthPos;
 			}
 		} else {
 			double timeTotal = nextNode.getTimestamp() - lastNode.getTimestamp();
@@ -259,36 +219,34 @@ public class myDataset {
 				lenPosTotal -= lastNode.lengthPos;
 			}
 			
-			this.lengthPos = lenPosTotal * timeDistribution;
+			store.lengthPos[index] = lenPosTotal * timeDistribution;
 			
 			if (lastNode.isReordered) {
-				this.lengthPos += lastNode.lengthPosReordered;
+				store.lengthPos[index] += lastNode.lengthPosReordered;
 			} else {
-				this.lengthPos += lastNode.lengthPos;
+				store.lengthPos[index] += lastNode.lengthPos;
 			}
 		}
 		
 
-		for (MatchedNLink link : matchedNLinks) {
-			if (link.lengthPosStart <= this.lengthPos && this.lengthPos <= link.lengthPosEnd) {
-				this.matchedNLink = link;
-				if (isDatasetDown) {
-					link.matchedDownDatasets.add(this);					
-				} else {
-					link.matchedUpDatasets.add(this);
-				}
-				break;
+		MatchedNLink link = linkIndex.getLink(store.lengthPos[index]);
+		if (link != null) {
+			store.matchedNLink[index] = link;
+			if (isDatasetDown) {
+				link.matchedDownDatasets.add(this);					
+			} else {
+				link.matchedUpDatasets.add(this);
 			}
 		}
 		
-		if (this.matchedNLink == null) {
-			isMatched = false;
+		if (store.matchedNLink[index] == null) {
+			store.isMatched[index] = false;
 			return;
 		}
 		
-		this.lengthPosInLink = this.lengthPos - this.matchedNLink.lengthPosStart;
+		double lengthPosInLink = MatchedNLinkIndex.getOffset(store.matchedNLink[index], store.lengthPos[index]);
 		
-		this.matched_distribution_in_WayPart = lengthPosInLink / this.matchedNLink.getStreetLink().length;
+		store.matchedDistributionInWayPart[index] = MatchedNLinkIndex.getDistribution(store.matchedNLink[index], lengthPosInLink);
 
 		// set X Y unmatched
 		double timeTotal = nextNode.getTimestamp() - lastNode.getTimestamp();
@@ -297,120 +255,119 @@ public class myDataset {
 		
 		double xLen = nextNode.getX() - lastNode.getX();
 		xLen = xLen * timeDistribution;	
-		this.Xunmatched = lastNode.getX() + xLen;
+		store.xUnmatched[index] = lastNode.getX() + xLen;
 		double yLen = nextNode.getY() - lastNode.getY();
 		yLen = yLen * timeDistribution;	
-		this.Yunmatched = lastNode.getY() + yLen;			
+		store.yUnmatched[index] = lastNode.getY() + yLen;			
 		
 		// set X Y matched
-		xLen = this.matchedNLink.getStreetLink().endNode.x - this.matchedNLink.getStreetLink().startNode.x;
-		xLen = xLen * this.matched_distribution_in_WayPart;	
-		this.X = this.matchedNLink.getStreetLink().startNode.x + xLen;
-		yLen = this.matchedNLink.getStreetLink().endNode.y - this.matchedNLink.getStreetLink().startNode.y;
-		yLen = yLen * this.matched_distribution_in_WayPart;	
-		this.Y = this.matchedNLink.getStreetLink().startNode.y + yLen;
+		store.x[index] = MatchedNLinkIndex.getX(store.matchedNLink[index], store.matchedDistributionInWayPart[index]);
+		store.y[index] = MatchedNLinkIndex.getY(store.matchedNLink[index], store.matchedDistributionInWayPart[index]);
 		
-		isMatched = true;
+		store.isMatched[index] = true;
 	}
 	
-    /**
-     * set and save the timestamp in nanosec 
-     * 
-     * @param timestamp
-     */
-    public void setTimestamp(long timestamp){
-
-		this.timestampOrginal = timestamp;
-
-    	if (timestamp <= 0) {
-    		this.timestampInNanoSec = -1;
-    		return;
-    	}
-
-        if (1000000000000000000L < timestamp) { // Nanosec
-        	timestampInNanoSec = timestamp;
-        } else if (1000000000000000L < timestamp) { // Microsec
-        	timestampInNanoSec = timestamp * 1000L;
-        } else if (1000000000000L < timestamp) { // Millisec
-        	timestampInNanoSec = timestamp * 1000000L;
-        } else if (1000000000000L < timestamp) { // Sec
-        	timestampInNanoSec = timestamp * 1000000000L;
-        } else {
-        	this.timestampInNanoSec = -1;
-        }
-    }
-
     /**
      * return the timestamp in nanosec
      * 
      * @return (long) timestamp
      */
     public long getTimestamp(){
-        return timestampInNanoSec;
+        return store.getTimestamp(index);
     }
 	
+	public int getIndex() {
+		return index;
+	}
+	
+	public int getDatarate() {
+		return store.getDatarate(index);
+	}
+	
+	public double getDelay() {
+		return store.getDelay(index);
+	}
+	
+	public double getLossRate() {
+		return store.getLossRate(index);
+	}
+	
+	public boolean isMatched() {
+		return store.isMatched(index);
+	}
+	
+	public double getLengthPos() {
+		return store.getLengthPos(index);
+	}
+	
+	public MatchedNLink getMatchedNLink() {
+		return store.getMatchedNLink(index);
+	}
+	
+	public double getMatchedDistributionInWayPart() {
+		return store.getMatchedDistributionInWayPart(index);
+	}
+	
+	public double getX() {
+		return store.getX(index);
+	}
+	
+	public double getY() {
+		return store.getY(index);
+	}
+	
+	public double getXunmatched() {
+		return store.getXunmatched(index);
+	}
+	
+	public double getYunmatched() {
+		return store.getYunmatched(index);
+	}
+	
+	public double getXRouteDistribution() {
+		return store.getXRouteDistribution(index);
+	}
+	
+	public double getYRouteDistribution() {
+		return store.getYRouteDistribution(index);
+	}
+	
+	public myCellInfo getCellInfo() {
+		return store.getCellInfo(index);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof myDataset) {
+			myDataset d = (myDataset) obj;
+			return d.store == store && d.index == index;
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(store) * 31 + index;
+	}
+	
 	/**
      * load the datasets from "upstream-data.csv"
      * 
      * @param FilePath: Path of the file
-     * @return Vector of all datasets from file 
+     * @return store of all datasets from file 
      */
-	public static Vector<myDataset> loadDatasetsUp(String FilePath) {
+	public static myDatasetStore loadDatasetsUp(String FilePath) {
 		
-		Vector<myDataset> datasets = new Vector<myDataset>();
-		
-		String line = "";
 		try {
-			BufferedReader bReader = new BufferedReader( new InputStreamReader( new FileInputStream( new File( FilePath ) ), "UTF-8" ));
-			
-			line = bReader.readLine();
-			
-			int columnNrDataRate = -1;
-			int columnNrDelay = -1;
-			int columnNrTimestamp = -1;
-			int columnNrLossRate = -1;
-			
-			if (line != null) {
-				String [] lines = line.split(",");
-				
-				for (int i = 0; i < lines.length; i++) {
-					
-					if (lines[i].equals("data rate [Byte/s]")) {
-						
-						columnNrDataRate = i;
-					
-					} else if (lines[i].equals("delay [s]")) {
-					
-						columnNrDelay = i;
-					
-					} else if (lines[i].equals("first ttx [ns]")) {
-					
-						columnNrTimestamp = i;
-					
-					} else if (lines[i].equals("loss rate")) {
-					
-						columnNrLossRate = i;
-					
-					} 
-					
-				}
-				
-				datasets = loadDatasets(bReader, columnNrDataRate, columnNrDelay, columnNrTimestamp, columnNrLossRate);
-				
-			}
-			
-			bReader.close();
-			
-			return datasets;
-			
+			return new myDatasetFileParser(new File(FilePath), "first ttx [ns]").parse();
 		} catch (java.io.FileNotFoundException e) {
 			System.out.println("Error: " + e.toString());
 			JOptionPane.showMessageDialog(null, "File nocht Found: \n" + FilePath, "Error", JOptionPane.CANCEL_OPTION);
 		} catch (Exception e) {			
-			System.out.println("Error: loadGetEdges: \n" + line + "\n" + e.toString());
+			System.out.println("Error: loadGetEdges: \n" + FilePath + "\n" + e.toString());
 		}		
 		
-		return datasets;
+		return new myDatasetStore();
 		
 	}
 	
@@ -418,122 +375,18 @@ public class myDataset {
      * load the datasets from "downstream-data.csv"
      * 
      * @param FilePath: Path of the file
-     * @return Vector of all datasets from file 
+     * @return store of all datasets from file 
      */
-	public static Vector<myDataset> loadDatasetsDown(String FilePath) {
+	public static myDatasetStore loadDatasetsDown(String FilePath) {
 		
-		Vector<myDataset> datasets = new Vector<myDataset>();
-		
-		String line = "";
 		try {
-			BufferedReader bReader = new BufferedReader( new InputStreamReader( new FileInputStream( new File( FilePath ) ), "UTF-8" ));
-			
-			line = bReader.readLine();
-			
-			int columnNrDataRate = -1;
-			int columnNrDelay = -1;
-			int columnNrTimestamp = -1;
-			int columnNrLossRate = -1;
-			
-			if (line != null) {
-				String [] lines = line.split(",");
-				
-				for (int i = 0; i < lines.length; i++) {
-					
-					if (lines[i].equals("data rate [Byte/s]")) {
-						
-						columnNrDataRate = i;
-					
-					} else if (lines[i].equals("delay [s]")) {
-					
-						columnNrDelay = i;
-					
-					} else if (lines[i].equals("first trx [ns]")) {
-					
-						columnNrTimestamp = i;
-					
-					} else if (lines[i].equals("loss rate")) {
-					
-						columnNrLossRate = i;
-					
-					} 
-					
-				}
-				
-				datasets = loadDatasets(bReader, columnNrDataRate, columnNrDelay, columnNrTimestamp, columnNrLossRate);
-				
-			}
-			
-			bReader.close();
-			
-			return datasets;
-			
+			return new myDatasetFileParser(new File(FilePath), "first trx [ns]").parse();
 		} catch (Exception e) {			
-			System.out.println("Error: loadGetEdges: \n" + line + "\n" + e.toString());
+			System.out.println("Error: loadGetEdges: \n" + FilePath + "\n" + e.toString());
 		}		
 		
-		return datasets;
-		
-	}
-	
-	/**
-     * load the datasets from "upstream-data.csv"
-     * 
-     * @param bReader: BufferedReader of of file
-     * @param columnNrDataRate: No of column of datarate in csv
-     * @param columnNrDelay: No of column of delay in csv
-     * @param columnNrTimestamp: No of column of timestamp in csv
-     * @param columnNrLossRate: No of column of loss_rate in csv
-     * @return Vector of all datasets from file 
-     */
-	private static Vector<myDataset> loadDatasets(BufferedReader bReader, int columnNrDataRate, int columnNrDelay, int columnNrTimestamp, int columnNrLossRate) {
-		
-		Vector<myDataset> datasets = new Vector<myDataset>();
-		
-		String line = "";
-		
-		try {
-			line = bReader.readLine();	
-			
-			while (line != null) {
-				
-				myDataset d = new myDataset();
-				
-				String[] lines = line.split(",");
-				
-				try {
-					d.datarate = Integer.parseInt(lines[columnNrDataRate]);					
-				} catch (Exception e) {
-					d.datarate = -1;
-				}
-				
-				try {
-					d.delay = Double.parseDouble(lines[columnNrDelay]);		
-				} catch (Exception e) {
-					d.delay = -1;
-				}
-				
-				try {
-					d.setTimestamp(Long.parseLong(lines[columnNrTimestamp]) );
-				} catch (Exception e) {
-					d.setTimestamp(-1);
-				}
-				
-				try {
-					d.loss_rate = Double.parseDouble(lines[columnNrLossRate]);				
-				} catch (Exception e) {
-					d.loss_rate = -1;
-				}
-				
-				datasets.add(d);
-				
-				line = bReader.readLine();	
-			}		
-		} catch(Exception e) {
-			System.out.println("Error: loadGetEdges: \n" + line + "\n" + e.toString());
-		}
+		return new myDatasetStore();
 		
-		return datasets;
 	}
 
 }
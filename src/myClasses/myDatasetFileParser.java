@@ -0,0 +1,429 @@
+package myClasses;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * parser for upstream-data.csv / downstream-data.csv
+ *
+ * the header (first line) gives the columns of datarate, delay, timestamp and
+ * loss rate. The rows behind it are split into byte ranges at line breaks,
+ * ranges are parsed in parallel and their datasets are added in order of the
+ * file. Values are parsed from the bytes of a row, only values which are not
+ * plain decimal numbers are turned into strings. As with line.split(",") and
+ * Integer / Long / Double.parseDouble a missing column, an empty or invalid
+ * value is -1. Lines end with "\n", "\r\n" or "\r", each line (also an empty
+ * one) is a dataset.
+ */
+class myDatasetFileParser {
+
+	// rows of a range are parsed by one thread
+	private static final int MIN_RANGE_SIZE = 1 << 20;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// 10^0 ... 10^22, exact as double
+	private static final double[] POW10 = new double[23];
+
+	static {
+		POW10[0] = 1;
+		for (int i = 1; i < POW10.length; i++) {
+			POW10[i] = POW10[i - 1] * 10;
+		}
+	}
+
+	// decimal numbers with mantissa < 2^53 are exact as double
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	private File file;
+	private String columnNameTimestamp;
+
+	private byte[] data;
+
+	private int columnNrDataRate = -1;
+	private int columnNrDelay = -1;
+	private int columnNrTimestamp = -1;
+	private int columnNrLossRate = -1;
+
+	/**
+	 * @param file
+	 *            csv file
+	 * @param columnNameTimestamp
+	 *            name of column of timestamp ("first ttx [ns]" for upstream,
+	 *            "first trx [ns]" for downstream)
+	 */
+	myDatasetFileParser(File file, String columnNameTimestamp) {
+		this.file = file;
+		this.columnNameTimestamp = columnNameTimestamp;
+	}
+
+	/**
+	 * read and parse file
+	 *
+	 * @return store of all datasets of file
+	 * @throws IOException
+	 */
+	myDatasetStore parse() throws IOException {
+		data = readFile(file);
+
+		int dataStart = readHeader();
+
+		if (dataStart == -1) {
+			// empty file
+			return new myDatasetStore();
+		}
+
+		int[] rangeStart = getRanges(dataStart);
+		int nrOfRanges = rangeStart.length - 1;
+
+		if (nrOfRanges == 1) {
+			myDatasetStore datasets = parseRange(rangeStart[0], rangeStart[1]);
+			datasets.trimToSize();
+			return datasets;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfRanges, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "myDatasetFileParser");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		try {
+			Vector<Future<myDatasetStore>> ranges = new Vector<Future<myDatasetStore>>(nrOfRanges);
+
+			for (int r = 0; r < nrOfRanges; r++) {
+				final int start = rangeStart[r];
+				final int end = rangeStart[r + 1];
+
+				ranges.add(executor.submit(new Callable<myDatasetStore>() {
+					@Override
+					public myDatasetStore call() throws Exception {
+						return parseRange(start, end);
+					}
+				}));
+			}
+
+			// merge in order of file
+			Vector<myDatasetStore> parsedRanges = new Vector<myDatasetStore>(nrOfRanges);
+			int size = 0;
+
+			for (Future<myDatasetStore> f : ranges) {
+				myDatasetStore range = f.get();
+				parsedRanges.add(range);
+				size += range.size();
+			}
+
+			myDatasetStore datasets = new myDatasetStore(size);
+
+			for (myDatasetStore range : parsedRanges) {
+				datasets.addAll(range);
+			}
+
+			return datasets;
+		} catch (InterruptedException e) {
+			throw new IOException("loadDatasets: " + e.toString());
+		} catch (ExecutionException e) {
+			throw new IOException("loadDatasets: " + e.getCause().toString());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static byte[] readFile(File file) throws IOException {
+		InputStream input = new FileInputStream(file);
+
+		try {
+			long length = file.length();
+
+			if (length > Integer.MAX_VALUE - 8) {
+				throw new IOException("loadDatasets: file too large: " + file);
+			}
+
+			byte[] bytes = new byte[(int) length];
+			int n = 0;
+			int read;
+
+			while (n < bytes.length && (read = input.read(bytes, n, bytes.length - n)) != -1) {
+				n += read;
+			}
+
+			if (n < bytes.length) {
+				bytes = Arrays.copyOf(bytes, n);
+			}
+
+			return bytes;
+		} finally {
+			input.close();
+		}
+	}
+
+	/*
+	 * set columns from first line, return start of first row or -1 if file is
+	 * empty
+	 */
+	private int readHeader() {
+		if (data.length == 0) {
+			return -1;
+		}
+
+		int end = 0;
+		while (end < data.length && data[end] != '\n' && data[end] != '\r') {
+			end++;
+		}
+
+		String[] columns = new String(data, 0, end, UTF8).split(",");
+
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i].equals("data rate [Byte/s]")) {
+				columnNrDataRate = i;
+			} else if (columns[i].equals("delay [s]")) {
+				columnNrDelay = i;
+			} else if (columns[i].equals(columnNameTimestamp)) {
+				columnNrTimestamp = i;
+			} else if (columns[i].equals("loss rate")) {
+				columnNrLossRate = i;
+			}
+		}
+
+		return skipLineBreak(end);
+	}
+
+	/*
+	 * return position behind line break at position
+	 */
+	private int skipLineBreak(int position) {
+		if (position < data.length && data[position] == '\r') {
+			position++;
+		}
+		if (position < data.length && data[position] == '\n') {
+			position++;
+		}
+		return position;
+	}
+
+	/*
+	 * split rows into ranges, each range starts behind a "\n", return start
+	 * of ranges and end of last range
+	 */
+	private int[] getRanges(int dataStart) {
+		int length = data.length - dataStart;
+		int nrOfRanges = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), length / MIN_RANGE_SIZE));
+
+		int[] rangeStart = new int[nrOfRanges + 1];
+		int n = 0;
+		rangeStart[n++] = dataStart;
+
+		for (int r = 1; r < nrOfRanges; r++) {
+			int position = Math.max(dataStart + (int) ((long) length * r / nrOfRanges), rangeStart[n - 1]);
+
+			while (position < data.length && data[position - 1] != '\n') {
+				position++;
+			}
+
+			if (position < data.length && position > rangeStart[n - 1]) {
+				rangeStart[n++] = position;
+			}
+		}
+
+		rangeStart[n++] = data.length;
+
+		return Arrays.copyOf(rangeStart, n);
+	}
+
+	/*
+	 * parse rows of data[start ... end - 1]
+	 */
+	private myDatasetStore parseRange(int start, int end) {
+		myDatasetStore datasets = new myDatasetStore(Math.max(16, (end - start) / 32));
+
+		int lineStart = start;
+
+		while (lineStart < end) {
+			int datarate = -1;
+			double delay = -1;
+			long timestamp = -1;
+			double lossRate = -1;
+
+			int column = 0;
+			int fieldStart = lineStart;
+			int i = lineStart;
+
+			while (true) {
+				boolean endOfLine = (i == end || data[i] == '\n' || data[i] == '\r');
+
+				if (endOfLine || data[i] == ',') {
+					if (column == columnNrDataRate) {
+						datarate = parseInt(fieldStart, i);
+					} else if (column == columnNrDelay) {
+						delay = parseDouble(fieldStart, i);
+					} else if (column == columnNrTimestamp) {
+						timestamp = parseLong(fieldStart, i);
+					} else if (column == columnNrLossRate) {
+						lossRate = parseDouble(fieldStart, i);
+					}
+
+					if (endOfLine) {
+						break;
+					}
+
+					column++;
+					fieldStart = i + 1;
+				}
+				i++;
+			}
+
+			datasets.add(timestamp, datarate, delay, lossRate);
+
+			lineStart = (i < end) ? skipLineBreak(i) : end;
+		}
+
+		return datasets;
+	}
+
+	/*
+	 * return true if bytes contain non ASCII characters (digits of other
+	 * scripts are parsed by Integer / Long.parseLong)
+	 */
+	private boolean isASCII(int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (data[i] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * as Integer.parseInt, -1 if value is invalid
+	 */
+	private int parseInt(int start, int end) {
+		long value = parseLong(start, end);
+
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			return -1;
+		}
+		return (int) value;
+	}
+
+	/*
+	 * as Long.parseLong, -1 if value is invalid
+	 */
+	private long parseLong(int start, int end) {
+		if (start == end) {
+			return -1;
+		}
+
+		if (!isASCII(start, end)) {
+			try {
+				return Long.parseLong(new String(data, start, end - start, UTF8));
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+
+		boolean negative = false;
+		int i = start;
+
+		if (data[i] == '-' || data[i] == '+') {
+			negative = (data[i] == '-');
+			i++;
+			if (i == end) {
+				return -1;
+			}
+		}
+
+		// accumulated negatively, as Long.parseLong
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multmin = limit / 10;
+		long result = 0;
+
+		for (; i < end; i++) {
+			int digit = data[i] - '0';
+
+			if (digit < 0 || digit > 9 || result < multmin) {
+				return -1;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return -1;
+			}
+			result -= digit;
+		}
+
+		return negative ? result : -result;
+	}
+
+	/*
+	 * as Double.parseDouble, -1 if value is invalid
+	 *
+	 * plain decimal numbers ([+-]digits[.digits]) with mantissa < 2^53 and
+	 * up to 22 fraction digits are mantissa / 10^n, both exact as double, so
+	 * the division rounds once as Double.parseDouble. Others (exponent, NaN,
+	 * spaces, ...) are parsed by Double.parseDouble.
+	 */
+	private double parseDouble(int start, int end) {
+		if (start == end) {
+			return -1;
+		}
+
+		int i = start;
+		boolean negative = false;
+
+		if (data[i] == '-' || data[i] == '+') {
+			negative = (data[i] == '-');
+			i++;
+		}
+
+		long mantissa = 0;
+		int nrOfDigits = 0;
+		int nrOfFractionDigits = 0;
+		boolean isFraction = false;
+		boolean isPlain = true;
+
+		for (; i < end; i++) {
+			byte b = data[i];
+
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				nrOfDigits++;
+				if (isFraction) {
+					nrOfFractionDigits++;
+				}
+				if (mantissa >= MAX_EXACT_MANTISSA) {
+					isPlain = false;
+					break;
+				}
+			} else if (b == '.' && !isFraction) {
+				isFraction = true;
+			} else {
+				isPlain = false;
+				break;
+			}
+		}
+
+		if (isPlain && nrOfDigits > 0 && nrOfFractionDigits < POW10.length) {
+			double value = mantissa / POW10[nrOfFractionDigits];
+			return negative ? -value : value;
+		}
+
+		try {
+			return Double.parseDouble(new String(data, start, end - start, UTF8));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
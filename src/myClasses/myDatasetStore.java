@@ -0,0 +1,306 @@
+package myClasses;
+
+import java.util.Arrays;
+
+import algorithm.MatchedNLink;
+
+/*
+ * columnar store of the datasets of one direction (upstream or downstream)
+ *
+ * the measured values of row i are kept in primitive columns (timestamp in
+ * nanosec, datarate, delay, loss rate), -1 if missing. Results of matching
+ * (position on route, matched link, X Y, ...) are kept in further columns,
+ * allocated by the first matching, before that a row is not matched.
+ *
+ * myDataset is a view of one row: get(i) creates it, it holds no values.
+ */
+public class myDatasetStore {
+
+	private static final int INITIAL_CAPACITY = 256;
+
+	private int size = 0;
+
+	// measured values
+	long[] timestamp;
+	int[] datarate;
+	double[] delay;
+	double[] lossRate;
+
+	// results of matching, null before first matching
+	double[] lengthPos = null;
+	double[] matchedDistributionInWayPart = null;
+	double[] x = null;
+	double[] y = null;
+	double[] xUnmatched = null;
+	double[] yUnmatched = null;
+	boolean[] isMatched = null;
+	MatchedNLink[] matchedNLink = null;
+	myCellInfo[] cellInfo = null;
+
+	// results of route distribution
+	double[] lengthPosRouteDistributionUnmatched = null;
+	MatchedNLink[] matchedNLinkRouteDistribution = null;
+	double[] xRouteDistribution = null;
+	double[] yRouteDistribution = null;
+
+	public myDatasetStore() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            expected number of rows
+	 */
+	public myDatasetStore(int capacity) {
+		capacity = Math.max(capacity, 1);
+
+		timestamp = new long[capacity];
+		datarate = new int[capacity];
+		delay = new double[capacity];
+		lossRate = new double[capacity];
+	}
+
+	/**
+	 * add row, results of a previous matching are dropped
+	 *
+	 * @param timestamp
+	 *            timestamp in nano-, micro- or millisec, <= 0 if missing
+	 * @param datarate
+	 * @param delay
+	 * @param lossRate
+	 */
+	public void add(long timestamp, int datarate, double delay, double lossRate) {
+		if (size == this.timestamp.length) {
+			setCapacity(size * 2);
+		}
+
+		this.timestamp[size] = toNanoSec(timestamp);
+		this.datarate[size] = datarate;
+		this.delay[size] = delay;
+		this.lossRate[size] = lossRate;
+
+		size++;
+
+		if (isMatched != null) {
+			freeResults();
+		}
+	}
+
+	/**
+	 * add rows of other store behind rows of this store
+	 *
+	 * @param other
+	 */
+	public void addAll(myDatasetStore other) {
+		if (size + other.size > timestamp.length) {
+			setCapacity(size + other.size);
+		}
+
+		System.arraycopy(other.timestamp, 0, timestamp, size, other.size);
+		System.arraycopy(other.datarate, 0, datarate, size, other.size);
+		System.arraycopy(other.delay, 0, delay, size, other.size);
+		System.arraycopy(other.lossRate, 0, lossRate, size, other.size);
+
+		size += other.size;
+
+		if (isMatched != null) {
+			freeResults();
+		}
+	}
+
+	/**
+	 * drop unused capacity of columns
+	 */
+	public void trimToSize() {
+		if (size < timestamp.length) {
+			setCapacity(size);
+		}
+	}
+
+	private void setCapacity(int capacity) {
+		capacity = Math.max(capacity, 1);
+
+		timestamp = Arrays.copyOf(timestamp, capacity);
+		datarate = Arrays.copyOf(datarate, capacity);
+		delay = Arrays.copyOf(delay, capacity);
+		lossRate = Arrays.copyOf(lossRate, capacity);
+	}
+
+	/*
+	 * allocate result columns for all rows (not matched), kept by later
+	 * matchings
+	 */
+	void allocateResults() {
+		if (isMatched != null) {
+			return;
+		}
+
+		lengthPos = newColumn(-1);
+		matchedDistributionInWayPart = newColumn(-1);
+		x = newColumn(0);
+		y = newColumn(0);
+		xUnmatched = newColumn(0);
+		yUnmatched = newColumn(0);
+		isMatched = new boolean[size];
+		matchedNLink = new MatchedNLink[size];
+		cellInfo = new myCellInfo[size];
+
+		lengthPosRouteDistributionUnmatched = newColumn(-1);
+		matchedNLinkRouteDistribution = new MatchedNLink[size];
+		xRouteDistribution = newColumn(0);
+		yRouteDistribution = newColumn(0);
+	}
+
+	private double[] newColumn(double value) {
+		double[] column = new double[size];
+		if (value != 0) {
+			Arrays.fill(column, value);
+		}
+		return column;
+	}
+
+	private void freeResults() {
+		lengthPos = null;
+		matchedDistributionInWayPart = null;
+		x = null;
+		y = null;
+		xUnmatched = null;
+		yUnmatched = null;
+		isMatched = null;
+		matchedNLink = null;
+		cellInfo = null;
+
+		lengthPosRouteDistributionUnmatched = null;
+		matchedNLinkRouteDistribution = null;
+		xRouteDistribution = null;
+		yRouteDistribution = null;
+	}
+
+	/**
+	 * return timestamp in nanosec, -1 if timestamp <= 0 or unit is unknown
+	 *
+	 * @param timestamp
+	 *            timestamp in nano-, micro- or millisec
+	 * @return timestamp in nanosec
+	 */
+	public static long toNanoSec(long timestamp) {
+		if (timestamp <= 0) {
+			return -1;
+		}
+
+		if (1000000000000000000L < timestamp) { // Nanosec
+			return timestamp;
+		} else if (1000000000000000L < timestamp) { // Microsec
+			return timestamp * 1000L;
+		} else if (1000000000000L < timestamp) { // Millisec
+			return timestamp * 1000000L;
+		}
+		return -1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * return view of row
+	 *
+	 * @param index
+	 * @return myDataset
+	 */
+	public myDataset get(int index) {
+		if (index < 0 || index >= size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return new myDataset(this, index);
+	}
+
+	/**
+	 * return index of first row with timestamp >= time, -1 if there is none
+	 *
+	 * @param time
+	 *            timestamp in nanosec
+	 * @return index
+	 */
+	public int getIndexOfFirstAtOrAfter(long time) {
+		for (int i = 0; i < size; i++) {
+			if (time <= timestamp[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public long getTimestamp(int index) {
+		return timestamp[index];
+	}
+
+	public int getDatarate(int index) {
+		return datarate[index];
+	}
+
+	public double getDelay(int index) {
+		return delay[index];
+	}
+
+	public double getLossRate(int index) {
+		return lossRate[index];
+	}
+
+	public boolean isMatched(int index) {
+		return (isMatched == null) ? false : isMatched[index];
+	}
+
+	public double getLengthPos(int index) {
+		return (lengthPos == null) ? -1 : lengthPos[index];
+	}
+
+	public double getMatchedDistributionInWayPart(int index) {
+		return (matchedDistributionInWayPart == null) ? -1 : matchedDistributionInWayPart[index];
+	}
+
+	public MatchedNLink getMatchedNLink(int index) {
+		return (matchedNLink == null) ? null : matchedNLink[index];
+	}
+
+	public double getX(int index) {
+		return (x == null) ? 0 : x[index];
+	}
+
+	public double getY(int index) {
+		return (y == null) ? 0 : y[index];
+	}
+
+	public double getXunmatched(int index) {
+		return (xUnmatched == null) ? 0 : xUnmatched[index];
+	}
+
+	public double getYunmatched(int index) {
+		return (yUnmatched == null) ? 0 : yUnmatched[index];
+	}
+
+	public double getXRouteDistribution(int index) {
+		return (xRouteDistribution == null) ? 0 : xRouteDistribution[index];
+	}
+
+	public double getYRouteDistribution(int index) {
+		return (yRouteDistribution == null) ? 0 : yRouteDistribution[index];
+	}
+
+	public myCellInfo getCellInfo(int index) {
+		return (cellInfo == null) ? null : cellInfo[index];
+	}
+
+	/**
+	 * return bytes used by columns
+	 *
+	 * @return bytes
+	 */
+	public long getMemoryFootprint() {
+		long bytes = (8L + 4 + 8 + 8) * timestamp.length;
+		if (isMatched != null) {
+			bytes += (9L * 8 + 1 + 3 * 4) * size;
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,200 @@
+package myClasses;
+
+import java.util.Arrays;
+
+/*
+ * net-edges (netconvert file) by start and end node id
+ *
+ * edges are stored in order of the file (index 0 ... size - 1). An open
+ * addressing hash table on (startNode, endNode) points to the last added edge
+ * with these nodes, edges with equal nodes (of different OSM ways) are chained
+ * to the edge added before. A second hash table holds the OSM way ids with
+ * at least one edge.
+ */
+public class myEdgeIndex {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	// edges in order of file
+	private myEdge[] edges = new myEdge[DEFAULT_CAPACITY];
+	// index + 1 of edge added before with same nodes (0 = none)
+	private int[] previous = new int[DEFAULT_CAPACITY];
+	private int size = 0;
+
+	// hash table (startNode, endNode) -> index + 1 of last added edge (0 = empty slot)
+	private long[] startKeys = new long[2 * DEFAULT_CAPACITY];
+	private long[] endKeys = new long[2 * DEFAULT_CAPACITY];
+	private int[] slots = new int[2 * DEFAULT_CAPACITY];
+	private int nrOfNodePairs = 0;
+
+	// hash table of OSM way ids (wayUsed[slot] == false: empty slot)
+	private long[] wayKeys = new long[DEFAULT_CAPACITY];
+	private boolean[] wayUsed = new boolean[DEFAULT_CAPACITY];
+	private int nrOfWays = 0;
+
+	/*
+	 * spread bits over hash table (finalizer of MurmurHash3)
+	 */
+	private static int hash(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	private static int hash(long startNode, long endNode) {
+		return hash(startNode * 31 + endNode);
+	}
+
+	/*
+	 * return hash table slot of node pair, or free slot where it belongs
+	 */
+	private int getSlot(long startNode, long endNode) {
+		int mask = slots.length - 1;
+		int slot = hash(startNode, endNode) & mask;
+
+		while (slots[slot] != 0 && (startKeys[slot] != startNode || endKeys[slot] != endNode)) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private int getWaySlot(long osmWayId) {
+		int mask = wayKeys.length - 1;
+		int slot = hash(osmWayId) & mask;
+
+		while (wayUsed[slot] && wayKeys[slot] != osmWayId) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * add edge (in order of file)
+	 *
+	 * @param e
+	 */
+	public void add(myEdge e) {
+		if (size == edges.length) {
+			edges = Arrays.copyOf(edges, size * 2);
+			previous = Arrays.copyOf(previous, size * 2);
+		}
+
+		int slot = getSlot(e.startNode, e.endNode);
+
+		edges[size] = e;
+		previous[size] = slots[slot];
+		size++;
+
+		if (slots[slot] == 0) {
+			startKeys[slot] = e.startNode;
+			endKeys[slot] = e.endNode;
+			nrOfNodePairs++;
+		}
+		slots[slot] = size;
+
+		if (2 * nrOfNodePairs > slots.length) {
+			rehashNodePairs(slots.length * 2);
+		}
+
+		int waySlot = getWaySlot(e.osmWayId);
+
+		if (!wayUsed[waySlot]) {
+			wayUsed[waySlot] = true;
+			wayKeys[waySlot] = e.osmWayId;
+			nrOfWays++;
+
+			if (2 * nrOfWays > wayKeys.length) {
+				rehashWays(wayKeys.length * 2);
+			}
+		}
+	}
+
+	private void rehashNodePairs(int capacity) {
+		long[] oldStartKeys = startKeys;
+		long[] oldEndKeys = endKeys;
+		int[] oldSlots = slots;
+
+		startKeys = new long[capacity];
+		endKeys = new long[capacity];
+		slots = new int[capacity];
+
+		for (int i = 0; i < oldSlots.length; i++) {
+			if (oldSlots[i] != 0) {
+				int slot = getSlot(oldStartKeys[i], oldEndKeys[i]);
+				startKeys[slot] = oldStartKeys[i];
+				endKeys[slot] = oldEndKeys[i];
+				slots[slot] = oldSlots[i];
+			}
+		}
+	}
+
+	private void rehashWays(int capacity) {
+		long[] oldWayKeys = wayKeys;
+		boolean[] oldWayUsed = wayUsed;
+
+		wayKeys = new long[capacity];
+		wayUsed = new boolean[capacity];
+
+		for (int i = 0; i < oldWayKeys.length; i++) {
+			if (oldWayUsed[i]) {
+				int slot = getWaySlot(oldWayKeys[i]);
+				wayUsed[slot] = true;
+				wayKeys[slot] = oldWayKeys[i];
+			}
+		}
+	}
+
+	/**
+	 * return last added edge of OSM way from startNode to endNode, null if
+	 * there is none
+	 *
+	 * @param osmWayId
+	 * @param startNode
+	 * @param endNode
+	 * @return myEdge
+	 */
+	public myEdge get(long osmWayId, long startNode, long endNode) {
+		int index = slots[getSlot(startNode, endNode)];
+
+		while (index != 0) {
+			myEdge e = edges[index - 1];
+
+			if (e.osmWayId == osmWayId) {
+				return e;
+			}
+
+			index = previous[index - 1];
+		}
+
+		return null;
+	}
+
+	/**
+	 * return there is at least one edge of OSM way
+	 *
+	 * @param osmWayId
+	 * @return
+	 */
+	public boolean containsWay(long osmWayId) {
+		return wayUsed[getWaySlot(osmWayId)];
+	}
+
+	/**
+	 * return edge at index (0 ... size() - 1, order of file)
+	 *
+	 * @param index
+	 * @return myEdge
+	 */
+	public myEdge getEdge(int index) {
+		return edges[index];
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,371 @@
+package myClasses;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * compiled binary snapshot of a loaded myOSMMap
+ *
+ * stores the resolved graph (nodes with x/y, ways, wayParts with back direction,
+ * net-edges, lengths) next to the OSM file, so the next start can memory-map it
+ * instead of parsing the OSM XML and the netconvert file again.
+ *
+ * the snapshot is only used, if size and last modification of both source files
+ * are equal to the values written into the header
+ */
+public class myMapSnapshot {
+
+	public static final String FILE_EXTENSION = ".snapshot";
+
+	private static final int MAGIC = 0x4A584D53; // "JXMS"
+
+	// increase if the layout of the file changes
+	private static final int VERSION = 3;
+
+	/*
+	 * return snapshot file to the osm file
+	 */
+	public static File getSnapshotFile(File osmFile) {
+		return new File(osmFile.getPath() + FILE_EXTENSION);
+	}
+
+	/**
+	 * write the map to the snapshot file of map.osmFile
+	 *
+	 * @param map: loaded map (wayParts and x/y of nodes must be set)
+	 * @param netFilePath: path of the netconvert file used for the map
+	 * @return true if no error
+	 */
+	public static boolean save(myOSMMap map, String netFilePath) {
+
+		File snapshotFile = getSnapshotFile(map.osmFile);
+		File tempFile = new File(snapshotFile.getPath() + ".tmp");
+
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16));
+
+			try {
+				writeHeader(out, map.osmFile, myEdge.getNetFile(netFilePath));
+
+				out.writeDouble(map.osmMinLat);
+				out.writeDouble(map.osmMaxLat);
+				out.writeDouble(map.osmMinLon);
+				out.writeDouble(map.osmMaxLon);
+				writeString(out, map.osmVersion);
+				writeString(out, map.osmGenerator);
+				out.writeLong(map.count_nodes);
+
+				// net-edges, in order of netconvert file
+				Map<myEdge, Integer> edgeIndex = new IdentityHashMap<myEdge, Integer>();
+
+				out.writeInt(map.edges.size());
+				for (int i = 0; i < map.edges.size(); i++) {
+					myEdge e = map.edges.getEdge(i);
+
+					edgeIndex.put(e, i);
+
+					writeString(out, e.id_str);
+					out.writeLong(e.osmWayId);
+					out.writeBoolean(e.reverse_direction);
+					out.writeLong(e.startNode);
+					out.writeLong(e.endNode);
+					out.writeDouble(e.length);
+				}
+
+				// nodes used by ways, in order of first reference
+				Map<myOSMNode, Integer> nodeIndex = new IdentityHashMap<myOSMNode, Integer>();
+				myOSMNode[] usedNodes = new myOSMNode[map.nodes.size()];
+
+				for (int i = 0; i < map.ways.size(); i++) {
+					myOSMNode[] refs = map.ways.get(i).refs;
+
+					for (int k = 0; k < refs.length; k++) {
+						if (!nodeIndex.containsKey(refs[k])) {
+							usedNodes[nodeIndex.size()] = refs[k];
+							nodeIndex.put(refs[k], nodeIndex.size());
+						}
+					}
+				}
+
+				out.writeInt(nodeIndex.size());
+				for (int i = 0; i < nodeIndex.size(); i++) {
+					myOSMNode n = usedNodes[i];
+
+					out.writeLong(n.id);
+					out.writeDouble(n.lat);
+					out.writeDouble(n.lon);
+					out.writeDouble(n.x);
+					out.writeDouble(n.y);
+				}
+
+				// ways with their wayParts (same order as created while parsing)
+				out.writeInt(map.ways.size());
+				for (int i = 0; i < map.ways.size(); i++) {
+					myOSMWay w = map.ways.get(i);
+
+					out.writeLong(w.id);
+					writeString(out, w.name);
+					writeString(out, w.highway);
+					writeString(out, w.motorcar);
+					out.writeBoolean(w.onyWay);
+					out.writeInt(w.lanes);
+					out.writeInt(w.maxSpeed);
+					out.writeInt(w.meansOfTransport);
+					out.writeInt(w.carPermission);
+					out.writeDouble(w.minX);
+					out.writeDouble(w.minY);
+					out.writeDouble(w.maxX);
+					out.writeDouble(w.maxY);
+					out.writeDouble(w.length);
+
+					out.writeInt(w.refs.length);
+					for (int k = 0; k < w.refs.length; k++) {
+						out.writeInt(nodeIndex.get(w.refs[k]));
+					}
+
+					Map<myOSMWayPart, Integer> partIndex = new IdentityHashMap<myOSMWayPart, Integer>();
+					for (int k = 0; k < w.WayParts.length; k++) {
+						partIndex.put(w.WayParts[k], k);
+					}
+
+					out.writeInt(w.WayParts.length);
+					for (int k = 0; k < w.WayParts.length; k++) {
+						myOSMWayPart wp = w.WayParts[k];
+
+						out.writeInt(nodeIndex.get(wp.startNode));
+						out.writeInt(nodeIndex.get(wp.endNode));
+						out.writeInt(wp.parentWayStepNr);
+						out.writeBoolean(wp.isBackDirection);
+						out.writeDouble(wp.length);
+						out.writeInt(wp.edge == null ? -1 : edgeIndex.get(wp.edge));
+						out.writeDouble(wp.startEdgeLength);
+						out.writeDouble(wp.endEdgeLength);
+						out.writeDouble(wp.startWayLengthPos);
+						out.writeDouble(wp.endWayLengthPos);
+						out.writeInt(wp.WayPartBackDirektion == null ? -1 : partIndex.get(wp.WayPartBackDirektion));
+					}
+				}
+			} finally {
+				out.close();
+			}
+
+			if (snapshotFile.exists() && !snapshotFile.delete()) {
+				throw new IOException("can not replace " + snapshotFile.getPath());
+			}
+			if (!tempFile.renameTo(snapshotFile)) {
+				throw new IOException("can not rename " + tempFile.getPath());
+			}
+
+		} catch (Exception e) {
+			System.out.println("Error: myMapSnapshot.save(): " + e.toString());
+			tempFile.delete();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * fill map from the snapshot file of osmFile, if the snapshot
+	 * exists and was compiled from the current osm and net file
+	 *
+	 * @param map: empty (initialized) map, initialized again if the snapshot
+	 *            can't be read
+	 * @param osmFile
+	 * @param netFilePath
+	 * @return true if map was loaded from snapshot
+	 */
+	public static boolean load(myOSMMap map, File osmFile, String netFilePath) {
+
+		File snapshotFile = getSnapshotFile(osmFile);
+
+		if (!snapshotFile.isFile() || snapshotFile.length() > Integer.MAX_VALUE) {
+			return false;
+		}
+
+		try {
+			FileInputStream fis = new FileInputStream(snapshotFile);
+			MappedByteBuffer in;
+
+			try {
+				FileChannel channel = fis.getChannel();
+				in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				fis.close();
+			}
+
+			if (!checkHeader(in, osmFile, myEdge.getNetFile(netFilePath))) {
+				return false;
+			}
+
+			map.osmMinLat = in.getDouble();
+			map.osmMaxLat = in.getDouble();
+			map.osmMinLon = in.getDouble();
+			map.osmMaxLon = in.getDouble();
+			map.osmVersion = readString(in);
+			map.osmGenerator = readString(in);
+			map.count_nodes = in.getLong();
+
+			// net-edges
+			int countEdges = in.getInt();
+
+			for (int i = 0; i < countEdges; i++) {
+				myEdge e = new myEdge();
+
+				e.id_str = readString(in);
+				e.osmWayId = in.getLong();
+				e.reverse_direction = (in.get() != 0);
+				e.startNode = in.getLong();
+				e.endNode = in.getLong();
+				e.length = in.getDouble();
+
+				map.edges.add(e);
+			}
+
+			// nodes
+			int countNodes = in.getInt();
+			myOSMNode[] nodes = new myOSMNode[countNodes];
+
+			for (int i = 0; i < countNodes; i++) {
+				myOSMNode n = new myOSMNode();
+
+				n.id = in.getLong();
+				n.lat = in.getDouble();
+				n.lon = in.getDouble();
+				n.x = in.getDouble();
+				n.y = in.getDouble();
+
+				nodes[i] = n;
+				map.nodes.put(n.id, n);
+			}
+
+			// ways
+			int countWays = in.getInt();
+			TreeMap<Integer, myOSMWay> ways = map.ways;
+
+			for (int i = 0; i < countWays; i++) {
+				myOSMWay w = new myOSMWay(map);
+
+				w.id = in.getLong();
+				w.name = readString(in);
+				w.highway = readString(in);
+				w.motorcar = readString(in);
+				w.onyWay = (in.get() != 0);
+				w.lanes = in.getInt();
+				w.maxSpeed = in.getInt();
+				w.meansOfTransport = in.getInt();
+				w.carPermission = in.getInt();
+				w.minX = in.getDouble();
+				w.minY = in.getDouble();
+				w.maxX = in.getDouble();
+				w.maxY = in.getDouble();
+				w.length = in.getDouble();
+
+				w.refs = new myOSMNode[in.getInt()];
+				for (int k = 0; k < w.refs.length; k++) {
+					w.refs[k] = nodes[in.getInt()];
+					w.IndexOfNodeId.put(w.refs[k].id, k);
+				}
+
+				w.WayParts = new myOSMWayPart[in.getInt()];
+				int[] backDirektion = new int[w.WayParts.length];
+
+				for (int k = 0; k < w.WayParts.length; k++) {
+					myOSMNode startNode = nodes[in.getInt()];
+					myOSMNode endNode = nodes[in.getInt()];
+					int stepNr = in.getInt();
+					boolean isBackDirection = (in.get() != 0);
+
+					myOSMWayPart wp = new myOSMWayPart(startNode, endNode, w, stepNr, isBackDirection, in.getDouble());
+
+					int edgeIndex = in.getInt();
+					wp.edge = (edgeIndex == -1) ? null : map.edges.getEdge(edgeIndex);
+					wp.startEdgeLength = in.getDouble();
+					wp.endEdgeLength = in.getDouble();
+					wp.startWayLengthPos = in.getDouble();
+					wp.endWayLengthPos = in.getDouble();
+					backDirektion[k] = in.getInt();
+
+					w.WayParts[k] = wp;
+				}
+
+				for (int k = 0; k < w.WayParts.length; k++) {
+					if (backDirektion[k] != -1) {
+						w.WayParts[k].WayPartBackDirektion = w.WayParts[backDirektion[k]];
+					}
+				}
+
+				// WayParts = WayPartsHin followed by WayPartsRueck
+				int countHin = w.refs.length - 1;
+				w.WayPartsHin = Arrays.copyOfRange(w.WayParts, 0, countHin);
+				if (w.onyWay == false) {
+					w.WayPartsRueck = Arrays.copyOfRange(w.WayParts, countHin, w.WayParts.length);
+				}
+
+				ways.put(ways.size(), w);
+			}
+
+		} catch (Exception e) {
+			System.out.println("Error: myMapSnapshot.load(): " + e.toString());
+			// drop what was read
+			map.init();
+			return false;
+		}
+
+		System.out.println("Loaded map snapshot " + snapshotFile.getName() + " | nodes: " + map.nodes.size() + " | ways: " + map.ways.size());
+
+		return true;
+	}
+
+	private static void writeHeader(DataOutputStream out, File osmFile, File netFile) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(osmFile.length());
+		out.writeLong(osmFile.lastModified());
+		out.writeLong(netFile.length());
+		out.writeLong(netFile.lastModified());
+	}
+
+	/*
+	 * return false if snapshot has an other format or the source files have changed
+	 */
+	private static boolean checkHeader(MappedByteBuffer in, File osmFile, File netFile) {
+		if (in.remaining() < 40 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+			return false;
+		}
+
+		return in.getLong() == osmFile.length() && in.getLong() == osmFile.lastModified()
+				&& in.getLong() == netFile.length() && in.getLong() == netFile.lastModified();
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static String readString(MappedByteBuffer in) {
+		int length = in.getInt();
+		if (length == -1) {
+			return null;
+		}
+		byte[] b = new byte[length];
+		in.get(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+}
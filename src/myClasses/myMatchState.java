@@ -0,0 +1,264 @@
+package myClasses;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Vector;
+
+import algorithm.MatchedRange;
+
+/*
+ * state of one matching session (selected route, matched GPS trace)
+ *
+ * nodes, ways and wayParts of a map are not changed after loading, so one
+ * map can be used by several sessions at the same time. All annotations of
+ * wayParts made by a session are stored here, indexed by the dense wayPart
+ * ID (myOSMWayPart.ObjID). Artificial wayParts (not part of the map) get
+ * indices behind the wayParts of the map.
+ */
+public class myMatchState {
+
+	// number of wayParts of the map, first index of artificial wayParts
+	private int nrOfWayParts;
+
+	private int size;
+
+	private HashMap<myOSMWayPart, Integer> artificialIndex = new HashMap<myOSMWayPart, Integer>();
+
+	// tables are created on first use
+	private int[] countMatchedGPSNodes = null;
+	private int[] selectCounter = null;
+	private Vector<Vector<MatchedRange>> matchedRanges = null;
+
+	public myMatchState(myOSMMap map) {
+		this(map.getNrOfWayPartIDs());
+	}
+
+	public myMatchState(int nrOfWayParts) {
+		this.nrOfWayParts = nrOfWayParts;
+		this.size = nrOfWayParts;
+	}
+
+	/*
+	 * return table index of wayPart
+	 */
+	private int getIndex(myOSMWayPart wp) {
+		if (wp.ObjID >= 0 && wp.ObjID < nrOfWayParts) {
+			return wp.ObjID;
+		}
+
+		if (wp.ObjID >= nrOfWayParts) {
+			throw new IllegalArgumentException("wayPart " + wp.ObjID + " not part of map (" + nrOfWayParts + " wayParts)");
+		}
+
+		Integer index = artificialIndex.get(wp);
+
+		if (index == null) {
+			index = nrOfWayParts + artificialIndex.size();
+			artificialIndex.put(wp, index);
+
+			size = Math.max(size, index + 1);
+		}
+
+		return index;
+	}
+
+	private int[] getTable(int[] table) {
+		if (table == null) {
+			return new int[size];
+		}
+		if (table.length < size) {
+			return Arrays.copyOf(table, Math.max(size, table.length * 2));
+		}
+		return table;
+	}
+
+	// ///////////// Matched GPS Nodes //////////////////////////////////
+
+	public void increaseCountMatchedGPSNodes(myOSMWayPart wp, int count) {
+		int index = getIndex(wp);
+		countMatchedGPSNodes = getTable(countMatchedGPSNodes);
+		countMatchedGPSNodes[index] += count;
+	}
+
+	public int getCountMatchedGPSNodes(myOSMWayPart wp) {
+		int index = getIndex(wp);
+		if (countMatchedGPSNodes == null || index >= countMatchedGPSNodes.length) {
+			return 0;
+		}
+		return countMatchedGPSNodes[index];
+	}
+
+	// ///////////// Select Counter /////////////////////////////////////
+
+	public void increaseSelectCounter(myOSMWayPart wp) {
+		int index = getIndex(wp);
+		selectCounter = getTable(selectCounter);
+		++selectCounter[index];
+	}
+
+	public void decreaseSelectCounter(myOSMWayPart wp) {
+		int index = getIndex(wp);
+		selectCounter = getTable(selectCounter);
+		if (selectCounter[index] > 0)
+			--selectCounter[index];
+	}
+
+	public int getSelectCounter(myOSMWayPart wp) {
+		int index = getIndex(wp);
+		if (selectCounter == null || index >= selectCounter.length) {
+			return 0;
+		}
+		return selectCounter[index];
+	}
+
+	public void resetSelectCounter(myOSMWayPart wp) {
+		int index = getIndex(wp);
+		if (selectCounter != null && index < selectCounter.length) {
+			selectCounter[index] = 0;
+		}
+	}
+
+	// ///////////// Matched Ranges /////////////////////////////////////
+
+	/*
+	 * return ranges of wayPart, empty vector if there are none
+	 */
+	private Vector<MatchedRange> getMatchedRanges(myOSMWayPart wp) {
+		int index = getIndex(wp);
+
+		if (matchedRanges == null) {
+			matchedRanges = new Vector<Vector<MatchedRange>>();
+		}
+		if (matchedRanges.size() < size) {
+			matchedRanges.setSize(size);
+		}
+
+		Vector<MatchedRange> ranges = matchedRanges.get(index);
+
+		if (ranges == null) {
+			ranges = new Vector<MatchedRange>(2);
+			matchedRanges.set(index, ranges);
+		}
+
+		return ranges;
+	}
+
+	/**
+	 * add range, which can be matched to this link
+	 *
+	 * @param wp
+	 * @param start
+	 * @param end
+	 * @param matched
+	 */
+	public void addMatchedRange(myOSMWayPart wp, int start, int end, boolean matched) {
+		getMatchedRanges(wp).add(new MatchedRange(start, end, matched));
+	}
+
+	/**
+	 * set end index of last added range
+	 *
+	 * @param wp
+	 * @param end
+	 * @return there was a last range
+	 */
+	public boolean setLastMatchedRangeEnd(myOSMWayPart wp, int end) {
+		Vector<MatchedRange> ranges = getMatchedRanges(wp);
+
+		if (!ranges.isEmpty()) {
+			ranges.lastElement().setRangeEndIndex(end);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * return start index of last added range
+	 *
+	 * @param wp
+	 * @return
+	 */
+	public int getLastMatchedRangeStart(myOSMWayPart wp) {
+		Vector<MatchedRange> ranges = getMatchedRanges(wp);
+
+		if (!ranges.isEmpty())
+			return ranges.lastElement().getRangeStartIndex();
+		else
+			return -1;
+	}
+
+	/**
+	 * return end index of last added range
+	 *
+	 * @param wp
+	 * @return
+	 */
+	public int getLastMatchedRangeEnd(myOSMWayPart wp) {
+		Vector<MatchedRange> ranges = getMatchedRanges(wp);
+
+		if (!ranges.isEmpty())
+			return ranges.lastElement().getRangeEndIndex();
+		else
+			return -1;
+	}
+
+	/**
+	 * set matched state of last added range
+	 *
+	 * @param wp
+	 * @param matched
+	 * @return there was a last range
+	 */
+	public boolean setLastMatched(myOSMWayPart wp, boolean matched) {
+		Vector<MatchedRange> ranges = getMatchedRanges(wp);
+
+		if (!ranges.isEmpty()) {
+			ranges.lastElement().setMatched(matched);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * get matched state of last added range
+	 *
+	 * @param wp
+	 * @return
+	 */
+	public boolean isLastMatched(myOSMWayPart wp) {
+		Vector<MatchedRange> ranges = getMatchedRanges(wp);
+
+		if (!ranges.isEmpty()) {
+			return ranges.lastElement().getMatched();
+		}
+		return false;
+	}
+
+	/**
+	 * remove last added range if possible
+	 *
+	 * @param wp
+	 * @return there was a range which could be removed
+	 */
+	public boolean removeLastMatchedRange(myOSMWayPart wp) {
+		Vector<MatchedRange> ranges = getMatchedRanges(wp);
+
+		if (!ranges.isEmpty()) {
+			ranges.remove(ranges.size() - 1);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * remove all ranges from link
+	 *
+	 * @param wp
+	 */
+	public void resetMatchedRanges(myOSMWayPart wp) {
+		getMatchedRanges(wp).clear();
+	}
+}
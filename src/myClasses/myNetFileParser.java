@@ -0,0 +1,449 @@
+package myClasses;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * streaming parser for netconvert files (*.net.xml, also gzip compressed)
+ *
+ * the file is scanned byte by byte, only attributes of <edge> and <lane>
+ * elements are turned into strings. Layout of the file (attribute order,
+ * line breaks) does not matter. An edge gets the length of its first lane.
+ * Internal edges (id ":...") and edges of on/off ramps added by netconvert
+ * are skipped.
+ */
+class myNetFileParser {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private static final byte[] EDGE = "edge".getBytes();
+	private static final byte[] LANE = "lane".getBytes();
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// used attributes
+	private static final int NONE = 0;
+	private static final int ID = 1;
+	private static final int FROM = 2;
+	private static final int TO = 3;
+	private static final int LENGTH = 4;
+
+	private InputStream input;
+
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+
+	// name of current element and attribute, value of attribute
+	private byte[] name = new byte[64];
+	private int nameLength;
+	private byte[] value = new byte[256];
+	private int valueLength;
+
+	// attributes of current element
+	private String id;
+	private String from;
+	private String to;
+	private String length;
+
+	private myEdgeIndex edges = new myEdgeIndex();
+
+	// edge waiting for length of its first lane
+	private myEdge edgeWithoutLength = null;
+
+	private int nrOfInvalidEdges = 0;
+
+	/**
+	 * @param input
+	 *            netconvert file, gzip compressed files are detected by their
+	 *            magic number
+	 * @throws IOException
+	 */
+	myNetFileParser(InputStream input) throws IOException {
+		BufferedInputStream in = new BufferedInputStream(input, 1 << 16);
+
+		in.mark(2);
+		int b1 = in.read();
+		int b2 = in.read();
+		in.reset();
+
+		if (b1 == 0x1f && b2 == 0x8b) {
+			this.input = new GZIPInputStream(in, 1 << 16);
+		} else {
+			this.input = in;
+		}
+	}
+
+	/**
+	 * return edges read so far
+	 */
+	myEdgeIndex getEdges() {
+		return edges;
+	}
+
+	/**
+	 * parse file, close input
+	 *
+	 * @return index of all edges of the file
+	 * @throws IOException
+	 */
+	myEdgeIndex parse() throws IOException {
+		try {
+			while (skipTo('<') != -1) {
+				readMarkup();
+			}
+		} finally {
+			input.close();
+		}
+
+		if (nrOfInvalidEdges > 0) {
+			System.out.println("Error: loadGetEdges: " + nrOfInvalidEdges + " edges with invalid node or way ids skipped");
+		}
+
+		return edges;
+	}
+
+	/*
+	 * fill buffer, return false at end of input
+	 */
+	private boolean fill() throws IOException {
+		limit = input.read(buffer, 0, buffer.length);
+		position = 0;
+
+		if (limit <= 0) {
+			limit = 0;
+			return false;
+		}
+		return true;
+	}
+
+	private int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xFF;
+	}
+
+	/*
+	 * skip input up to and including c, return c or -1 at end of input
+	 */
+	private int skipTo(int c) throws IOException {
+		while (true) {
+			for (int i = position; i < limit; i++) {
+				if (buffer[i] == c) {
+					position = i + 1;
+					return c;
+				}
+			}
+			if (!fill()) {
+				return -1;
+			}
+		}
+	}
+
+	private static boolean isWhiteSpace(int b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+
+	private boolean isName(byte[] s) {
+		if (nameLength != s.length) {
+			return false;
+		}
+		for (int i = 0; i < nameLength; i++) {
+			if (name[i] != s[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String getValue() {
+		return new String(value, 0, valueLength, UTF8);
+	}
+
+	/*
+	 * skip input up to and including end
+	 */
+	private void skipTo(String end) throws IOException {
+		int matched = 0;
+		int b;
+
+		while ((b = read()) != -1) {
+			if (b == end.charAt(matched)) {
+				matched++;
+				if (matched == end.length()) {
+					return;
+				}
+			} else {
+				matched = (b == end.charAt(0)) ? 1 : 0;
+			}
+		}
+	}
+
+	/*
+	 * read name into name buffer, return first byte behind it
+	 */
+	private int readName(int b) throws IOException {
+		nameLength = 0;
+
+		while (b != -1 && b != '=' && b != '>' && b != '/' && !isWhiteSpace(b)) {
+			if (nameLength == name.length) {
+				name = Arrays.copyOf(name, nameLength * 2);
+			}
+			name[nameLength++] = (byte) b;
+			b = read();
+		}
+
+		return b;
+	}
+
+	/*
+	 * handle markup behind '<'
+	 */
+	private void readMarkup() throws IOException {
+		int b = read();
+
+		if (b == '!') {
+			b = read();
+			if (b == '-') {
+				// comment
+				skipTo("-->");
+			} else {
+				skipTo(">");
+			}
+			return;
+		}
+
+		if (b == '?') {
+			skipTo("?>");
+			return;
+		}
+
+		if (b == '/') {
+			b = readName(read());
+
+			if (isName(EDGE)) {
+				// edge without lane
+				edgeWithoutLength = null;
+			}
+
+			if (b != '>') {
+				skipTo(">");
+			}
+			return;
+		}
+
+		b = readName(b);
+
+		boolean isEdge = isName(EDGE);
+		boolean isLane = isName(LANE);
+
+		id = null;
+		from = null;
+		to = null;
+		length = null;
+
+		boolean empty = readAttributes(b, isEdge || (isLane && edgeWithoutLength != null));
+
+		if (isEdge) {
+			startEdge();
+
+			if (empty) {
+				edgeWithoutLength = null;
+			}
+		} else if (isLane && edgeWithoutLength != null && length != null) {
+			myEdge e = edgeWithoutLength;
+			edgeWithoutLength = null;
+
+			try {
+				e.length = Double.parseDouble(length);
+				addEdge(e);
+			} catch (NumberFormatException ex) {
+				nrOfInvalidEdges++;
+			}
+		}
+	}
+
+	/*
+	 * return used attribute in name buffer
+	 */
+	private int getAttribute() {
+		if (nameLength == 2 && name[0] == 'i' && name[1] == 'd') {
+			return ID;
+		} else if (nameLength == 4 && name[0] == 'f' && name[1] == 'r' && name[2] == 'o' && name[3] == 'm') {
+			return FROM;
+		} else if (nameLength == 2 && name[0] == 't' && name[1] == 'o') {
+			return TO;
+		} else if (nameLength == 6 && name[0] == 'l' && name[1] == 'e' && name[2] == 'n' && name[3] == 'g' && name[4] == 't' && name[5] == 'h') {
+			return LENGTH;
+		}
+		return NONE;
+	}
+
+	/*
+	 * read attributes up to end of start tag, return element is empty ("/>"),
+	 * values of used attributes are kept if keep is set
+	 */
+	private boolean readAttributes(int b, boolean keep) throws IOException {
+		while (true) {
+			while (isWhiteSpace(b)) {
+				b = read();
+			}
+
+			if (b == -1 || b == '>') {
+				return false;
+			}
+			if (b == '/') {
+				b = read();
+				if (b == '>') {
+					return true;
+				}
+				continue;
+			}
+
+			b = readName(b);
+
+			while (isWhiteSpace(b)) {
+				b = read();
+			}
+			if (b != '=') {
+				// attribute without value
+				continue;
+			}
+
+			b = read();
+			while (isWhiteSpace(b)) {
+				b = read();
+			}
+			if (b != '"' && b != '\'') {
+				continue;
+			}
+
+			int quote = b;
+			int attribute = keep ? getAttribute() : NONE;
+
+			if (attribute == NONE) {
+				skipTo(quote);
+			} else {
+				valueLength = 0;
+
+				while ((b = read()) != -1 && b != quote) {
+					if (valueLength == value.length) {
+						value = Arrays.copyOf(value, valueLength * 2);
+					}
+					value[valueLength++] = (byte) b;
+				}
+
+				if (attribute == ID) {
+					id = getValue();
+				} else if (attribute == FROM) {
+					from = getValue();
+				} else if (attribute == TO) {
+					to = getValue();
+				} else {
+					length = getValue();
+				}
+			}
+
+			b = read();
+		}
+	}
+
+	/*
+	 * remember edge until length of first lane is read
+	 */
+	private void startEdge() {
+		edgeWithoutLength = null;
+
+		if (id == null || id.startsWith(":") || from == null || to == null) {
+			return;
+		}
+
+		if (id.contains("AddedOnRampEdge") || id.contains("AddedOffRampEdge")) {
+			return;
+		}
+
+		if (from.contains("AddedOnRampNode") || from.contains("AddedOffRampNode")
+				|| to.contains("AddedOnRampNode") || to.contains("AddedOffRampNode")) {
+			return;
+		}
+
+		myEdge e = new myEdge();
+
+		e.id_str = id;
+
+		try {
+			e.startNode = Long.parseLong(from);
+			e.endNode = Long.parseLong(to);
+		} catch (NumberFormatException ex) {
+			nrOfInvalidEdges++;
+			return;
+		}
+
+		edgeWithoutLength = e;
+	}
+
+	/*
+	 * add edge, an edge of joined OSM ways ("id1+id2+...") is added once per way
+	 */
+	private void addEdge(myEdge e) {
+		String[] ids;
+		boolean splited = false;
+
+		try {
+			if (e.id_str.contains("+")) {
+				ids = e.id_str.split("\\+");
+				e.osmWayId = Long.parseLong(ids[0].split("#")[0]);
+				splited = true;
+			} else if (e.id_str.contains("_")) {
+				ids = e.id_str.split("_");
+				e.osmWayId = Long.parseLong(ids[0]);
+			} else {
+				ids = null;
+				e.osmWayId = Long.parseLong(e.id_str.split("#")[0]);
+			}
+		} catch (NumberFormatException ex) {
+			nrOfInvalidEdges++;
+			return;
+		}
+
+		if (e.osmWayId < 0) {
+			e.osmWayId = e.osmWayId * -1;
+			e.reverse_direction = true;
+		}
+
+		edges.add(e);
+
+		if (splited) {
+			for (int i = 1; i < ids.length; i++) {
+				myEdge e_temp = new myEdge();
+
+				e_temp.endNode = e.endNode;
+				e_temp.id_str = e.id_str;
+				e_temp.length = e.length;
+				e_temp.reverse_direction = e.reverse_direction;
+				e_temp.startNode = e.startNode;
+
+				try {
+					e_temp.osmWayId = Long.parseLong(ids[i].split("#")[0]);
+				} catch (NumberFormatException ex) {
+					nrOfInvalidEdges++;
+					return;
+				}
+
+				e = e_temp;
+
+				if (e.osmWayId < 0) {
+					e.osmWayId = e.osmWayId * -1;
+					e.reverse_direction = true;
+				}
+
+				edges.add(e);
+			}
+		}
+	}
+}
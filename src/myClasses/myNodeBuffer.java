@@ -0,0 +1,226 @@
+package myClasses;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Vector;
+
+/*
+ * id, latitude and longitude of all nodes read from an OSM file, in order of
+ * the file
+ *
+ * values are kept in primitive arrays (chunks of CHUNK_SIZE nodes). If the
+ * heap runs low, full chunks are written to a temporary file. Nodes are read
+ * back in the same order with start(), next() and getId(), getLat(),
+ * getLon().
+ */
+public class myNodeBuffer {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	// bytes of one chunk in memory
+	private static final long CHUNK_BYTES = 24L * CHUNK_SIZE;
+
+	// write chunks to file if less heap is left
+	private static final long SPILL_RESERVE = 8 * CHUNK_BYTES;
+
+	private static class Chunk {
+		long[] ids = new long[CHUNK_SIZE];
+		double[] lats = new double[CHUNK_SIZE];
+		double[] lons = new double[CHUNK_SIZE];
+		int size = 0;
+	}
+
+	// chunks in memory, follow the chunks in spill file
+	private Vector<Chunk> chunks = new Vector<Chunk>();
+
+	private File spillFile = null;
+	private DataOutputStream spillOutput = null;
+	private int nrOfSpilledChunks = 0;
+
+	private long size = 0;
+
+	// reading
+	private DataInputStream spillInput = null;
+	private long readPosition;
+	private int chunkIndex;
+	private int indexInChunk;
+	private long id;
+	private double lat;
+	private double lon;
+
+	public myNodeBuffer() {
+		chunks.add(new Chunk());
+	}
+
+	/**
+	 * add node
+	 *
+	 * @param id
+	 * @param lat
+	 * @param lon
+	 * @throws IOException
+	 */
+	public void add(long id, double lat, double lon) throws IOException {
+		Chunk chunk = chunks.lastElement();
+
+		if (chunk.size == CHUNK_SIZE) {
+			if (spillOutput != null || isHeapLow()) {
+				spill();
+			}
+
+			chunk = new Chunk();
+			chunks.add(chunk);
+		}
+
+		chunk.ids[chunk.size] = id;
+		chunk.lats[chunk.size] = lat;
+		chunk.lons[chunk.size] = lon;
+		chunk.size++;
+
+		size++;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * return nodes were written to temporary file
+	 */
+	public boolean isSpilled() {
+		return nrOfSpilledChunks > 0;
+	}
+
+	private static boolean isHeapLow() {
+		Runtime runtime = Runtime.getRuntime();
+		long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+
+		return free < SPILL_RESERVE;
+	}
+
+	/*
+	 * write all full chunks to spill file
+	 */
+	private void spill() throws IOException {
+		if (spillOutput == null) {
+			spillFile = File.createTempFile("jxmapmatch-nodes", ".tmp");
+			spillFile.deleteOnExit();
+			spillOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), 1 << 16));
+
+			System.out.println("heap low, writing nodes to " + spillFile.getPath());
+		}
+
+		while (!chunks.isEmpty() && chunks.firstElement().size == CHUNK_SIZE) {
+			Chunk chunk = chunks.remove(0);
+
+			for (int i = 0; i < chunk.size; i++) {
+				spillOutput.writeLong(chunk.ids[i]);
+				spillOutput.writeDouble(chunk.lats[i]);
+				spillOutput.writeDouble(chunk.lons[i]);
+			}
+
+			nrOfSpilledChunks++;
+		}
+	}
+
+	/**
+	 * start reading nodes from the first one
+	 *
+	 * @throws IOException
+	 */
+	public void start() throws IOException {
+		closeInput();
+
+		if (spillOutput != null) {
+			spillOutput.flush();
+			spillInput = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile), 1 << 16));
+		}
+
+		readPosition = 0;
+		chunkIndex = 0;
+		indexInChunk = 0;
+	}
+
+	/**
+	 * read next node
+	 *
+	 * @return there was a next node
+	 * @throws IOException
+	 */
+	public boolean next() throws IOException {
+		if (readPosition >= size) {
+			return false;
+		}
+
+		if (readPosition < (long) nrOfSpilledChunks * CHUNK_SIZE) {
+			id = spillInput.readLong();
+			lat = spillInput.readDouble();
+			lon = spillInput.readDouble();
+		} else {
+			Chunk chunk = chunks.get(chunkIndex);
+
+			if (indexInChunk == chunk.size) {
+				chunkIndex++;
+				indexInChunk = 0;
+				chunk = chunks.get(chunkIndex);
+			}
+
+			id = chunk.ids[indexInChunk];
+			lat = chunk.lats[indexInChunk];
+			lon = chunk.lons[indexInChunk];
+			indexInChunk++;
+		}
+
+		readPosition++;
+		return true;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public double getLat() {
+		return lat;
+	}
+
+	public double getLon() {
+		return lon;
+	}
+
+	private void closeInput() throws IOException {
+		if (spillInput != null) {
+			spillInput.close();
+			spillInput = null;
+		}
+	}
+
+	/**
+	 * release memory and delete temporary file
+	 */
+	public void close() {
+		chunks.clear();
+		size = 0;
+
+		try {
+			closeInput();
+			if (spillOutput != null) {
+				spillOutput.close();
+				spillOutput = null;
+			}
+		} catch (IOException e) {
+			System.out.println("Error: myNodeBuffer: " + e.toString());
+		}
+
+		if (spillFile != null) {
+			spillFile.delete();
+			spillFile = null;
+		}
+		nrOfSpilledChunks = 0;
+	}
+}
@@ -0,0 +1,174 @@
+package myClasses;
+
+import java.util.Arrays;
+
+/*
+ * nodes of a map by OSM id
+ *
+ * nodes are stored in a dense table (index 0 ... size - 1, in order of
+ * insertion), OSM ids are mapped to table indices by an open addressing
+ * hash table on primitive long keys. No boxed Long or map entry is created
+ * per node.
+ */
+public class myNodeTable {
+
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	// resize hash table if more than 2/3 of the slots are used
+	private static final int MAX_LOAD_NUMERATOR = 2;
+	private static final int MAX_LOAD_DENOMINATOR = 3;
+
+	// hash table: keys[slot] is OSM id, slots[slot] is table index + 1 (0 = empty slot)
+	private long[] keys;
+	private int[] slots;
+	private int mask;
+
+	// dense node table
+	private myOSMNode[] nodes;
+	private int size = 0;
+
+	public myNodeTable() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            number of nodes to store without resizing
+	 */
+	public myNodeTable(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * MAX_LOAD_DENOMINATOR / MAX_LOAD_NUMERATOR) << 1;
+
+		keys = new long[capacity];
+		slots = new int[capacity];
+		mask = capacity - 1;
+
+		nodes = new myOSMNode[Math.max(expectedSize, 16)];
+	}
+
+	/*
+	 * spread bits of id over hash table (finalizer of MurmurHash3)
+	 */
+	private static int hash(long id) {
+		id ^= id >>> 33;
+		id *= 0xff51afd7ed558ccdL;
+		id ^= id >>> 33;
+		id *= 0xc4ceb9fe1a85ec53L;
+		id ^= id >>> 33;
+		return (int) id;
+	}
+
+	/*
+	 * return hash table slot of id, or free slot where id belongs
+	 */
+	private int getSlot(long id) {
+		int slot = hash(id) & mask;
+
+		while (slots[slot] != 0 && keys[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * return table index of node with OSM id, -1 if there is none
+	 *
+	 * @param id
+	 * @return index
+	 */
+	public int getIndex(long id) {
+		return slots[getSlot(id)] - 1;
+	}
+
+	/**
+	 * return node with OSM id, null if there is none
+	 *
+	 * @param id
+	 * @return myOSMNode
+	 */
+	public myOSMNode get(long id) {
+		int index = getIndex(id);
+		return (index < 0) ? null : nodes[index];
+	}
+
+	/**
+	 * return node at table index (0 ... size() - 1)
+	 *
+	 * @param index
+	 * @return myOSMNode
+	 */
+	public myOSMNode getNode(int index) {
+		return nodes[index];
+	}
+
+	public boolean containsKey(long id) {
+		return getIndex(id) >= 0;
+	}
+
+	/**
+	 * add node with OSM id, replaces node with same id
+	 *
+	 * @param id
+	 * @param node
+	 * @return replaced node or null
+	 */
+	public myOSMNode put(long id, myOSMNode node) {
+		int slot = getSlot(id);
+
+		if (slots[slot] != 0) {
+			myOSMNode replaced = nodes[slots[slot] - 1];
+			nodes[slots[slot] - 1] = node;
+			return replaced;
+		}
+
+		if (size == nodes.length) {
+			nodes = Arrays.copyOf(nodes, nodes.length * 2);
+		}
+		nodes[size] = node;
+		size++;
+
+		keys[slot] = id;
+		slots[slot] = size;
+
+		if (size * MAX_LOAD_DENOMINATOR > keys.length * MAX_LOAD_NUMERATOR) {
+			rehash(keys.length * 2);
+		}
+
+		return null;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldSlots = slots;
+
+		keys = new long[capacity];
+		slots = new int[capacity];
+		mask = capacity - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldSlots[i] != 0) {
+				int slot = getSlot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				slots[slot] = oldSlots[i];
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * return bytes used by hash table and node table (without the nodes)
+	 *
+	 * @return bytes
+	 */
+	public long getMemoryFootprint() {
+		// 4 bytes per reference (compressed oops), 16 bytes per array header
+		return 8L * keys.length + 4L * slots.length + 4L * nodes.length + 3 * 16;
+	}
+}
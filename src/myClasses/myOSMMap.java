@@ -2,12 +2,11 @@ package myClasses;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.Vector;
 
 import javax.xml.stream.XMLInputFactory;
@@ -16,7 +15,7 @@ import javax.xml.stream.XMLStreamReader;
 
 public class myOSMMap {
 
-	public Map<Long, myOSMNode> nodes = new HashMap<Long, myOSMNode>();
+	public myNodeTable nodes = new myNodeTable();
 	public long count_nodes = 0;
 	
 	public TreeMap<Integer, myOSMWay> ways = new TreeMap<Integer, myOSMWay>();
@@ -43,26 +42,51 @@ public class myOSMMap {
 
 	private String lastkey = ""; 
 	
-	private int parseXML_status = 0;
-	// 0 = Scan OSM file: search needed nodes of "car" ways
-	// 1 = Create nodes and ways
-	// 2 = No scan of OSM file; create all nodes and ways
+	// OSM file is read once: nodes are buffered, ways keep the ids of their
+	// nodes; after parsing only nodes used by ways are created (resolveWays)
+	private myNodeBuffer nodeBuffer = null;
+	private Vector<myOSMWay> parsedWays = new Vector<myOSMWay>();
+	private Vector<long[]> parsedWayNodeIds = new Vector<long[]>();
 	
-	private Map<Integer, Long> nodeIdsOfWay = new HashMap<Integer, Long>();
-	private TreeSet<Long> neededNodesIds = new TreeSet<Long>();
+	private long[] nodeIdsOfWay = new long[16];
+	private int nrOfNodeIdsOfWay = 0;
+	// ids of nodes used by ways, sorted after parsing
+	private long[] neededNodesIds = new long[0];
+	private int nrOfNeededNodesIds = 0;
 	private boolean isBuildingWay = false;
 	
+	// load only segments of ways crossing this box (null: whole file)
+	private myBoundingBox clipBox = null;
+	// clipBox extended by CLIP_SEGMENT_TOLERANCE, nodes inside are buffered
+	private myBoundingBox clipNodeBox = null;
+	// nodes inside clipNodeBox, added while parsing
+	private myNodeTable clipNodes = null;
+	
+	// segments crossing clipBox are kept if their nodes are not farther
+	// from clipBox (meters)
+	public static final double CLIP_SEGMENT_TOLERANCE = 1000;
+	
 	private int anzahl_ways = 0;
 	private int anzahl_ways_Building = 0;
 	private int anzahl_ways_Car = 0;
 	
-	public Map<Long, Map<Integer, myEdge>> edges = new HashMap<Long, Map<Integer, myEdge>>();
+	// net-edges by start and end node
+	public myEdgeIndex edges = new myEdgeIndex();
 	
-	public Vector<myDataset> DatasetsUp = new Vector<myDataset>(200);
-	public Vector<myDataset> DatasetsDown = new Vector<myDataset>(200);
+	public myDatasetStore DatasetsUp = new myDatasetStore();
+	public myDatasetStore DatasetsDown = new myDatasetStore();
 	
 	public Vector<myCellInfo> CellInfos = new Vector<myCellInfo>();
 	
+	// spatial index of all wayParts, built on first use
+	private myWayPartIndex wayPartIndex = null;
+	
+	// all wayParts, index is myOSMWayPart.ObjID
+	private myOSMWayPart[] wayPartsByID = new myOSMWayPart[0];
+	
+	// outgoing / incoming wayParts of nodes
+	private myRoadGraph roadGraph = null;
+	
 	public myOSMMap() {
 	}
 	
@@ -70,9 +94,43 @@ public class myOSMMap {
 		loadMapFiles(_xmlFile, netFilePath);
 	}
 	
+	public myOSMMap(File _xmlFile, String netFilePath, myBoundingBox clipBox) {
+		loadMapFiles(_xmlFile, netFilePath, clipBox);
+	}
+	
+	/*
+	 * map for one GPS trace: shares nodes, ways, edges and wayPart index of
+	 * the loaded map, but has its own datasets and cell infos
+	 */
+	public myOSMMap(myOSMMap map) {
+		this.nodes = map.nodes;
+		this.count_nodes = map.count_nodes;
+		
+		this.ways = map.ways;
+		
+		this.osmMinLat = map.osmMinLat;
+		this.osmMaxLat = map.osmMaxLat;
+		this.osmMinLon = map.osmMinLon;
+		this.osmMaxLon = map.osmMaxLon;
+		
+		this.osmVersion = map.osmVersion;
+		this.osmGenerator = map.osmGenerator;
+		
+		this.osmFile = map.osmFile;
+		
+		this.edges = map.edges;
+		
+		this.wayPartIndex = map.getWayPartIndex();
+		this.wayPartsByID = map.wayPartsByID;
+		this.roadGraph = map.roadGraph;
+	}
+	
 	public void loadDatasets(String DatasetFolderPath) {
 		DatasetsUp = myDataset.loadDatasetsUp(DatasetFolderPath + "upstream-data.csv");
 		DatasetsDown = myDataset.loadDatasetsDown(DatasetFolderPath + "downstream-data.csv");
+		
+		System.out.println("datasets: " + DatasetsUp.size() + " up, " + DatasetsDown.size() + " down | "
+				+ ((DatasetsUp.getMemoryFootprint() + DatasetsDown.getMemoryFootprint()) / 1024) + " KB");
 	}
 	
 	public void loadCellInfos(String CellInfoFolderPath) {
@@ -82,8 +140,8 @@ public class myOSMMap {
 	/*
 	 * initialization
 	 */
-	private void init() {
-		this.nodes = new HashMap<Long, myOSMNode>();
+	void init() {
+		this.nodes = new myNodeTable();
 		this.count_nodes = 0;
 		
 		this.ways = new TreeMap<Integer, myOSMWay>();
@@ -101,97 +159,316 @@ public class myOSMMap {
 
 		this.lastkey = ""; 
 		
-		this.parseXML_status = 3;
-		this.nodeIdsOfWay = new HashMap<Integer, Long>();
-		this.neededNodesIds = new TreeSet<Long>();
+		this.nodeBuffer = null;
+		this.parsedWays = new Vector<myOSMWay>();
+		this.parsedWayNodeIds = new Vector<long[]>();
+		
+		this.nrOfNodeIdsOfWay = 0;
+		this.neededNodesIds = new long[0];
+		this.nrOfNeededNodesIds = 0;
+		
+		this.clipBox = null;
+		this.clipNodeBox = null;
+		this.clipNodes = null;
 		this.isBuildingWay = false;
 		
 		this.anzahl_ways = 0;
 		this.anzahl_ways_Building = 0;
 		this.anzahl_ways_Car = 0;
 		
-		this.edges = new HashMap<Long, Map<Integer, myEdge>>();		
+		this.edges = new myEdgeIndex();
+		
+		this.wayPartIndex = null;
+		this.wayPartsByID = new myOSMWayPart[0];
 	}
 	
 	/*
 	 * load osm file (_xmlFile) and netconvert file (netFilePath)
 	 */
 	public void loadMapFiles(File _xmlFile, String netFilePath) {
+		loadMapFiles(_xmlFile, netFilePath, null);
+	}
+	
+	/*
+	 * load osm file (_xmlFile) and netconvert file (netFilePath), ways are cut
+	 * to their segments crossing _clipBox (a way leaving and entering the box
+	 * again becomes two ways with the same id). A segment is kept with both
+	 * nodes, also if they are outside the box, as long as they are within
+	 * CLIP_SEGMENT_TOLERANCE of it; segments with a node farther away are
+	 * dropped. Nodes near the box have to be in front of the ways in the
+	 * file, as usual for OSM files. Snapshots are only used for the whole map
+	 * (_clipBox == null).
+	 */
+	public void loadMapFiles(File _xmlFile, String netFilePath, myBoundingBox _clipBox) {
+		loadMapFiles(_xmlFile, netFilePath, _clipBox, true);
+	}
+	
+	/*
+	 * as loadMapFiles(_xmlFile, netFilePath, _clipBox), with useSnapshot ==
+	 * false the files are always parsed and no snapshot is written
+	 */
+	public void loadMapFiles(File _xmlFile, String netFilePath, myBoundingBox _clipBox, boolean useSnapshot) {
 
 		init();
 		
 		osmFile = _xmlFile;
+		clipBox = _clipBox;
+		
+		// use compiled snapshot, if osm and net file are unchanged (a failed
+		// load leaves the map empty)
+		if (useSnapshot && clipBox == null && myMapSnapshot.load(this, osmFile, netFilePath)) {
+			setWayPartIDs();
+			printMemoryFootprint();
+			return;
+		}
+		
+		if (clipBox != null) {
+			System.out.println("clip map to " + clipBox);
+			
+			clipNodeBox = new myBoundingBox(clipBox.minLat, clipBox.minLon, clipBox.maxLat, clipBox.maxLon);
+			clipNodeBox.extend(CLIP_SEGMENT_TOLERANCE);
+			clipNodes = new myNodeTable();
+		}
 		
 		try {
 			
-			Map<Integer, myEdge> edgesTemp = myEdge.loadGetEdges(netFilePath);
+			edges = myEdge.loadGetEdges(netFilePath);
 			
-			for (int i = 0 ; i < edgesTemp.size(); i++) {
-				
-				myEdge e = edgesTemp.get(i);
-				
-				if (edges.containsKey(e.osmWayId)) {
-					
-					Map<Integer, myEdge> me = edges.get(e.osmWayId);
-					
-					me.put(me.size(), e);
-					
-					edges.put(e.osmWayId, me);
-				} else {
-					Map<Integer, myEdge> me = new HashMap<Integer, myEdge>();
+			if (!isPBFFile(osmFile)) {
+				parser = factory.createXMLStreamReader( new FileInputStream( osmFile));
+			}
+		} catch (Exception e) {
+			System.err.println("Error: myOSMMap(...) " + e.toString());
+		}
+		
+		nrOfNodeIdsOfWay = 0;
+		isBuildingWay = false;
+		
+		nodeBuffer = new myNodeBuffer();
+		
+		boolean parsed = isPBFFile(osmFile) ? parsePBF(true) : parseXML(true);
+		
+		// only needed while parsing
+		clipNodes = null;
+		
+		resolveWays();
+		
+		setWayPartIDs();
+		
+		printMemoryFootprint();
+		
+		if (useSnapshot && parsed && clipBox == null) {
+			// compile snapshot for next start
+			myMapSnapshot.save(this, netFilePath);
+		}
+
+	}
+	
+	/*
+	 * return file is an OSM PBF file (*.osm.pbf), otherwise it is read as XML
+	 */
+	public static boolean isPBFFile(File file) {
+		return file.getName().endsWith(".pbf");
+	}
+	
+	/*
+	 * print memory used by node store and heap after loading
+	 */
+	private void printMemoryFootprint() {
+		Runtime runtime = Runtime.getRuntime();
+		
+		System.out.println("nodes: " + nodes.size() + " | node store: " + (nodes.getMemoryFootprint() / 1024) + " KB"
+				+ " | road graph: " + (roadGraph.getMemoryFootprint() / 1024) + " KB"
+				+ " | heap used: " + ((runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024)) + " MB");
+	}
+	
+	/*
+	 * remember id of node used by a way (scan of OSM file)
+	 */
+	private void addNeededNodeId(long id) {
+		if (nrOfNeededNodesIds == neededNodesIds.length) {
+			neededNodesIds = Arrays.copyOf(neededNodesIds, Math.max(1024, neededNodesIds.length * 2));
+		}
+		neededNodesIds[nrOfNeededNodesIds++] = id;
+	}
+	
+	/*
+	 * sort needed node ids and remove duplicates
+	 */
+	private void sortNeededNodesIds() {
+		Arrays.sort(neededNodesIds, 0, nrOfNeededNodesIds);
+		
+		int n = 0;
+		for (int i = 0; i < nrOfNeededNodesIds; i++) {
+			if (n == 0 || neededNodesIds[n - 1] != neededNodesIds[i]) {
+				neededNodesIds[n++] = neededNodesIds[i];
+			}
+		}
+		
+		neededNodesIds = Arrays.copyOf(neededNodesIds, n);
+		nrOfNeededNodesIds = n;
+	}
+	
+	private boolean isNeededNodeId(long id) {
+		return Arrays.binarySearch(neededNodesIds, 0, nrOfNeededNodesIds, id) >= 0;
+	}
+	
+	/*
+	 * after parsing: create nodes used by parsed ways (last node in file wins
+	 * for duplicate ids), set nodes of ways and add ways in order of file
+	 */
+	private void resolveWays() {
+		sortNeededNodesIds();
+		
+		try {
+			nodeBuffer.start();
+			
+			while (nodeBuffer.next()) {
+				if (isNeededNodeId(nodeBuffer.getId())) {
+					myOSMNode node = new myOSMNode();
 					
-					me.put(me.size(), e);
+					node.id = nodeBuffer.getId();
+					node.lat = nodeBuffer.getLat();
+					node.lon = nodeBuffer.getLon();
 					
-					edges.put(e.osmWayId, me);
+					nodes.put(node.id, node);
 				}
 			}
-			
-			parser = factory.createXMLStreamReader( new FileInputStream( osmFile));
-		} catch (Exception e) {
-			System.err.println("Error: myOSMMap(...) " + e.toString());
+		} catch (IOException e) {
+			System.out.println("Error: resolveWays: " + e.toString());
+			System.exit(-1);
+		} finally {
+			nodeBuffer.close();
+			nodeBuffer = null;
 		}
 		
-		if (parseXML_status == 0) {
-			parseXML(false);
+		neededNodesIds = new long[0];
+		nrOfNeededNodesIds = 0;
+		
+		for (int k = 0; k < parsedWays.size(); k++) {
+			myOSMWay way = parsedWays.get(k);
+			long[] nodeIds = parsedWayNodeIds.get(k);
 			
-			try {
-				parser = factory.createXMLStreamReader( new FileInputStream( osmFile));
-			} catch (Exception e) {
-				System.err.println("Error: " + e.toString());
+			way.refs = new myOSMNode[nodeIds.length];
+			
+			for (int i = 0; i < nodeIds.length; i++) {
+				myOSMNode n = this.nodes.get(nodeIds[i]);
+				
+				if (n == null) {
+					System.out.println("Error: n == null: addWay");
+					System.exit(-1);
+				} else {
+					way.refs[i] = n;
+				}
 			}
 			
-			parseXML_status = 1;
+			way.map = this;
 		}
 		
-		nodeIdsOfWay.clear();
-		isBuildingWay = false;
+		parsedWayNodeIds = new Vector<long[]>();
 		
-		parseXML(true);
-
+		buildWays(parsedWays);
+		
+		for (int k = 0; k < parsedWays.size(); k++) {
+			this.ways.put(this.ways.size(), parsedWays.get(k));
+		}
+		
+		parsedWays = new Vector<myOSMWay>();
+	}
+	
+	/*
+	 * create wayParts of all ways: x/y of nodes and wayParts (length, edge)
+	 * of each way are computed in parallel; nodes are connected to the
+	 * wayParts afterwards by the road graph (setWayPartIDs)
+	 */
+	private void buildWays(final Vector<myOSMWay> buildWays) {
+		setXYOfNodes();
+		
+		new myParallelLoop() {
+			public void run(int i) {
+				buildWays.get(i).createWayParts();
+			}
+		}.execute(buildWays.size());
+	}
+	
+	/*
+	 * set x/y of all nodes (in parallel)
+	 */
+	private void setXYOfNodes() {
+		new myParallelLoop() {
+			public void run(int i) {
+				nodes.getNode(i).setXY();
+			}
+		}.execute(nodes.size());
 	}
 
 	/*
 	 * return dataset (upstream) nearest to Timestamp
 	 */
 	public myDataset getDatasetUp (long Timestamp) {
-		for (int i = 0; i < DatasetsUp.size(); i++) {
-			if (Timestamp <= DatasetsUp.get(i).getTimestamp()) {
-				return DatasetsUp.get(i);
-			}
-		}
-		return null;
+		int i = DatasetsUp.getIndexOfFirstAtOrAfter(Timestamp);
+		return (i == -1) ? null : DatasetsUp.get(i);
 	}
 
 	/*
 	 * return dataset (downstream) nearest to Timestamp
 	 */
 	public myDataset getDatasetDown (long Timestamp) {
-		for (int i = 0; i < DatasetsDown.size(); i++) {
-			if (Timestamp <= DatasetsDown.get(i).getTimestamp()) {
-				return DatasetsDown.get(i);
+		int i = DatasetsDown.getIndexOfFirstAtOrAfter(Timestamp);
+		return (i == -1) ? null : DatasetsDown.get(i);
+	}
+	
+	/*
+	 * return spatial index of all wayParts (k nearest / within radius)
+	 */
+	public synchronized myWayPartIndex getWayPartIndex() {
+		if (wayPartIndex == null) {
+			wayPartIndex = new myWayPartIndex(this);
+		}
+		return wayPartIndex;
+	}
+	
+	/*
+	 * number wayParts in order of ways and WayParts (dense IDs) and build
+	 * road graph, the map is not changed after this; matching state is kept
+	 * in myMatchState
+	 */
+	private void setWayPartIDs() {
+		wayPartsByID = new myOSMWayPart[getNrOfAllWayParts()];
+		
+		int id = 0;
+		for (int i = 0; i < ways.size(); i++) {
+			myOSMWay w = ways.get(i);
+			
+			for (int k = 0; k < w.WayParts.length; k++) {
+				w.WayParts[k].ObjID = id;
+				wayPartsByID[id] = w.WayParts[k];
+				id++;
 			}
 		}
-		return null;
+		
+		roadGraph = new myRoadGraph(nodes, wayPartsByID);
+	}
+	
+	/*
+	 * return outgoing / incoming wayParts of all nodes
+	 */
+	public myRoadGraph getRoadGraph() {
+		return roadGraph;
+	}
+	
+	/*
+	 * return wayPart with given ID (myOSMWayPart.ObjID)
+	 */
+	public myOSMWayPart getWayPart(int ID) {
+		return wayPartsByID[ID];
+	}
+	
+	/*
+	 * return number of wayPart IDs (0 ... n - 1)
+	 */
+	public int getNrOfWayPartIDs() {
+		return wayPartsByID.length;
 	}
 	
 	public int getNrOfAllWayParts() {
@@ -203,12 +480,6 @@ public class myOSMMap {
 	}
 
 
-	public void removeUnusedNotesAndWaysAndSetWayParts() {
-		for(int i = (ways.size() - 1); i >= 0 ; i--) {
-			ways.get(i).setXYOfNotes();
-		}
-	}
-
 	
 	/**
 	 * Parses the XML file to a dynamic osmData Datastructure
@@ -319,6 +590,92 @@ public class myOSMMap {
 		return true;
 	}
 
+	/**
+	 * Parses the PBF file to a dynamic osmData Datastructure, nodes and ways are
+	 * handled like the elements of the XML file
+	 * @return true if no error
+	 */
+	private boolean parsePBF(boolean showOsmInfo) {
+		anzahl_ways = 0;
+		anzahl_ways_Building = 0;
+		anzahl_ways_Car = 0;
+		
+		long index_loop = 0;
+		
+		myPBFReader reader = null;
+		
+		try {
+			reader = new myPBFReader(osmFile);
+			
+			osmVersion = "0.6";
+			osmGenerator = reader.writingProgram;
+			if (showOsmInfo) {
+				System.out.println("Parsing "+osmFile.getName()+"...\nOSM-Version: "+osmVersion+"\nGenerator: "+osmGenerator);
+			}
+			
+			if (reader.hasBoundingBox) {
+				osmMinLat = reader.minLat;
+				osmMaxLat = reader.maxLat;
+				osmMinLon = reader.minLon;
+				osmMaxLon = reader.maxLon;
+				
+				if (showOsmInfo) {
+					System.out.println("OSM-file boundary min(Lat/Lon),max(Lat/Lon) : ("+
+							osmMinLat+", "+osmMinLon+"),("+osmMaxLat+", "+osmMaxLon+")");
+				}
+			}
+			
+			myPBFReader.Block block;
+			
+			while ((block = reader.nextBlock()) != null) {
+				
+				for (int i = 0; i < block.nrOfNodes; i++) {
+					bufferNode(block.nodeIds[i], block.nodeLats[i], block.nodeLons[i]);
+					count_nodes++;
+				}
+				
+				for (int w = 0; w < block.nrOfWays; w++) {
+					tempWay = new myOSMWay(this);
+					nrOfNodeIdsOfWay = 0;
+					this.isBuildingWay = false;
+					
+					tempWay.id = block.wayIds[w];
+					
+					for (int r = block.wayRefStart[w]; r < block.wayRefStart[w + 1]; r++) {
+						if (nrOfNodeIdsOfWay == nodeIdsOfWay.length) {
+							nodeIdsOfWay = Arrays.copyOf(nodeIdsOfWay, nodeIdsOfWay.length * 2);
+						}
+						nodeIdsOfWay[nrOfNodeIdsOfWay++] = block.wayRefs[r];
+					}
+					
+					for (int t = block.wayTagStart[w]; t < block.wayTagStart[w + 1]; t++) {
+						lastkey = block.wayTagKeys[t];
+						tagValueHandler(block.wayTagVals[t]);
+					}
+					
+					if (tempWay.wayNotNeeded == false) {
+						addWay();
+					}
+				}
+				
+				long n = index_loop + block.nrOfNodes + block.nrOfWays;
+				if ((n / 1000000) > (index_loop / 1000000)) {
+					System.out.print((new GregorianCalendar()).getTime().toString() + " | " + n);
+					System.out.println( " | nodes: " + count_nodes + " | ways: " + anzahl_ways + " | w-building: " + anzahl_ways_Building + " | w-cars: " + anzahl_ways_Car );
+				}
+				index_loop = n;
+			}
+		} catch (IOException e) {
+			System.err.println("Error parsing PBF File: \n" + e.toString() + "\n" + index_loop);
+			return false;
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Handles OSM Nodes
 	 */
@@ -329,22 +686,44 @@ public class myOSMMap {
 		//read node data
 		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
 	    	  if (parser.getAttributeLocalName(i)=="id")
-	    		  node.id = Long.valueOf(parser.getAttributeValue(i));
+	    		  node.id = Long.parseLong(parser.getAttributeValue(i));
 	    	  else if (parser.getAttributeLocalName(i)=="lat")
-	    		  node.lat = Double.valueOf(parser.getAttributeValue(i)).doubleValue();
+	    		  node.lat = Double.parseDouble(parser.getAttributeValue(i));
 	    	  else if (parser.getAttributeLocalName(i)=="lon")
-	    		  node.lon = Double.valueOf(parser.getAttributeValue(i)).doubleValue();
+	    		  node.lon = Double.parseDouble(parser.getAttributeValue(i));
 	    }
 
-		if (this.parseXML_status == 1) {
-			if (this.neededNodesIds.contains(node.id)) {
-				nodes.put(node.id, node);
-			}
-		} else if (this.parseXML_status == 3) {
-			nodes.put(node.id, node);
+		try {
+			bufferNode(node.id, node.lat, node.lon);
+		} catch (IOException e) {
+			System.out.println("Error: nodeHandler: " + e.toString());
+			System.exit(-1);
 		}
 		count_nodes++;
 	}
+	
+	/*
+	 * keep node until ways are parsed, nodes outside clipNodeBox are dropped
+	 */
+	private void bufferNode(long id, double lat, double lon) throws IOException {
+		if (clipBox == null) {
+			nodeBuffer.add(id, lat, lon);
+		} else if (clipNodeBox.contains(lat, lon)) {
+			if (anzahl_ways_Car > 0) {
+				// a way in front of it may use it, but was already clipped
+				throw new IOException("clipped map needs nodes in front of ways, node " + id + " follows a way");
+			}
+			
+			myOSMNode node = new myOSMNode();
+			
+			node.id = id;
+			node.lat = lat;
+			node.lon = lon;
+			
+			clipNodes.put(id, node);
+			nodeBuffer.add(id, lat, lon);
+		}
+	}
 
 	/**
 	 * Handles OSM ways
@@ -352,7 +731,7 @@ public class myOSMMap {
 	public void wayHandler() {
 
 		tempWay = new myOSMWay(this);
-		nodeIdsOfWay.clear();
+		nrOfNodeIdsOfWay = 0;
 		this.isBuildingWay = false;
 
   	  	//now we check all Attributes of the way element
@@ -375,8 +754,10 @@ public class myOSMMap {
 		//safe all nodes that belongs to a way
 		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
 			if (parser.getAttributeLocalName(i)=="ref") {
-				long l = Long.valueOf(parser.getAttributeValue(i));
-				nodeIdsOfWay.put(nodeIdsOfWay.size(),  l);
+				if (nrOfNodeIdsOfWay == nodeIdsOfWay.length) {
+					nodeIdsOfWay = Arrays.copyOf(nodeIdsOfWay, nodeIdsOfWay.length * 2);
+				}
+				nodeIdsOfWay[nrOfNodeIdsOfWay++] = Long.parseLong(parser.getAttributeValue(i));
 			}
 			else  {
 				System.out.println("should never be called: referenceHandler");
@@ -408,46 +789,92 @@ public class myOSMMap {
 				
 				anzahl_ways_Car++;
 
-				if (this.parseXML_status == 0) {
-					for (int i = 0; i < nodeIdsOfWay.size(); i++) {
-						long l = nodeIdsOfWay.get(i);
-						this.neededNodesIds.add(l);
-					}
-				} else if (this.parseXML_status == 1 || this.parseXML_status == 3) {
-					
-					if (nodeIdsOfWay.size() <= 1) {
-						System.out.println("Error: Way has only " + nodeIdsOfWay.size() + " refs");
-						System.exit(-1);
-					}
-					
-					tempWay.refs = new myOSMNode[nodeIdsOfWay.size()];
-
-					for (int i = 0; i < nodeIdsOfWay.size(); i++) {
-						long nodeID = nodeIdsOfWay.get(i);
-						
-						myOSMNode n = this.nodes.get(nodeID);
-						
-						if (n == null) {
-							System.out.println("Error: n == null: addWay");
-							System.exit(-1);
-						} else {
-							tempWay.refs[i] = n;
-						}
-					}
-					
-					tempWay.setWayParts();
-					tempWay.map = this;
-					this.ways.put(this.ways.size(), tempWay);
+				if (nrOfNodeIdsOfWay <= 1) {
+					System.out.println("Error: Way has only " + nrOfNodeIdsOfWay + " refs");
+					System.exit(-1);
+				}
+				
+				if (clipBox == null) {
+					addParsedWay(tempWay, 0, nrOfNodeIdsOfWay);
+				} else {
+					addClippedWay();
 				}
 			}
 		}
 
 		tempWay = new myOSMWay(this);
 		this.isBuildingWay = false;
-		this.nodeIdsOfWay.clear();
+		this.nrOfNodeIdsOfWay = 0;
 		
 	}
 
+	/*
+	 * keep way with nodeIdsOfWay[start ... end - 1], nodes are set in resolveWays
+	 */
+	private void addParsedWay(myOSMWay way, int start, int end) {
+		for (int i = start; i < end; i++) {
+			addNeededNodeId(nodeIdsOfWay[i]);
+		}
+		
+		parsedWays.add(way);
+		parsedWayNodeIds.add(Arrays.copyOfRange(nodeIdsOfWay, start, end));
+	}
+	
+	/*
+	 * keep parts of tempWay made of consecutive segments crossing clipBox
+	 */
+	private void addClippedWay() {
+		boolean firstPart = true;
+		int start = 0;
+		
+		for (int i = 0; i < nrOfNodeIdsOfWay; i++) {
+			if (i < nrOfNodeIdsOfWay - 1 && isClippedSegment(nodeIdsOfWay[i], nodeIdsOfWay[i + 1])) {
+				continue;
+			}
+			
+			// segments of nodeIdsOfWay[start ... i] cross the box
+			if (i > start) {
+				addParsedWay(firstPart ? tempWay : copyOfWay(tempWay), start, i + 1);
+				firstPart = false;
+			}
+			
+			start = i + 1;
+		}
+	}
+	
+	/*
+	 * return segment of nodes crosses clipBox, false if a node is not buffered
+	 */
+	private boolean isClippedSegment(long startNodeId, long endNodeId) {
+		myOSMNode startNode = clipNodes.get(startNodeId);
+		myOSMNode endNode = clipNodes.get(endNodeId);
+		
+		if (startNode == null || endNode == null) {
+			return false;
+		}
+		
+		return clipBox.intersects(startNode.lat, startNode.lon, endNode.lat, endNode.lon);
+	}
+	
+	/*
+	 * return new way with id and tags of way
+	 */
+	private myOSMWay copyOfWay(myOSMWay way) {
+		myOSMWay copy = new myOSMWay(this);
+		
+		copy.id = way.id;
+		copy.name = way.name;
+		copy.onyWay = way.onyWay;
+		copy.lanes = way.lanes;
+		copy.motorcar = way.motorcar;
+		copy.highway = way.highway;
+		copy.maxSpeed = way.maxSpeed;
+		copy.meansOfTransport = way.meansOfTransport;
+		copy.carPermission = way.carPermission;
+		
+		return copy;
+	}
+
 	/**
 	 * Handler for XML tags
 	 */
@@ -460,50 +887,7 @@ public class myOSMMap {
   		  		lastkey = parser.getAttributeValue(i);
   		  	}
   		  	else if (parser.getAttributeLocalName(i).equals("v")){
-  		  		if (lastkey.equals("created_by") || lastkey.equals("visible")) {
-  		  			//ignore
-  		  			lastkey="";
-  		  		}	
-  		  		else if (lastkey.equals("highway")){
-  		  			tempWay.highway = parser.getAttributeValue(i);
-  		  			if (tempWay.highway.equals("service")) {
-  		  				//System.out.println("Service route, way id="+id);
-  		  				tempWay.wayNotNeeded = true;	//we don't need this way
-  		  			}
-  		  		}
-  		  		else if (lastkey.equals("motorcar")) {
-		  			tempWay.motorcar = parser.getAttributeValue(i);
-		  		}
-  		  		else if (lastkey.equals("building")) {
-  		  			if (parser.getAttributeValue(i).equals("yes")) {
-  		  				this.isBuildingWay = true;
-  		  			}
-  		  		}
-  		  		else if (lastkey.equals("oneway")) {
-  		  			String s = parser.getAttributeValue(i);
-  		  			
-  		  			if (s.equals("yes") || s.equals("-1")) {
-  		  				tempWay.onyWay = true;
-  		  			} else {
-  		  				tempWay.onyWay = Boolean.valueOf(s);
-  		  			}
-  		  		}
-  		  		else if (lastkey.equals("lanes")){
-  		  			try {
-  	  		  			tempWay.lanes = Integer.parseInt( parser.getAttributeValue(i).split(";")[0] );  		  				
-  		  			} catch (NumberFormatException e) {
-  		  				tempWay.lanes = 1;
-  		  			}
-  		  		}
-  		  		else if (lastkey.equals("name")){
-  		  			tempWay.name = parser.getAttributeValue(i);
-  		  		}
-  		  		else if (lastkey.equals("railway") && parser.getAttributeValue(i).equals("tram")){
-  		  			tempWay.meansOfTransport |= myOSMWay.TRAM;
-  		  		}
-  		  		else if (lastkey.equals("area") && parser.getAttributeValue(i).equals("yes")) {
-  		  			tempWay.wayNotNeeded = true;
-		  		}
+  		  		tagValueHandler(parser.getAttributeValue(i));
   		  	}
 	    	else {
 				System.out.println("should never be called: tagHandler");
@@ -511,6 +895,56 @@ public class myOSMMap {
 		}
 	}
 	
+	/**
+	 * Handler for value of a tag, key is lastkey
+	 */
+	private void tagValueHandler(String value) {
+		if (lastkey.equals("created_by") || lastkey.equals("visible")) {
+			//ignore
+			lastkey="";
+		}
+		else if (lastkey.equals("highway")){
+			tempWay.highway = value;
+			if (tempWay.highway.equals("service")) {
+				//System.out.println("Service route, way id="+id);
+				tempWay.wayNotNeeded = true;	//we don't need this way
+			}
+		}
+		else if (lastkey.equals("motorcar")) {
+			tempWay.motorcar = value;
+		}
+		else if (lastkey.equals("building")) {
+			if (value.equals("yes")) {
+				this.isBuildingWay = true;
+			}
+		}
+		else if (lastkey.equals("oneway")) {
+			String s = value;
+			
+			if (s.equals("yes") || s.equals("-1")) {
+				tempWay.onyWay = true;
+			} else {
+				tempWay.onyWay = Boolean.valueOf(s);
+			}
+		}
+		else if (lastkey.equals("lanes")){
+			try {
+				tempWay.lanes = Integer.parseInt( value.split(";")[0] );
+			} catch (NumberFormatException e) {
+				tempWay.lanes = 1;
+			}
+		}
+		else if (lastkey.equals("name")){
+			tempWay.name = value;
+		}
+		else if (lastkey.equals("railway") && value.equals("tram")){
+			tempWay.meansOfTransport |= myOSMWay.TRAM;
+		}
+		else if (lastkey.equals("area") && value.equals("yes")) {
+			tempWay.wayNotNeeded = true;
+		}
+	}
+	
 	/**
 	 * Handles OSM tag 
 	 */
@@ -1,8 +1,7 @@
 package myClasses;
 
-import java.awt.geom.Point2D;
 import java.util.Vector;
-import cartesian.Coordinates;
+import cartesian.MercatorProjection;
 
 public class myOSMNode {
 
@@ -14,9 +13,9 @@ public class myOSMNode {
 	public double x = -1;
 	public double y = -1;
 	
-	private Vector<myOSMWayPart> WayPartsOutgoing = new Vector<myOSMWayPart>(2, 2);
-
-	private Vector<myOSMWayPart> WayPartsIncoming = new Vector<myOSMWayPart>(2, 2);
+	// index in road graph of map, outgoing / incoming wayParts are kept there
+	int index = -1;
+	myRoadGraph graph = null;
 	
 	public myOSMNode() {}
 	
@@ -29,32 +28,39 @@ public class myOSMNode {
 	
 	public void setXY() {
 		if (lon != -1 && lat != -1) {
-			Point2D p = Coordinates.getCartesianXY(lon, lat);
-			x = p.getX();
-			y = p.getY();			
+			x = MercatorProjection.getX(lon);
+			y = MercatorProjection.getY(lat);
 		}
 	}
 	
-	public void WayPartsOutgoing_add(myOSMWayPart wp) {
-		WayPartsOutgoing.add(wp);
-		
-		wp.endNode.WayPartsIncoming.add(wp);
-	}
-
 	public int WayPartsOutgoing_size() {
-		 return WayPartsOutgoing.size();
+		if (graph == null) {
+			return 0;
+		}
+		return graph.outgoingEnd(this) - graph.outgoingBegin(this);
 	}
 
 	public myOSMWayPart WayPartsOutgoing_get(int index) {
-		 return WayPartsOutgoing.get(index);
+		 return graph.getOutgoing(graph.outgoingBegin(this) + index);
+	}
+	
+	public int WayPartsIncoming_size() {
+		if (graph == null) {
+			return 0;
+		}
+		return graph.incomingEnd(this) - graph.incomingBegin(this);
+	}
+
+	public myOSMWayPart WayPartsIncoming_get(int index) {
+		 return graph.getIncoming(graph.incomingBegin(this) + index);
 	}
 	
 	public boolean WayPartsOutgoing_contains(myOSMWayPart wp) {
-		 return WayPartsOutgoing.contains(wp);
+		 return graph != null && graph.isOutgoing(this, wp);
 	}
 
 	public boolean WayPartsIncoming_contains(myOSMWayPart wp) {
-		 return this.WayPartsIncoming.contains(wp);
+		 return graph != null && graph.isIncoming(this, wp);
 	}
 
 	/*
@@ -62,10 +68,11 @@ public class myOSMNode {
 	 */
     public Vector<myOSMWayPart> getOutgoingWayPartExceptNotTo(myOSMNode excludedNode) {
     	// container for street links
-    	Vector<myOSMWayPart> linkContainer = new Vector<>(this.WayPartsOutgoing.size());
+    	Vector<myOSMWayPart> linkContainer = new Vector<>(WayPartsOutgoing_size());
     	
     	// add all outgoing links except given one
-    	for (myOSMWayPart link : this.WayPartsOutgoing) {
+    	for (int i = 0; i < WayPartsOutgoing_size(); i++) {
+    		myOSMWayPart link = WayPartsOutgoing_get(i);
     		if (link.endNode != excludedNode) {
     			linkContainer.add(link);
     		}
@@ -80,10 +87,11 @@ public class myOSMNode {
 	 */
     public Vector<myOSMWayPart> getIncomingWayPartExceptNotFrom(myOSMNode excludedNode) {
     	// container for street links
-    	Vector<myOSMWayPart> linkContainer = new Vector<>(this.WayPartsIncoming.size());
+    	Vector<myOSMWayPart> linkContainer = new Vector<>(WayPartsIncoming_size());
     	
     	// add all outgoing links except given one
-    	for (myOSMWayPart link : this.WayPartsIncoming) {
+    	for (int i = 0; i < WayPartsIncoming_size(); i++) {
+    		myOSMWayPart link = WayPartsIncoming_get(i);
     		if (link.startNode != excludedNode) {
     			linkContainer.add(link);
     		}
@@ -98,10 +106,11 @@ public class myOSMNode {
 	 */
     public Vector<myOSMWayPart> getOutgoingWayPartExcept(myOSMWayPart excludedLink) {
     	// container for street links
-    	Vector<myOSMWayPart> linkContainer = new Vector<>(this.WayPartsOutgoing.size());
+    	Vector<myOSMWayPart> linkContainer = new Vector<>(WayPartsOutgoing_size());
     	
     	// add all outgoing links except given one
-    	for (myOSMWayPart link : this.WayPartsOutgoing) {
+    	for (int i = 0; i < WayPartsOutgoing_size(); i++) {
+    		myOSMWayPart link = WayPartsOutgoing_get(i);
     		if (link != excludedLink) {
     			linkContainer.add(link);
     		}
@@ -116,21 +125,12 @@ public class myOSMNode {
      */
     public Vector<myOSMWayPart> getLinks(){
     	//return all links belongs to this node
-    	return this.WayPartsOutgoing;
-    }
-    
-    /*
-     * add outgoing wayPart
-     */
-    public void addLink(myOSMWayPart link){
-    	this.WayPartsOutgoing.add(link);
-    }
-    
-    /*
-     * remove outgoing wayPart
-     */
-    public void removeLink(myOSMWayPart streetLink) {
-    	WayPartsOutgoing.remove(streetLink);
-    	System.out.println("Error: myOSMNode: removeLink(myOSMWayPart link)");
+    	Vector<myOSMWayPart> linkContainer = new Vector<>(WayPartsOutgoing_size());
+    	
+    	for (int i = 0; i < WayPartsOutgoing_size(); i++) {
+    		linkContainer.add(WayPartsOutgoing_get(i));
+    	}
+    	
+    	return linkContainer;
     }
 }
@@ -68,36 +68,34 @@ public class myOSMWay {
 	 * set and create WayParts from refs (ref-Tag from OSM XML)
 	 */
 	public void setWayParts() {
+		setXYOfNotes();
+		createWayParts();
+	}
+	
+	/*
+	 * create WayParts from refs, x/y of refs have to be set. Only this way
+	 * and its WayParts are changed, so ways can be created in parallel.
+	 */
+	public void createWayParts() {
+
+		int n = refs.length - 1;
 
 		if (onyWay == false) {
-			WayParts = new myOSMWayPart[(refs.length - 1) * 2];
+			WayParts = new myOSMWayPart[n * 2];
 		} else {
-			WayParts = new myOSMWayPart[(refs.length - 1)];
+			WayParts = new myOSMWayPart[n];
 		}
 
-		WayPartsHin = new myOSMWayPart[(refs.length - 1)];
+		WayPartsHin = new myOSMWayPart[n];
 		if (onyWay == false) {
-			WayPartsRueck = new myOSMWayPart[(refs.length - 1)];			
+			WayPartsRueck = new myOSMWayPart[n];			
 		}
 		
 		int k;
-		for (k = 0; k < (refs.length - 1); k++) {
+		for (k = 0; k < n; k++) {
 			myOSMWayPart wp = new myOSMWayPart(refs[k], refs[k+1], this, k, false);
 
 			WayParts[k] =  wp;
-
-			if (WayParts[k].startNode.x < minX) {
-				minX = WayParts[k].startNode.x;
-			} else if (maxX < WayParts[k].startNode.x) {
-				maxX = WayParts[k].startNode.x;
-			}
-
-			if (WayParts[k].startNode.y < minY) {
-				minY = WayParts[k].startNode.y;
-			} else if (maxY < WayParts[k].startNode.y) {
-				maxY = WayParts[k].startNode.y;
-			}
-			
 			WayPartsHin[k] = wp;
 		}
 		
@@ -110,51 +108,39 @@ public class myOSMWay {
 			}
 		}
 
-		k = (refs.length - 1);
-		if (k > 0) {
-			k--;
-
-			if (WayParts[k].endNode.x < minX) {
-				minX = WayParts[k].endNode.x;
-			} else if (maxX < WayParts[k].endNode.x) {
-				maxX = WayParts[k].endNode.x;
-			}
-			
-			if (WayParts[k].endNode.y < minY) {
-				minY = WayParts[k].endNode.y;
-			} else if (maxY < WayParts[k].endNode.y) {
-				maxY = WayParts[k].endNode.y;
+		// bounding box of all nodes
+		if (n > 0) {
+			for (k = 0; k < refs.length; k++) {
+				if (refs[k].x < minX) {
+					minX = refs[k].x;
+				}
+				if (maxX < refs[k].x) {
+					maxX = refs[k].x;
+				}
+				
+				if (refs[k].y < minY) {
+					minY = refs[k].y;
+				}
+				if (maxY < refs[k].y) {
+					maxY = refs[k].y;
+				}
 			}
-
-			k++;
 		}
 
+		// back direction: wayPart j goes from refs[i] to refs[i-1] (i = n - j),
+		// its partner is WayPartsHin[i-1]
 		if (onyWay == false) {
-			for (k = 0; k < (WayPartsHin.length); k++) {
-				WayPartsRueck[k] = WayPartsHin[WayPartsHin.length - 1 - k];
-			}
-		}
-		
-		int j = 0;
-		if (onyWay == false) {
-			for (int i = (refs.length - 1); i >=1 ; i--) {
+			k = n;
+			for (int j = 0; j < n; j++) {
+				int i = n - j;
 				myOSMWayPart wp = new myOSMWayPart(refs[i], refs[i-1], this, j, true);
 				
 				WayPartsRueck[j] = wp;
-				
-				j++;
 				WayParts[k] = wp;
 				k++;
 				
-				for (int a = 0; a < WayPartsHin.length; a++) {
-					
-					if (wp.startNode == WayPartsHin[a].endNode && wp.endNode == WayPartsHin[a].startNode) {
-						
-						wp.WayPartBackDirektion = WayPartsHin[a];
-						WayPartsHin[a].WayPartBackDirektion = wp;
-						
-					}
-				}
+				wp.WayPartBackDirektion = WayPartsHin[i - 1];
+				WayPartsHin[i - 1].WayPartBackDirektion = wp;
 			}
 		}
 	
@@ -1,10 +1,6 @@
 package myClasses;
 
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Vector;
 import cartesian.Coordinates;
-import algorithm.MatchedRange;
 
 
 public class myOSMWayPart {
@@ -14,8 +10,8 @@ public class myOSMWayPart {
 	public static final int END_NODE = 2;
 	public static final int BOTH_NODE = 3;
 
-	private static int runID = 0;
-
+	// dense ID in map (0 ... number of wayParts - 1), set by myOSMMap after
+	// loading; -1 for artificial wayParts
 	public int ObjID = -1;
 	public long xid = -1;
 	public long xmyid = -1;
@@ -26,10 +22,6 @@ public class myOSMWayPart {
 	public int parentWayStepNr = -1;
 	public boolean isBackDirection = false;
 
-	private Vector<MatchedRange> matchedRanges;
-
-	private int selectedCounter;
-
 	private boolean artificial = false; 
 
 	public final static long NO_ID = -1;
@@ -48,12 +40,14 @@ public class myOSMWayPart {
 
 	public myOSMWayPart WayPartBackDirektion = null;
 
-	public int CountMatchedGPSNodes = 0;
-
 	public myOSMWayPart(myOSMNode n1, myOSMNode n2, long myid, long startNodeId, long endNodeId) {
 		this(n1, n2, NO_ID, false, myid, startNodeId, endNodeId);
 	}
 
+	/*
+	 * wayPart of a way, x/y of nodes have to be set; the nodes know it after
+	 * the road graph of the map is built
+	 */
 	public myOSMWayPart(myOSMNode n1, myOSMNode n2, myOSMWay way, int StepNr,
 			boolean BackDirection) {
 
@@ -63,22 +57,36 @@ public class myOSMWayPart {
 		parentWayStepNr = StepNr;
 		isBackDirection = BackDirection;
 
-		ObjID = runID;
-		runID++;
-
-		selectedCounter = 0;
+		length = Coordinates.getDistance(startNode, endNode);
+	}
 
-		startNode.WayPartsOutgoing_add(this);
+	/*
+	 * wayPart restored from a map snapshot, x/y of nodes and length are already known
+	 */
+	myOSMWayPart(myOSMNode n1, myOSMNode n2, myOSMWay way, int StepNr,
+			boolean BackDirection, double length) {
 
-		startNode.setXY();
-		endNode.setXY();
+		startNode = n1;
+		endNode = n2;
+		parentWay = way;
+		parentWayStepNr = StepNr;
+		isBackDirection = BackDirection;
 
-		length = Coordinates.getDistance(startNode, endNode);
+		this.length = length;
 	}
 
+	/*
+	 * wayPart not added to the map, nodes don't reference it
+	 */
 	public myOSMWayPart(myOSMNode n1, myOSMNode n2, long id, boolean artificial, long myid, long startNodeId, long endNodeId) {
 
-		this(n1, n2, null, -1, false);
+		startNode = n1;
+		endNode = n2;
+
+		startNode.setXY();
+		endNode.setXY();
+
+		length = Coordinates.getDistance(startNode, endNode);
 
 		// set artificial flag
 		this.artificial = artificial;
@@ -86,9 +94,6 @@ public class myOSMWayPart {
 		// set id
 		this.xid = id;
 		this.xmyid = myid;
-
-		// set selected counter
-		selectedCounter = 0;
 	}
 
 	public myOSMWayPart(myOSMNode n1, myOSMNode n2, boolean artificial, long myid, long startNodeId, long endNodeId) {
@@ -107,27 +112,18 @@ public class myOSMWayPart {
 	 */
 	public void setEdge() {
 
-		Map<Integer, myEdge> edges = this.parentWay.map.edges.get(this.parentWay.id);
+		myEdgeIndex edges = this.parentWay.map.edges;
 
 		this.edge = null;
 
-		if (edges == null) {
+		if (edges.containsWay(this.parentWay.id) == false) {
 
 			System.out.println("Error: setEdge(): no net-edges for "
 					+ this.parentWay.id);
 
 		} else {
 
-			for (int i = 0; i < edges.size(); i++) {
-
-				myEdge edge = edges.get(i);
-
-				if (this.startNode.id == edge.startNode
-						&& this.endNode.id == edge.endNode) {
-					this.edge = edge;
-				}
-
-			}
+			this.edge = edges.get(this.parentWay.id, this.startNode.id, this.endNode.id);
 
 			if (this.edge == null) {
 				System.out.println("Error: setEdge(): no net-edge for "
@@ -138,6 +134,13 @@ public class myOSMWayPart {
 
 	}
 
+	/*
+	 * return road graph of map, null for wayParts which are not part of a map
+	 */
+	public myRoadGraph getRoadGraph() {
+		return (ObjID >= 0) ? startNode.graph : null;
+	}
+
 	public myOSMNode getStartNode() {
 		return startNode;
 	}
@@ -198,192 +201,10 @@ public class myOSMWayPart {
 		return NO_CONNECTION;
 	}
 
-	public void increaseSelectCounter() {
-		++selectedCounter;
-	}
-
-	public void decreaseSelectCounter() {
-		if (selectedCounter > 0)
-			--selectedCounter;
-	}
-
-	public int getSelectCounter() {
-		return selectedCounter;
-	}
-
-	public void resetSelectCounter() {
-		selectedCounter = 0;
-	}
-
 	public boolean isArtificial() {
 		return artificial;
 	}
 
-	// ///////////// Matched Ranges /////////////////////////////////////
-	/**
-	 * add range, which can be matched to this link
-	 * 
-	 * @param start
-	 * @param end
-	 * @param matched
-	 */
-	public void addMatchedRange(int start, int end, boolean matched) {
-		matchedRanges.add(new MatchedRange(start, end, matched));
-	}
-
-	/**
-	 * edit last added range
-	 * 
-	 * @param start
-	 * @param end
-	 * @return there was a last range
-	 */
-	public boolean setLastMatchedRange(int start, int end) {
-		if (!matchedRanges.isEmpty()) {
-			matchedRanges.lastElement().setRangeStartIndex(start);
-			matchedRanges.lastElement().setRangeEndIndex(end);
-			return true;
-		}
-
-		return false;
-	}
-
-	/**
-	 * edit last added range
-	 * 
-	 * @param start
-	 * @param end
-	 * @param matched
-	 * @return there was a last range
-	 */
-	public boolean setLastMatchedRange(int start, int end, boolean matched) {
-		if (!matchedRanges.isEmpty()) {
-			matchedRanges.lastElement().setRangeStartIndex(start);
-			matchedRanges.lastElement().setRangeEndIndex(end);
-			matchedRanges.lastElement().setMatched(matched);
-			return true;
-		}
-
-		return false;
-	}
-
-	/**
-	 * set start index of last added range
-	 * 
-	 * @param start
-	 * @return there was a last range
-	 */
-	public boolean setLastMatchedRangeStart(int start) {
-		if (!matchedRanges.isEmpty()) {
-			matchedRanges.lastElement().setRangeStartIndex(start);
-			return true;
-		}
-
-		return false;
-	}
-
-	/**
-	 * set end index of last added range
-	 * 
-	 * @param end
-	 * @return there was a last range
-	 */
-	public boolean setLastMatchedRangeEnd(int end) {
-		if (!matchedRanges.isEmpty()) {
-			matchedRanges.lastElement().setRangeEndIndex(end);
-			return true;
-		}
-
-		return false;
-	}
-
-	/**
-	 * set matched state of last added range
-	 * 
-	 * @param matched
-	 * @return there was a last range
-	 */
-	public boolean setLastMatched(boolean matched) {
-		if (!matchedRanges.isEmpty()) {
-			matchedRanges.lastElement().setMatched(matched);
-			return true;
-		}
-
-		return false;
-	}
-
-	/**
-	 * get matched state of last added range
-	 * 
-	 * @return
-	 */
-	public boolean isLastMatched() {
-		if (!matchedRanges.isEmpty()) {
-			return matchedRanges.lastElement().getMatched();
-		}
-		return false;
-	}
-
-	/**
-	 * get last added range
-	 * 
-	 * @return MatchedRange or null if there is no MatchedRange left
-	 */
-	public MatchedRange getLastMatchedRange() {
-		try {
-			return matchedRanges.lastElement();
-		} catch (NoSuchElementException e) {
-			System.out.println("No last matched Range!");
-		}
-
-		return null;
-	}
-
-	/**
-	 * return start index of last added range
-	 * 
-	 * @return
-	 */
-	public int getLastMatchedRangeStart() {
-		if (!matchedRanges.isEmpty())
-			return matchedRanges.lastElement().getRangeStartIndex();
-		else
-			return -1;
-	}
-
-	/**
-	 * return end index of last added range
-	 * 
-	 * @return
-	 */
-	public int getLastMatchedRangeEnd() {
-		if (!matchedRanges.isEmpty())
-			return matchedRanges.lastElement().getRangeEndIndex();
-		else
-			return -1;
-	}
-
-	/**
-	 * remove last added range if possible
-	 * 
-	 * @return there was a range which could be removed
-	 */
-	public boolean removeLastMatchedRange() {
-		if (!matchedRanges.isEmpty()) {
-			matchedRanges.remove(matchedRanges.size() - 1);
-			return true;
-		}
-
-		return false;
-	}
-
-	/**
-	 * remove all ranges from link
-	 */
-	public void resetMatchedRanges() {
-		matchedRanges.clear();
-	}
-
 	public double getLength() {
 		// link as vector with x & y components
 		double vecX = getEndX() - getStartX();
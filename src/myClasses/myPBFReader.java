@@ -0,0 +1,723 @@
+package myClasses;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/*
+ * reader for OpenStreetMap PBF files (*.osm.pbf)
+ *
+ * the file is a sequence of blobs: [length of BlobHeader][BlobHeader][Blob].
+ * The first blob is the OSMHeader (bounding box, writing program), all
+ * following are OSMData blocks. Blobs are read in order of the file by the
+ * calling thread; inflating (java.util.zip.Inflater) and decoding is done by a
+ * pool of worker threads. nextBlock() returns the decoded blocks in order of
+ * the file.
+ *
+ * only nodes (dense and plain) and ways are decoded, node tags and relations
+ * are skipped. The protocol buffer messages are decoded by hand, see
+ * http://wiki.openstreetmap.org/wiki/PBF_Format
+ */
+public class myPBFReader {
+
+	// limits of the format
+	private static final int MAX_HEADER_SIZE = 64 * 1024;
+	private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+	private static final double NANO = 1000000000.0;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/*
+	 * nodes and ways of one OSMData block
+	 *
+	 * refs of way i are wayRefs[wayRefStart[i] ... wayRefStart[i + 1] - 1],
+	 * tags of way i are wayTagKeys/wayTagVals[wayTagStart[i] ... wayTagStart[i + 1] - 1]
+	 */
+	public static class Block {
+		public int nrOfNodes = 0;
+		public long[] nodeIds = new long[0];
+		public double[] nodeLats = new double[0];
+		public double[] nodeLons = new double[0];
+
+		public int nrOfWays = 0;
+		public long[] wayIds = new long[0];
+		public int[] wayRefStart = new int[1];
+		public long[] wayRefs = new long[0];
+		public int[] wayTagStart = new int[1];
+		public String[] wayTagKeys = new String[0];
+		public String[] wayTagVals = new String[0];
+
+		private int nrOfWayRefs = 0;
+		private int nrOfWayTags = 0;
+
+		private void addNode(long id, double lat, double lon) {
+			if (nrOfNodes == nodeIds.length) {
+				int length = Math.max(1024, nrOfNodes * 2);
+				nodeIds = Arrays.copyOf(nodeIds, length);
+				nodeLats = Arrays.copyOf(nodeLats, length);
+				nodeLons = Arrays.copyOf(nodeLons, length);
+			}
+			nodeIds[nrOfNodes] = id;
+			nodeLats[nrOfNodes] = lat;
+			nodeLons[nrOfNodes] = lon;
+			nrOfNodes++;
+		}
+
+		private void addWayRef(long ref) {
+			if (nrOfWayRefs == wayRefs.length) {
+				wayRefs = Arrays.copyOf(wayRefs, Math.max(1024, nrOfWayRefs * 2));
+			}
+			wayRefs[nrOfWayRefs++] = ref;
+		}
+
+		private void addWayTag(String key, String val) {
+			if (nrOfWayTags == wayTagKeys.length) {
+				int length = Math.max(256, nrOfWayTags * 2);
+				wayTagKeys = Arrays.copyOf(wayTagKeys, length);
+				wayTagVals = Arrays.copyOf(wayTagVals, length);
+			}
+			wayTagKeys[nrOfWayTags] = key;
+			wayTagVals[nrOfWayTags] = val;
+			nrOfWayTags++;
+		}
+
+		/*
+		 * close way with refs and tags added since last call
+		 */
+		private void addWay(long id) {
+			if (nrOfWays + 1 >= wayRefStart.length) {
+				int length = Math.max(256, wayRefStart.length * 2);
+				wayIds = Arrays.copyOf(wayIds, length);
+				wayRefStart = Arrays.copyOf(wayRefStart, length + 1);
+				wayTagStart = Arrays.copyOf(wayTagStart, length + 1);
+			}
+			wayIds[nrOfWays] = id;
+			nrOfWays++;
+			wayRefStart[nrOfWays] = nrOfWayRefs;
+			wayTagStart[nrOfWays] = nrOfWayTags;
+		}
+	}
+
+	/*
+	 * protocol buffer message in a byte array
+	 */
+	private static class Message {
+		byte[] buf;
+		int pos;
+		int end;
+
+		// position and end of last read length delimited field
+		int fieldPos;
+		int fieldEnd;
+
+		Message(byte[] buf, int pos, int end) {
+			this.buf = buf;
+			this.pos = pos;
+			this.end = end;
+		}
+
+		boolean hasNext() {
+			return pos < end;
+		}
+
+		long readVarint() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				if (pos >= end) {
+					throw new IOException("PBF: truncated varint");
+				}
+				byte b = buf[pos++];
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new IOException("PBF: malformed varint");
+		}
+
+		long readSInt64() throws IOException {
+			long value = readVarint();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		/*
+		 * read length delimited field, sets fieldPos and fieldEnd
+		 */
+		void readLengthDelimited() throws IOException {
+			int length = (int) readVarint();
+			if (length < 0 || length > end - pos) {
+				throw new IOException("PBF: field length " + length + " out of message");
+			}
+			fieldPos = pos;
+			fieldEnd = pos + length;
+			pos = fieldEnd;
+		}
+
+		Message readMessage() throws IOException {
+			readLengthDelimited();
+			return new Message(buf, fieldPos, fieldEnd);
+		}
+
+		String readString() throws IOException {
+			readLengthDelimited();
+			return new String(buf, fieldPos, fieldEnd - fieldPos, UTF8);
+		}
+
+		void skip(int wireType) throws IOException {
+			switch (wireType) {
+			case 0:
+				readVarint();
+				break;
+			case 1:
+				pos += 8;
+				break;
+			case 2:
+				readLengthDelimited();
+				break;
+			case 5:
+				pos += 4;
+				break;
+			default:
+				throw new IOException("PBF: unsupported wire type " + wireType);
+			}
+			if (pos > end) {
+				throw new IOException("PBF: field out of message");
+			}
+		}
+	}
+
+	private DataInputStream input;
+
+	// size of the blob, set by readBlobHeader
+	private int blobSize;
+
+	private ExecutorService executor;
+
+	// decoded blocks, in order of file
+	private LinkedList<Future<Block>> pending = new LinkedList<Future<Block>>();
+	private int maxPending;
+
+	private boolean endOfFile = false;
+
+	// OSMHeader
+	public boolean hasBoundingBox = false;
+	public double minLat;
+	public double maxLat;
+	public double minLon;
+	public double maxLon;
+	public String writingProgram = "";
+
+	/**
+	 * open PBF file and read OSMHeader
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public myPBFReader(File file) throws IOException {
+		input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+
+		try {
+			String type = readBlobHeader();
+
+			if (!"OSMHeader".equals(type)) {
+				throw new IOException("PBF: first block is " + type + ", not OSMHeader");
+			}
+
+			readHeaderBlock(decompress(readBytes(blobSize)));
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+
+		int nrOfThreads = Runtime.getRuntime().availableProcessors();
+		maxPending = 2 * nrOfThreads;
+
+		executor = Executors.newFixedThreadPool(nrOfThreads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "myPBFReader");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/*
+	 * read BlobHeader, return type of blob or null at end of file
+	 */
+	private String readBlobHeader() throws IOException {
+		int headerSize;
+
+		try {
+			headerSize = input.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+
+		if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+			throw new IOException("PBF: invalid BlobHeader size " + headerSize);
+		}
+
+		byte[] header = readBytes(headerSize);
+		Message m = new Message(header, 0, header.length);
+
+		String type = null;
+		blobSize = -1;
+
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 2:
+				type = m.readString();
+				break;
+			case (3 << 3) | 0:
+				blobSize = (int) m.readVarint();
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+
+		if (type == null || blobSize < 0 || blobSize > MAX_BLOB_SIZE) {
+			throw new IOException("PBF: invalid BlobHeader (type " + type + ", size " + blobSize + ")");
+		}
+
+		return type;
+	}
+
+	private byte[] readBytes(int size) throws IOException {
+		byte[] bytes = new byte[size];
+		input.readFully(bytes);
+		return bytes;
+	}
+
+	/*
+	 * return uncompressed content of Blob
+	 */
+	private static byte[] decompress(byte[] blob) throws IOException {
+		Message m = new Message(blob, 0, blob.length);
+
+		int rawSize = -1;
+		int dataPos = -1;
+		int dataEnd = -1;
+		boolean zlib = false;
+
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 2:
+				// raw
+				m.readLengthDelimited();
+				return Arrays.copyOfRange(blob, m.fieldPos, m.fieldEnd);
+			case (2 << 3) | 0:
+				rawSize = (int) m.readVarint();
+				break;
+			case (3 << 3) | 2:
+				// zlib_data
+				m.readLengthDelimited();
+				dataPos = m.fieldPos;
+				dataEnd = m.fieldEnd;
+				zlib = true;
+				break;
+			case (4 << 3) | 2:
+			case (5 << 3) | 2:
+			case (6 << 3) | 2:
+			case (7 << 3) | 2:
+				throw new IOException("PBF: unsupported blob compression (field " + (key >>> 3) + "), only raw and zlib are supported");
+			default:
+				m.skip(key & 7);
+			}
+		}
+
+		if (!zlib || rawSize < 0 || rawSize > MAX_BLOB_SIZE) {
+			throw new IOException("PBF: blob without data");
+		}
+
+		byte[] data = new byte[rawSize];
+		Inflater inflater = new Inflater();
+
+		try {
+			inflater.setInput(blob, dataPos, dataEnd - dataPos);
+
+			int n = 0;
+			while (n < rawSize) {
+				int count = inflater.inflate(data, n, rawSize - n);
+				if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				n += count;
+			}
+
+			if (n != rawSize) {
+				throw new IOException("PBF: blob has " + n + " instead of " + rawSize + " bytes");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("PBF: " + e.toString());
+		} finally {
+			inflater.end();
+		}
+
+		return data;
+	}
+
+	/*
+	 * decode HeaderBlock
+	 */
+	private void readHeaderBlock(byte[] data) throws IOException {
+		Message m = new Message(data, 0, data.length);
+
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 2:
+				readHeaderBBox(m.readMessage());
+				break;
+			case (4 << 3) | 2:
+				String feature = m.readString();
+				if (!feature.equals("OsmSchema-V0.6") && !feature.equals("DenseNodes")) {
+					throw new IOException("PBF: required feature " + feature + " is not supported");
+				}
+				break;
+			case (16 << 3) | 2:
+				writingProgram = m.readString();
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+	}
+
+	private void readHeaderBBox(Message m) throws IOException {
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 0:
+				minLon = m.readSInt64() / NANO;
+				break;
+			case (2 << 3) | 0:
+				maxLon = m.readSInt64() / NANO;
+				break;
+			case (3 << 3) | 0:
+				maxLat = m.readSInt64() / NANO;
+				break;
+			case (4 << 3) | 0:
+				minLat = m.readSInt64() / NANO;
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+		hasBoundingBox = true;
+	}
+
+	/**
+	 * return next decoded block, null at end of file
+	 *
+	 * @return Block
+	 * @throws IOException
+	 */
+	public Block nextBlock() throws IOException {
+
+		// keep worker threads busy
+		while (!endOfFile && pending.size() < maxPending) {
+			String type = readBlobHeader();
+
+			if (type == null) {
+				endOfFile = true;
+				break;
+			}
+
+			final byte[] blob = readBytes(blobSize);
+
+			if (!type.equals("OSMData")) {
+				// unknown blocks are skipped
+				continue;
+			}
+
+			pending.add(executor.submit(new Callable<Block>() {
+				@Override
+				public Block call() throws Exception {
+					return readPrimitiveBlock(decompress(blob));
+				}
+			}));
+		}
+
+		if (pending.isEmpty()) {
+			return null;
+		}
+
+		try {
+			return pending.removeFirst().get();
+		} catch (InterruptedException e) {
+			throw new IOException("PBF: " + e.toString());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("PBF: " + e.getCause().toString());
+		}
+	}
+
+	/**
+	 * stop worker threads and close file
+	 */
+	public void close() {
+		for (Future<Block> f : pending) {
+			f.cancel(true);
+		}
+		pending.clear();
+
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+
+		try {
+			input.close();
+		} catch (IOException e) {
+			System.out.println("Error: myPBFReader: " + e.toString());
+		}
+	}
+
+	// ///////////// OSMData ////////////////////////////////////////////
+
+	/*
+	 * string table of a PrimitiveBlock, strings are created on first use
+	 */
+	private static class StringTable {
+		byte[] buf;
+		int[] pos = new int[256];
+		int[] end = new int[256];
+		String[] strings;
+		int size = 0;
+
+		StringTable(Message m) throws IOException {
+			buf = m.buf;
+
+			while (m.hasNext()) {
+				int key = (int) m.readVarint();
+				if (key == ((1 << 3) | 2)) {
+					m.readLengthDelimited();
+					if (size == pos.length) {
+						pos = Arrays.copyOf(pos, size * 2);
+						end = Arrays.copyOf(end, size * 2);
+					}
+					pos[size] = m.fieldPos;
+					end[size] = m.fieldEnd;
+					size++;
+				} else {
+					m.skip(key & 7);
+				}
+			}
+
+			strings = new String[size];
+		}
+
+		String get(int index) throws IOException {
+			if (index < 0 || index >= size) {
+				throw new IOException("PBF: string " + index + " out of string table");
+			}
+			if (strings[index] == null) {
+				strings[index] = new String(buf, pos[index], end[index] - pos[index], UTF8);
+			}
+			return strings[index];
+		}
+	}
+
+	/*
+	 * decode PrimitiveBlock
+	 */
+	private static Block readPrimitiveBlock(byte[] data) throws IOException {
+		Message m = new Message(data, 0, data.length);
+
+		StringTable stringTable = null;
+		LinkedList<Message> groups = new LinkedList<Message>();
+		long granularity = 100;
+		long latOffset = 0;
+		long lonOffset = 0;
+
+		// groups are decoded after granularity and offsets are known
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 2:
+				stringTable = new StringTable(m.readMessage());
+				break;
+			case (2 << 3) | 2:
+				groups.add(m.readMessage());
+				break;
+			case (17 << 3) | 0:
+				granularity = m.readVarint();
+				break;
+			case (19 << 3) | 0:
+				latOffset = m.readVarint();
+				break;
+			case (20 << 3) | 0:
+				lonOffset = m.readVarint();
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+
+		Block block = new Block();
+
+		for (Message group : groups) {
+			while (group.hasNext()) {
+				int key = (int) group.readVarint();
+				switch (key) {
+				case (1 << 3) | 2:
+					readNode(group.readMessage(), block, granularity, latOffset, lonOffset);
+					break;
+				case (2 << 3) | 2:
+					readDenseNodes(group.readMessage(), block, granularity, latOffset, lonOffset);
+					break;
+				case (3 << 3) | 2:
+					if (stringTable == null) {
+						throw new IOException("PBF: block without string table");
+					}
+					readWay(group.readMessage(), block, stringTable);
+					break;
+				default:
+					// relations and changesets
+					group.skip(key & 7);
+				}
+			}
+		}
+
+		return block;
+	}
+
+	/*
+	 * degrees of coordinate (division keeps values equal to decimal values of OSM XML files)
+	 */
+	private static double toDegrees(long offset, long granularity, long value) {
+		return (offset + granularity * value) / NANO;
+	}
+
+	private static void readNode(Message m, Block block, long granularity, long latOffset, long lonOffset) throws IOException {
+		long id = 0;
+		long lat = 0;
+		long lon = 0;
+
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 0:
+				id = m.readSInt64();
+				break;
+			case (8 << 3) | 0:
+				lat = m.readSInt64();
+				break;
+			case (9 << 3) | 0:
+				lon = m.readSInt64();
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+
+		block.addNode(id, toDegrees(latOffset, granularity, lat), toDegrees(lonOffset, granularity, lon));
+	}
+
+	private static void readDenseNodes(Message m, Block block, long granularity, long latOffset, long lonOffset) throws IOException {
+		Message ids = null;
+		Message lats = null;
+		Message lons = null;
+
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 2:
+				ids = m.readMessage();
+				break;
+			case (8 << 3) | 2:
+				lats = m.readMessage();
+				break;
+			case (9 << 3) | 2:
+				lons = m.readMessage();
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+
+		if (ids == null) {
+			return;
+		}
+		if (lats == null || lons == null) {
+			throw new IOException("PBF: dense nodes without coordinates");
+		}
+
+		// values are delta coded
+		long id = 0;
+		long lat = 0;
+		long lon = 0;
+
+		while (ids.hasNext()) {
+			if (!lats.hasNext() || !lons.hasNext()) {
+				throw new IOException("PBF: dense nodes with less coordinates than ids");
+			}
+
+			id += ids.readSInt64();
+			lat += lats.readSInt64();
+			lon += lons.readSInt64();
+
+			block.addNode(id, toDegrees(latOffset, granularity, lat), toDegrees(lonOffset, granularity, lon));
+		}
+	}
+
+	private static void readWay(Message m, Block block, StringTable stringTable) throws IOException {
+		long id = 0;
+		Message keys = null;
+		Message vals = null;
+
+		while (m.hasNext()) {
+			int key = (int) m.readVarint();
+			switch (key) {
+			case (1 << 3) | 0:
+				id = m.readVarint();
+				break;
+			case (2 << 3) | 2:
+				keys = m.readMessage();
+				break;
+			case (3 << 3) | 2:
+				vals = m.readMessage();
+				break;
+			case (8 << 3) | 2:
+				// delta coded refs
+				Message refs = m.readMessage();
+				long ref = 0;
+				while (refs.hasNext()) {
+					ref += refs.readSInt64();
+					block.addWayRef(ref);
+				}
+				break;
+			default:
+				m.skip(key & 7);
+			}
+		}
+
+		if (keys != null && vals != null) {
+			while (keys.hasNext() && vals.hasNext()) {
+				block.addWayTag(stringTable.get((int) keys.readVarint()), stringTable.get((int) vals.readVarint()));
+			}
+		}
+
+		block.addWay(id);
+	}
+}
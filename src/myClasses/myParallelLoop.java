@@ -0,0 +1,60 @@
+package myClasses;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * loop over indices 0 ... n - 1, run in parallel on the common fork-join
+ * pool. run(i) is called once per index from any thread, so it may only
+ * change data belonging to index i.
+ *
+ * usage: new myParallelLoop() { public void run(int i) { ... } }.execute(n);
+ */
+public abstract class myParallelLoop {
+
+	// indices run by one task without splitting
+	private static final int MIN_RANGE = 256;
+
+	public abstract void run(int i);
+
+	/**
+	 * run all indices, return after all are done
+	 *
+	 * @param n
+	 *            number of indices
+	 */
+	public void execute(int n) {
+		if (n <= MIN_RANGE) {
+			for (int i = 0; i < n; i++) {
+				run(i);
+			}
+		} else {
+			ForkJoinPool.commonPool().invoke(new RangeTask(0, n));
+		}
+	}
+
+	private class RangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int from;
+		private int to;
+
+		RangeTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= MIN_RANGE) {
+				for (int i = from; i < to; i++) {
+					run(i);
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RangeTask(from, middle), new RangeTask(middle, to));
+			}
+		}
+	}
+}
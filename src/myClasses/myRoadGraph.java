@@ -0,0 +1,301 @@
+package myClasses;
+
+import java.util.Arrays;
+
+/*
+ * road graph of a map in compressed sparse row form, built once after loading
+ *
+ * nodes have a dense index (index in node table of map), wayParts are given
+ * by their ID (myOSMWayPart.ObjID). The outgoing wayParts of node i are
+ * outgoing[outgoingStart[i] ... outgoingStart[i + 1] - 1], the incoming ones
+ * accordingly. At each node wayParts are in order of their IDs, that is in
+ * order of ways and WayParts.
+ *
+ * successors of wayPart id (the wayParts a route can continue with) are
+ * successors[successorStart[id] ... successorStart[id + 1] - 1]: the
+ * outgoing wayParts of its end node without the one back to its start node
+ * (no U-turn). One-way streets have no wayParts against their direction, so
+ * they are never a successor in that direction.
+ *
+ * iteration without allocation:
+ * for (int k = graph.outgoingBegin(node); k < graph.outgoingEnd(node); k++) {
+ *     myOSMWayPart wp = graph.getOutgoing(k);
+ * }
+ */
+public class myRoadGraph {
+
+	private myOSMNode[] nodes;
+	private myOSMWayPart[] wayParts;
+
+	private int[] outgoingStart;
+	private int[] outgoing;
+
+	private int[] incomingStart;
+	private int[] incoming;
+
+	private int[] successorStart;
+	private int[] successors;
+
+	/**
+	 * @param nodeTable
+	 *            all nodes of map
+	 * @param wayPartsByID
+	 *            all wayParts of map, index is ID
+	 */
+	public myRoadGraph(myNodeTable nodeTable, myOSMWayPart[] wayPartsByID) {
+		nodes = new myOSMNode[nodeTable.size()];
+
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = nodeTable.getNode(i);
+			nodes[i].index = i;
+			nodes[i].graph = this;
+		}
+
+		wayParts = wayPartsByID;
+
+		outgoingStart = new int[nodes.length + 1];
+		incomingStart = new int[nodes.length + 1];
+
+		// count wayParts per node
+		for (int id = 0; id < wayParts.length; id++) {
+			outgoingStart[getIndexOfNode(wayParts[id].startNode) + 1]++;
+			incomingStart[getIndexOfNode(wayParts[id].endNode) + 1]++;
+		}
+
+		for (int i = 0; i < nodes.length; i++) {
+			outgoingStart[i + 1] += outgoingStart[i];
+			incomingStart[i + 1] += incomingStart[i];
+		}
+
+		// fill in order of IDs
+		int[] outgoingPos = Arrays.copyOf(outgoingStart, nodes.length);
+		int[] incomingPos = Arrays.copyOf(incomingStart, nodes.length);
+
+		outgoing = new int[wayParts.length];
+		incoming = new int[wayParts.length];
+
+		for (int id = 0; id < wayParts.length; id++) {
+			outgoing[outgoingPos[wayParts[id].startNode.index]++] = id;
+			incoming[incomingPos[wayParts[id].endNode.index]++] = id;
+		}
+
+		setSuccessors();
+	}
+
+	/*
+	 * successors of all wayParts, in order of outgoing wayParts of end node
+	 */
+	private void setSuccessors() {
+		successorStart = new int[wayParts.length + 1];
+
+		for (int id = 0; id < wayParts.length; id++) {
+			successorStart[id + 1] = successorStart[id] + countSuccessors(wayParts[id]);
+		}
+
+		successors = new int[successorStart[wayParts.length]];
+
+		int n = 0;
+		for (int id = 0; id < wayParts.length; id++) {
+			myOSMWayPart wp = wayParts[id];
+			int end = outgoingStart[wp.endNode.index + 1];
+
+			for (int k = outgoingStart[wp.endNode.index]; k < end; k++) {
+				if (wayParts[outgoing[k]].endNode != wp.startNode) {
+					successors[n++] = outgoing[k];
+				}
+			}
+		}
+	}
+
+	private int countSuccessors(myOSMWayPart wp) {
+		int count = 0;
+		int end = outgoingStart[wp.endNode.index + 1];
+
+		for (int k = outgoingStart[wp.endNode.index]; k < end; k++) {
+			if (wayParts[outgoing[k]].endNode != wp.startNode) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/*
+	 * return index of node of a wayPart of this graph
+	 */
+	private int getIndexOfNode(myOSMNode node) {
+		if (node.graph != this) {
+			System.out.println("Error: myRoadGraph: node " + node.id + " not in node table");
+			System.exit(-1);
+		}
+		return node.index;
+	}
+
+	/**
+	 * return index of node in graph, -1 if it is not part of the graph
+	 *
+	 * @param node
+	 * @return index
+	 */
+	public int getIndex(myOSMNode node) {
+		return (node.graph == this) ? node.index : -1;
+	}
+
+	/**
+	 * return ID of wayPart, -1 if it is not part of the graph (artificial
+	 * wayPart or wayPart of other map)
+	 *
+	 * @param wp
+	 * @return ID
+	 */
+	public int getID(myOSMWayPart wp) {
+		int id = wp.ObjID;
+		return (id >= 0 && id < wayParts.length && wayParts[id] == wp) ? id : -1;
+	}
+
+	public int getNrOfNodes() {
+		return nodes.length;
+	}
+
+	public int getNrOfWayParts() {
+		return wayParts.length;
+	}
+
+	public myOSMNode getNode(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * return first position of outgoing wayParts of node
+	 *
+	 * @param node
+	 * @return position
+	 */
+	public int outgoingBegin(myOSMNode node) {
+		int i = getIndex(node);
+		return (i < 0) ? 0 : outgoingStart[i];
+	}
+
+	/**
+	 * return position behind last outgoing wayPart of node
+	 *
+	 * @param node
+	 * @return position
+	 */
+	public int outgoingEnd(myOSMNode node) {
+		int i = getIndex(node);
+		return (i < 0) ? 0 : outgoingStart[i + 1];
+	}
+
+	public int incomingBegin(myOSMNode node) {
+		int i = getIndex(node);
+		return (i < 0) ? 0 : incomingStart[i];
+	}
+
+	public int incomingEnd(myOSMNode node) {
+		int i = getIndex(node);
+		return (i < 0) ? 0 : incomingStart[i + 1];
+	}
+
+	/**
+	 * return ID of outgoing wayPart at position (outgoingBegin ... outgoingEnd - 1)
+	 *
+	 * @param position
+	 * @return ID
+	 */
+	public int getOutgoingID(int position) {
+		return outgoing[position];
+	}
+
+	public int getIncomingID(int position) {
+		return incoming[position];
+	}
+
+	public myOSMWayPart getOutgoing(int position) {
+		return wayParts[outgoing[position]];
+	}
+
+	public myOSMWayPart getIncoming(int position) {
+		return wayParts[incoming[position]];
+	}
+
+	/**
+	 * return first position of successors of wayPart
+	 *
+	 * @param wp
+	 * @return position
+	 */
+	public int successorsBegin(myOSMWayPart wp) {
+		int id = getID(wp);
+		return (id < 0) ? 0 : successorStart[id];
+	}
+
+	/**
+	 * return position behind last successor of wayPart
+	 *
+	 * @param wp
+	 * @return position
+	 */
+	public int successorsEnd(myOSMWayPart wp) {
+		int id = getID(wp);
+		return (id < 0) ? 0 : successorStart[id + 1];
+	}
+
+	/**
+	 * return ID of successor at position (successorsBegin ... successorsEnd - 1)
+	 *
+	 * @param position
+	 * @return ID
+	 */
+	public int getSuccessorID(int position) {
+		return successors[position];
+	}
+
+	public myOSMWayPart getSuccessor(int position) {
+		return wayParts[successors[position]];
+	}
+
+	/**
+	 * return wayPart starts at node
+	 *
+	 * @param node
+	 * @param wp
+	 * @return
+	 */
+	public boolean isOutgoing(myOSMNode node, myOSMWayPart wp) {
+		int end = outgoingEnd(node);
+		for (int k = outgoingBegin(node); k < end; k++) {
+			if (wayParts[outgoing[k]] == wp) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * return wayPart ends at node
+	 *
+	 * @param node
+	 * @param wp
+	 * @return
+	 */
+	public boolean isIncoming(myOSMNode node, myOSMWayPart wp) {
+		int end = incomingEnd(node);
+		for (int k = incomingBegin(node); k < end; k++) {
+			if (wayParts[incoming[k]] == wp) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * return bytes used by offset and ID arrays
+	 *
+	 * @return bytes
+	 */
+	public long getMemoryFootprint() {
+		return 4L * (outgoingStart.length + outgoing.length + incomingStart.length + incoming.length
+				+ successorStart.length + successors.length) + 6 * 16;
+	}
+}
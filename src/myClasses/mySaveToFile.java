@@ -13,6 +13,7 @@ import java.io.OutputStreamWriter;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Calendar;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
 
@@ -46,9 +47,20 @@ public class mySaveToFile {
 		dfS.setDecimalSeparator('.');
 	}
 	
-	// create formations for latitude (+-90) and longitude (+-180)
-	static private DecimalFormat latFormat = new DecimalFormat("##.000000000", dfS);
-	static private DecimalFormat lonFormat = new DecimalFormat("###.000000000", dfS);
+	// create formations for latitude (+-90) and longitude (+-180),
+	// one per thread, DecimalFormat is not thread safe
+	static private ThreadLocal<DecimalFormat> latFormat = new ThreadLocal<DecimalFormat>() {
+		@Override
+		protected DecimalFormat initialValue() {
+			return new DecimalFormat("##.000000000", dfS);
+		}
+	};
+	static private ThreadLocal<DecimalFormat> lonFormat = new ThreadLocal<DecimalFormat>() {
+		@Override
+		protected DecimalFormat initialValue() {
+			return new DecimalFormat("###.000000000", dfS);
+		}
+	};
 	
 	private static void createOsmKml(Vector<MatchedGPSNode> gpsNodesToMatch, String filePath) {
 
@@ -144,11 +156,11 @@ public class mySaveToFile {
 					
 					bKmlWriterUnmatchedMatched.write("			<LineString>" + System.lineSeparator());
 					bKmlWriterUnmatchedMatched.write("				<coordinates>" + System.lineSeparator());
-					bKmlWriterUnmatchedMatched.write(lonFormat.format(unmatchedGeoPos.getLongitude()) + ","
-							+ latFormat.format(unmatchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterUnmatchedMatched.write(lonFormat.get().format(unmatchedGeoPos.getLongitude()) + ","
+							+ latFormat.get().format(unmatchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
 					
-					bKmlWriterUnmatchedMatched.write(lonFormat.format(matchedGeoPos.getLongitude()) + ","
-							+ latFormat.format(matchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterUnmatchedMatched.write(lonFormat.get().format(matchedGeoPos.getLongitude()) + ","
+							+ latFormat.get().format(matchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
 					
 					bKmlWriterUnmatchedMatched.write("				</coordinates>" + System.lineSeparator());
 					bKmlWriterUnmatchedMatched.write("			</LineString>" + System.lineSeparator());
@@ -208,8 +220,8 @@ public class mySaveToFile {
 						matchedGeoPos = Coordinates.getGeoPos(matchedGPSNode.matchedXreordered,	matchedGPSNode.matchedYreordered);
 					}
 					
-					bKmlWriterMatched.write(lonFormat.format(matchedGeoPos.getLongitude()) + ","
-							+ latFormat.format(matchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterMatched.write(lonFormat.get().format(matchedGeoPos.getLongitude()) + ","
+							+ latFormat.get().format(matchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
 					
 				}
 			
@@ -259,8 +271,8 @@ public class mySaveToFile {
 					
 					GeoPosition unmatchedGeoPos = Coordinates.getGeoPos(matchedGPSNode.getX(), matchedGPSNode.getY());
 					
-					bKmlWriterUnmatched.write(lonFormat.format(unmatchedGeoPos.getLongitude()) + ","
-							+ latFormat.format(unmatchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterUnmatched.write(lonFormat.get().format(unmatchedGeoPos.getLongitude()) + ","
+							+ latFormat.get().format(unmatchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
 					
 				}
 				
@@ -327,6 +339,11 @@ public class mySaveToFile {
 
 		}
 
+		if (myOSMMap.isPBFFile(osmFile)) {
+			createOsmFromMap(matchedNLinks, TreeSetNodeIds, filePath, minlat, minlon, maxlat, maxlon);
+			return;
+		}
+
 		try {
 			BufferedReader bReader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(FilePath)),"UTF-8"));
 
@@ -424,6 +441,69 @@ public class mySaveToFile {
 
 	}
 
+	/*
+	 * PBF files can't be copied line by line: write nodes and matched ways
+	 * from the loaded map, only the tags kept by myOSMWay are written
+	 */
+	private static void createOsmFromMap(Vector<MatchedNLink> matchedNLinks, TreeSet<Long> TreeSetNodeIds, String filePath,
+			double minlat, double minlon, double maxlat, double maxlon) {
+
+		TreeMap<Long, myOSMWay> TreeMapWays = new TreeMap<Long, myOSMWay>();
+		TreeMap<Long, myOSMNode> TreeMapNodes = new TreeMap<Long, myOSMNode>();
+
+		for (int i = 0; i < matchedNLinks.size(); i++) {
+			myOSMWayPart wp = matchedNLinks.get(i).getStreetLink();
+
+			TreeMapWays.put(wp.parentWay.id, wp.parentWay);
+			TreeMapNodes.put(wp.startNode.id, wp.startNode);
+			TreeMapNodes.put(wp.endNode.id, wp.endNode);
+		}
+
+		try {
+			String FilePathNew = filePath + ".route.osm.xml";
+
+			BufferedWriter bWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(FilePathNew)), "UTF-8"));
+
+			bWriter.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + System.lineSeparator());
+			bWriter.write("<osm version=\"0.6\" generator=\"JXMapMatch\">" + System.lineSeparator());
+			bWriter.write("	<bounds minlat=\"" + minlat + "\" minlon=\"" + minlon + "\" maxlat=\"" + maxlat + "\" maxlon=\"" + maxlon + "\"/>" + System.lineSeparator());
+
+			for (myOSMNode node : TreeMapNodes.values()) {
+				bWriter.write("	<node id=\"" + node.id + "\" lat=\"" + node.lat + "\" lon=\"" + node.lon + "\"/>" + System.lineSeparator());
+			}
+
+			for (myOSMWay way : TreeMapWays.values()) {
+				bWriter.write("	<way id=\"" + way.id + "\">" + System.lineSeparator());
+
+				for (int i = 0; i < way.refs.length; i++) {
+					bWriter.write("		<nd ref=\"" + way.refs[i].id + "\"/>" + System.lineSeparator());
+				}
+
+				if (way.highway.isEmpty() == false) {
+					bWriter.write("		<tag k=\"highway\" v=\"" + escapeXml(way.highway) + "\"/>" + System.lineSeparator());
+				}
+				if (way.name.isEmpty() == false) {
+					bWriter.write("		<tag k=\"name\" v=\"" + escapeXml(way.name) + "\"/>" + System.lineSeparator());
+				}
+				if (way.onyWay) {
+					bWriter.write("		<tag k=\"oneway\" v=\"yes\"/>" + System.lineSeparator());
+				}
+
+				bWriter.write("	</way>" + System.lineSeparator());
+			}
+
+			bWriter.write("</osm>" + System.lineSeparator());
+			bWriter.close();
+
+		} catch (Exception e) {
+			System.out.println("Error: createOsmFromMap " + System.lineSeparator() + e.toString());
+		}
+	}
+
+	private static String escapeXml(String s) {
+		return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
 	private static void createKmlRoute(Vector<MatchedNLink> matchedNLinks, String filePath) {
 		
 		try {
@@ -531,11 +611,11 @@ public class mySaveToFile {
 						bKmlWriterUnmatchedMatched.write("			<LineString>" + System.lineSeparator());
 						bKmlWriterUnmatchedMatched.write("				<coordinates>" + System.lineSeparator());
 						
-						bKmlWriterUnmatchedMatched.write(lonFormat.format(matchedGeoPos.getLongitude()) + ","
-								+ latFormat.format(matchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
+						bKmlWriterUnmatchedMatched.write(lonFormat.get().format(matchedGeoPos.getLongitude()) + ","
+								+ latFormat.get().format(matchedGeoPos.getLatitude()) + ",0" + System.lineSeparator());
 
-						bKmlWriterUnmatchedMatched.write(lonFormat.format(matchedGeoPosReordered.getLongitude()) + ","
-								+ latFormat.format(matchedGeoPosReordered.getLatitude()) + ",0" + System.lineSeparator());
+						bKmlWriterUnmatchedMatched.write(lonFormat.get().format(matchedGeoPosReordered.getLongitude()) + ","
+								+ latFormat.get().format(matchedGeoPosReordered.getLatitude()) + ",0" + System.lineSeparator());
 
 						bKmlWriterUnmatchedMatched.write("				</coordinates>" + System.lineSeparator());
 						bKmlWriterUnmatchedMatched.write("			</LineString>" + System.lineSeparator());
@@ -566,17 +646,17 @@ public class mySaveToFile {
 		
 	}
 
-	private static void createKmlDatasetsUp(Vector<myDataset> DatasetsUp, String filePath)  {
+	private static void createKmlDatasetsUp(myDatasetStore DatasetsUp, String filePath)  {
 		filePath = filePath + ".DatasetsUp.kml";
 		createKmlDatasets(DatasetsUp, filePath);
 	}
 	
-	private static void createKmlDatasetsDown(Vector<myDataset> DatasetsDown, String filePath)  {
+	private static void createKmlDatasetsDown(myDatasetStore DatasetsDown, String filePath)  {
 		filePath = filePath + ".DatasetsDown.kml";
 		createKmlDatasets(DatasetsDown, filePath);
 	}
 	
-	private static void createKmlDatasets(Vector<myDataset> DatasetsDown, String filePath)  {
+	private static void createKmlDatasets(myDatasetStore DatasetsDown, String filePath)  {
 		try {
 			File kmlDatasetsUp = new File(filePath);
 			BufferedWriter bKmlWriterDatasetsUp = new BufferedWriter(new FileWriter(kmlDatasetsUp));
@@ -592,7 +672,7 @@ public class mySaveToFile {
 			int i;
 			for (i = 0; i < DatasetsDown.size() - 1; i++) {
 				ds1 = DatasetsDown.get(i);
-				if (ds1.isMatched) {
+				if (ds1.isMatched()) {
 					break;
 				}
 			}
@@ -601,26 +681,26 @@ public class mySaveToFile {
 
 				myDataset ds2 = DatasetsDown.get(i);
 
-				if (ds2.isMatched) {
+				if (ds2.isMatched()) {
 
 					bKmlWriterDatasetsUp.write("		<Placemark>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<name>" + ds1.getTimestamp() + "</name>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<description>" + ds1.getTimestamp() + System.lineSeparator() +
-					"datarate: " + ds1.datarate + System.lineSeparator() + 
-					"delay: " + ds1.delay + System.lineSeparator() + 
-					"loss rate: " + ds1.loss_rate + "</description>" + System.lineSeparator());
+					"datarate: " + ds1.getDatarate() + System.lineSeparator() + 
+					"delay: " + ds1.getDelay() + System.lineSeparator() + 
+					"loss rate: " + ds1.getLossRate() + "</description>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<LineString>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("				<coordinates>" + System.lineSeparator());
 					
-					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.X, ds1.Y);
+					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.getX(), ds1.getY());
 					
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos1.getLongitude()) + ","
-							+ latFormat.format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos1.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
 					
-					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds2.X, ds2.Y);
+					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds2.getX(), ds2.getY());
 					
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos2.getLongitude()) + ","
-							+ latFormat.format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos2.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
 					
 					bKmlWriterDatasetsUp.write("				</coordinates>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			</LineString>" + System.lineSeparator());
@@ -648,57 +728,57 @@ public class mySaveToFile {
 		}
 	}
 
-	private static void createKmlDatasetsDatarateColor(Vector<myDataset> DatasetsDown, String filePath, boolean kmlNorm, double _minData, double _maxData) {
+	private static void createKmlDatasetsDatarateColor(myDatasetStore DatasetsDown, String filePath, boolean kmlNorm, double _minData, double _maxData) {
 		filePath = filePath + ".ColorDatarate.kml";
 		createKmlDatasetsDataColor(DatasetsDown, filePath, "datarate", kmlNorm, _minData, _maxData);
 	}
 	
-	private static void createKmlDatasetsDelayColor(Vector<myDataset> DatasetsDown, String filePath, boolean kmlNorm, double _minData, double _maxData) {
+	private static void createKmlDatasetsDelayColor(myDatasetStore DatasetsDown, String filePath, boolean kmlNorm, double _minData, double _maxData) {
 		filePath = filePath + ".ColorDelay.kml";
 		createKmlDatasetsDataColor(DatasetsDown, filePath, "delay", kmlNorm, _minData, _maxData);
 	}
 	
-	private static void createKmlDatasetsLossRateColor(Vector<myDataset> DatasetsDown, String filePath, boolean kmlNorm, double _minData, double _maxData) {
+	private static void createKmlDatasetsLossRateColor(myDatasetStore DatasetsDown, String filePath, boolean kmlNorm, double _minData, double _maxData) {
 		filePath = filePath + ".ColorLoss_rate.kml";
 		createKmlDatasetsDataColor(DatasetsDown, filePath, "loss_rate", kmlNorm, _minData, _maxData);
 	}
 
-	private static void createKmlDatasetsDataColor(Vector<myDataset> Datasets, String filePath, String dataType, boolean kmlNorm, double _minData, double _maxData)  {
+	private static void createKmlDatasetsDataColor(myDatasetStore Datasets, String filePath, String dataType, boolean kmlNorm, double _minData, double _maxData)  {
 		try {
 			double minData = Double.MAX_VALUE;
 			double maxData = -Double.MAX_VALUE;
 			
 			if (kmlNorm) {
 				if (dataType.equals("datarate")) {
-					for (myDataset ds : Datasets) {
-						if (ds.isMatched && ds.datarate != -1) {
-							if (ds.datarate < minData) {
-								minData = ds.datarate;
+					for (int i = 0; i < Datasets.size(); i++) {
+						if (Datasets.isMatched(i) && Datasets.getDatarate(i) != -1) {
+							if (Datasets.getDatarate(i) < minData) {
+								minData = Datasets.getDatarate(i);
 							}
-							if (maxData < ds.datarate) {
-								maxData = ds.datarate;
+							if (maxData < Datasets.getDatarate(i)) {
+								maxData = Datasets.getDatarate(i);
 							}
 						}
 					}
 				} else if (dataType.equals("delay")) {
-					for (myDataset ds : Datasets) {
-						if (ds.isMatched && ds.delay != -1) {
-							if (ds.delay < minData) {
-								minData = ds.delay;
+					for (int i = 0; i < Datasets.size(); i++) {
+						if (Datasets.isMatched(i) && Datasets.getDelay(i) != -1) {
+							if (Datasets.getDelay(i) < minData) {
+								minData = Datasets.getDelay(i);
 							}
-							if (maxData < ds.delay) {
-								maxData = ds.delay;
+							if (maxData < Datasets.getDelay(i)) {
+								maxData = Datasets.getDelay(i);
 							}
 						}
 					}
 				} else {
-					for (myDataset ds : Datasets) {
-						if (ds.isMatched && ds.loss_rate != -1) {
-							if (ds.loss_rate < minData) {
-								minData = ds.loss_rate;
+					for (int i = 0; i < Datasets.size(); i++) {
+						if (Datasets.isMatched(i) && Datasets.getLossRate(i) != -1) {
+							if (Datasets.getLossRate(i) < minData) {
+								minData = Datasets.getLossRate(i);
 							}
-							if (maxData < ds.loss_rate) {
-								maxData = ds.loss_rate;
+							if (maxData < Datasets.getLossRate(i)) {
+								maxData = Datasets.getLossRate(i);
 							}
 						}
 					}
@@ -726,17 +806,17 @@ public class mySaveToFile {
 			int i;
 			for (i = 0; i < Datasets.size() - 1; i++) {
 				ds1 = Datasets.get(i);
-				if (ds1.isMatched) {
+				if (ds1.isMatched()) {
 					if (dataType.equals("datarate")) {
-						if (ds1.datarate != -1) {
+						if (ds1.getDatarate() != -1) {
 							break;
 						}
 					} else if (dataType.equals("delay")) {
-						if (ds1.delay != -1) {
+						if (ds1.getDelay() != -1) {
 							break;
 						}
 					} else {
-						if (ds1.loss_rate != -1) {
+						if (ds1.getLossRate() != -1) {
 							break;
 						}
 					}
@@ -747,12 +827,12 @@ public class mySaveToFile {
 
 				myDataset ds2 = Datasets.get(i);
 
-				if (ds2.isMatched && (
-					(dataType.equals("datarate") && ds2.datarate != -1)
+				if (ds2.isMatched() && (
+					(dataType.equals("datarate") && ds2.getDatarate() != -1)
 					||
-					(dataType.equals("delay") && ds2.delay != -1)
+					(dataType.equals("delay") && ds2.getDelay() != -1)
 					||
-					(dataType.equals("loss_rate") && ds2.loss_rate != -1)
+					(dataType.equals("loss_rate") && ds2.getLossRate() != -1)
 				)) {
 					
 					String color = "ff000000";
@@ -761,33 +841,33 @@ public class mySaveToFile {
 					
 					if (dataType.equals("datarate")) {
 						if (kmlNorm) {
-							f = ds1.datarate - minData;
-						} else if (ds1.datarate < minData) {
+							f = ds1.getDatarate() - minData;
+						} else if (ds1.getDatarate() < minData) {
 							f = minData;
-						} else if (maxData < ds1.datarate) {
+						} else if (maxData < ds1.getDatarate()) {
 							f = maxData;
 						} else {
-							f = ds1.datarate - minData;
+							f = ds1.getDatarate() - minData;
 						}
 					} else if (dataType.equals("delay")) {
 						if (kmlNorm) {
-							f = ds1.delay - minData;
-						} else if (ds1.delay < minData) {
+							f = ds1.getDelay() - minData;
+						} else if (ds1.getDelay() < minData) {
 							f = minData;
-						} else if (maxData < ds1.delay) {
+						} else if (maxData < ds1.getDelay()) {
 							f = maxData;
 						} else {
-							f = ds1.delay - minData;
+							f = ds1.getDelay() - minData;
 						}
 					} else {
 						if (kmlNorm) {
-							f = ds1.loss_rate - minData;
-						} else if (ds1.loss_rate < minData) {
+							f = ds1.getLossRate() - minData;
+						} else if (ds1.getLossRate() < minData) {
 							f = minData;
-						} else if (maxData < ds1.loss_rate) {
+						} else if (maxData < ds1.getLossRate()) {
 							f = maxData;
 						} else {
-							f = ds1.loss_rate - minData;
+							f = ds1.getLossRate() - minData;
 						}
 					}
 					
@@ -854,21 +934,21 @@ public class mySaveToFile {
 					bKmlWriterDatasetsUp.write("		<Placemark>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<name>" + ds1.getTimestamp() + "</name>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<description>" +
-					"datarate: " + ds1.datarate + System.lineSeparator() + 
-					"delay: " + ds1.delay + System.lineSeparator() + 
-					"loss rate: " + ds1.loss_rate + "</description>" + System.lineSeparator());
+					"datarate: " + ds1.getDatarate() + System.lineSeparator() + 
+					"delay: " + ds1.getDelay() + System.lineSeparator() + 
+					"loss rate: " + ds1.getLossRate() + "</description>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<LineString>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("				<coordinates>" + System.lineSeparator());
 					
-					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.X, ds1.Y);
+					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.getX(), ds1.getY());
 					
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos1.getLongitude()) + ","
-							+ latFormat.format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos1.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
 					
-					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds2.X, ds2.Y);
+					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds2.getX(), ds2.getY());
 					
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos2.getLongitude()) + ","
-							+ latFormat.format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos2.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
 					
 					bKmlWriterDatasetsUp.write("				</coordinates>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			</LineString>" + System.lineSeparator());
@@ -896,17 +976,17 @@ public class mySaveToFile {
 		}
 	}
 
-	private static void createKmlDatasetsUpUnMatched(Vector<myDataset> DatasetsUp, String filePath)  {
+	private static void createKmlDatasetsUpUnMatched(myDatasetStore DatasetsUp, String filePath)  {
 		filePath = filePath + ".DatasetsUpUnMatched.kml";
 		createKmlDatasetsUnMatched(DatasetsUp, filePath, "FF88FF00");
 	}
 	
-	private static void createKmlDatasetsDownUnMatched(Vector<myDataset> DatasetsDown, String filePath)  {
+	private static void createKmlDatasetsDownUnMatched(myDatasetStore DatasetsDown, String filePath)  {
 		filePath = filePath + ".DatasetsDownUnMatched.kml";
 		createKmlDatasetsUnMatched(DatasetsDown, filePath, "FFFF8800");
 	}
 	
-	private static void createKmlDatasetsUnMatched(Vector<myDataset> DatasetsDown, String filePath, String color)  {
+	private static void createKmlDatasetsUnMatched(myDatasetStore DatasetsDown, String filePath, String color)  {
 		try {
 			File kmlDatasetsUp = new File(filePath);
 			BufferedWriter bKmlWriterDatasetsUp = new BufferedWriter(new FileWriter(kmlDatasetsUp));
@@ -923,25 +1003,25 @@ public class mySaveToFile {
 
 				ds1 = DatasetsDown.get(i);
 
-				if (ds1.isMatched) {
+				if (ds1.isMatched()) {
 					bKmlWriterDatasetsUp.write("		<Placemark>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<name>" + ds1.getTimestamp() + "</name>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<description>" + ds1.getTimestamp() + System.lineSeparator() +
-							"datarate: " + ds1.datarate + System.lineSeparator() + 
-							"delay: " + ds1.delay + System.lineSeparator() + 
-							"loss rate: " + ds1.loss_rate + "</description>" + System.lineSeparator());
+							"datarate: " + ds1.getDatarate() + System.lineSeparator() + 
+							"delay: " + ds1.getDelay() + System.lineSeparator() + 
+							"loss rate: " + ds1.getLossRate() + "</description>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<LineString>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("				<coordinates>" + System.lineSeparator());
 					
-					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.Xunmatched, ds1.Yunmatched);
+					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.getXunmatched(), ds1.getYunmatched());
 					
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos1.getLongitude()) + ","
-							+ latFormat.format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos1.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
 					
-					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds1.X, ds1.Y);
+					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds1.getX(), ds1.getY());
 					
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos2.getLongitude()) + ","
-							+ latFormat.format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos2.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
 					
 					bKmlWriterDatasetsUp.write("				</coordinates>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			</LineString>" + System.lineSeparator());
@@ -967,7 +1047,7 @@ public class mySaveToFile {
 		}
 	}
 
-	private static void createKmlDatasetsUnMatchedRouteDistribution(Vector<myDataset> DatasetsDown, String filePath, String color)  {
+	private static void createKmlDatasetsUnMatchedRouteDistribution(myDatasetStore DatasetsDown, String filePath, String color)  {
 
 		try {
 			File kmlDatasetsUp = new File(filePath);
@@ -985,21 +1065,21 @@ public class mySaveToFile {
 
 				ds1 = DatasetsDown.get(i);
 
-				if (ds1.isMatched) {
+				if (ds1.isMatched()) {
 					bKmlWriterDatasetsUp.write("		<Placemark>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<name>" + ds1.getTimestamp() + "</name>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			<LineString>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("				<coordinates>" + System.lineSeparator());
 
-					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.Xunmatched, ds1.Yunmatched);
+					GeoPosition GeoPos1 = Coordinates.getGeoPos(ds1.getXunmatched(), ds1.getYunmatched());
 
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos1.getLongitude()) + ","
-							+ latFormat.format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos1.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos1.getLatitude()) + ",0" + System.lineSeparator());
 
-					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds1.X_RouteDistribution, ds1.Y_RouteDistribution);
+					GeoPosition GeoPos2 = Coordinates.getGeoPos(ds1.getXRouteDistribution(), ds1.getYRouteDistribution());
 
-					bKmlWriterDatasetsUp.write(lonFormat.format(GeoPos2.getLongitude()) + ","
-							+ latFormat.format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
+					bKmlWriterDatasetsUp.write(lonFormat.get().format(GeoPos2.getLongitude()) + ","
+							+ latFormat.get().format(GeoPos2.getLatitude()) + ",0" + System.lineSeparator());
 
 					bKmlWriterDatasetsUp.write("				</coordinates>" + System.lineSeparator());
 					bKmlWriterDatasetsUp.write("			</LineString>" + System.lineSeparator());
@@ -1029,6 +1109,8 @@ public class mySaveToFile {
 
 		filePath = filePath.replace(".", "_GPS.");
 
+		myMatchState matchState = MatchedNLink.getCountMatchedGPSNodes(myMap, matchedNLinks);
+
 		try {
 			// wrap with buffered writer
 			//BufferedWriter bWriter_old = new BufferedWriter(new FileWriter(gpsTracefile_old));
@@ -1046,11 +1128,11 @@ public class mySaveToFile {
 
 				if (matchedNLink.matchedGPSNodes.size() == 0 && matchedNLink.getStreetLink().edge != null) {
 
-					if (matchedNLink.getStreetLink().CountMatchedGPSNodes == 0) {
+					if (matchState.getCountMatchedGPSNodes(matchedNLink.getStreetLink()) == 0) {
 
 						myOSMWayPart WayPartBackDirektion = matchedNLink.getStreetLink().WayPartBackDirektion;
 
-						if (WayPartBackDirektion == null || WayPartBackDirektion.CountMatchedGPSNodes == 0) {
+						if (WayPartBackDirektion == null || matchState.getCountMatchedGPSNodes(WayPartBackDirektion) == 0) {
 
 							long lastTimeStamp = -1;
 							MatchedNLink lastMatchedNLink = null;
@@ -1179,18 +1261,18 @@ public class mySaveToFile {
 
 							if (DatasetUp != null) {
 								bWriter.write("," + DatasetUp.getTimestamp());
-								bWriter.write("," + DatasetUp.datarate);
-								bWriter.write("," + DatasetUp.delay);
-								bWriter.write("," + DatasetUp.loss_rate);
+								bWriter.write("," + DatasetUp.getDatarate());
+								bWriter.write("," + DatasetUp.getDelay());
+								bWriter.write("," + DatasetUp.getLossRate());
 							} else {
 								bWriter.write(",-,-,-,-");
 							}
 
 							if (DatasetDown != null) {
 								bWriter.write("," + DatasetDown.getTimestamp());
-								bWriter.write("," + DatasetDown.datarate);
-								bWriter.write("," + DatasetDown.delay);
-								bWriter.write("," + DatasetDown.loss_rate);
+								bWriter.write("," + DatasetDown.getDatarate());
+								bWriter.write("," + DatasetDown.getDelay());
+								bWriter.write("," + DatasetDown.getLossRate());
 							} else {
 								bWriter.write(",-,-,-,-");
 							}
@@ -1224,10 +1306,10 @@ public class mySaveToFile {
 					//bWriter2.write("Real," + (matchedGPSNode.getTimestamp() + timeStampOffSet));
 					bWriter.write("Real," + (matchedGPSNode.getTimestamp()));
 
-					bWriter.write("," + latFormat.format(matchedGeoPos.getLatitude()) + ","
-							+ lonFormat.format(matchedGeoPos.getLongitude()));
-					bWriter.write("," + latFormat.format(unmatchedGeoPos.getLatitude()) + ","
-							+ lonFormat.format(unmatchedGeoPos.getLongitude()));
+					bWriter.write("," + latFormat.get().format(matchedGeoPos.getLatitude()) + ","
+							+ lonFormat.get().format(matchedGeoPos.getLongitude()));
+					bWriter.write("," + latFormat.get().format(unmatchedGeoPos.getLatitude()) + ","
+							+ lonFormat.get().format(unmatchedGeoPos.getLongitude()));
 
 					double distance = getDistance(matchedGeoPos.getLatitude(), matchedGeoPos.getLongitude(), unmatchedGeoPos.getLatitude(), unmatchedGeoPos.getLongitude());
 					
@@ -1268,18 +1350,18 @@ public class mySaveToFile {
 
 					if (DatasetUp != null) {
 						bWriter.write("," + DatasetUp.getTimestamp());
-						bWriter.write("," + DatasetUp.datarate);
-						bWriter.write("," + DatasetUp.delay);
-						bWriter.write("," + DatasetUp.loss_rate);
+						bWriter.write("," + DatasetUp.getDatarate());
+						bWriter.write("," + DatasetUp.getDelay());
+						bWriter.write("," + DatasetUp.getLossRate());
 					} else {
 						bWriter.write(",-,-,-,-");
 					}
 
 					if (DatasetDown != null) {
 						bWriter.write("," + DatasetDown.getTimestamp());
-						bWriter.write("," + DatasetDown.datarate);
-						bWriter.write("," + DatasetDown.delay);
-						bWriter.write("," + DatasetDown.loss_rate);
+						bWriter.write("," + DatasetDown.getDatarate());
+						bWriter.write("," + DatasetDown.getDelay());
+						bWriter.write("," + DatasetDown.getLossRate());
 					} else {
 						bWriter.write(",-,-,-,-");
 					}
@@ -1294,17 +1376,17 @@ public class mySaveToFile {
 
 					if (wp.WayPartBackDirektion != null) {
 
-						if (wp.WayPartBackDirektion.CountMatchedGPSNodes == 0) {
+						if (matchState.getCountMatchedGPSNodes(wp.WayPartBackDirektion) == 0) {
 
 							wp = wp.WayPartBackDirektion;
 
 							//bWriter2.write("BackDirektion," + (matchedGPSNode.getTimestamp() + timeStampOffSet));
 							bWriter.write("BackDirektion," + (matchedGPSNode.getTimestamp()));
 
-							bWriter.write("," + latFormat.format(matchedGeoPos.getLatitude()) + ","
-									+ lonFormat.format(matchedGeoPos.getLongitude()));
-							bWriter.write("," + latFormat.format(unmatchedGeoPos.getLatitude()) + ","
-									+ lonFormat.format(unmatchedGeoPos.getLongitude()));
+							bWriter.write("," + latFormat.get().format(matchedGeoPos.getLatitude()) + ","
+									+ lonFormat.get().format(matchedGeoPos.getLongitude()));
+							bWriter.write("," + latFormat.get().format(unmatchedGeoPos.getLatitude()) + ","
+									+ lonFormat.get().format(unmatchedGeoPos.getLongitude()));
 
 							distance = getDistance(matchedGeoPos.getLatitude(), matchedGeoPos.getLongitude(), unmatchedGeoPos.getLatitude(), unmatchedGeoPos.getLongitude());
 							
@@ -1345,18 +1427,18 @@ public class mySaveToFile {
 
 							if (DatasetUp != null) {
 								bWriter.write("," + DatasetUp.getTimestamp());
-								bWriter.write("," + DatasetUp.datarate);
-								bWriter.write("," + DatasetUp.delay);
-								bWriter.write("," + DatasetUp.loss_rate);
+								bWriter.write("," + DatasetUp.getDatarate());
+								bWriter.write("," + DatasetUp.getDelay());
+								bWriter.write("," + DatasetUp.getLossRate());
 							} else {
 								bWriter.write(",-,-,-,-");
 							}
 
 							if (DatasetDown != null) {
 								bWriter.write("," + DatasetDown.getTimestamp());
-								bWriter.write("," + DatasetDown.datarate);
-								bWriter.write("," + DatasetDown.delay);
-								bWriter.write("," + DatasetDown.loss_rate);
+								bWriter.write("," + DatasetDown.getDatarate());
+								bWriter.write("," + DatasetDown.getDelay());
+								bWriter.write("," + DatasetDown.getLossRate());
 							} else {
 								bWriter.write(",-,-,-,-");
 							}
@@ -1398,8 +1480,8 @@ public class mySaveToFile {
 			if (matchedNLink == null) {
 				bWriter.write("Real");
 				bd.append("BackDirektion");
-				matchedNLink = dataset.matchedNLink;
-				matched_distribution_in_WayPart = dataset.matched_distribution_in_WayPart;
+				matchedNLink = dataset.getMatchedNLink();
+				matched_distribution_in_WayPart = dataset.getMatchedDistributionInWayPart();
 				matched_distribution_in_WayPartBD = 1.0 - matched_distribution_in_WayPart;
 			} else if (disFromLastDatasetDown != null) {
 				bWriter.write("Start");
@@ -1427,18 +1509,18 @@ public class mySaveToFile {
 			bWriter.write("," + dataset.getTimestamp());
 			bd.append("," + dataset.getTimestamp());
 
-			GeoPosition matchedGeoPos = Coordinates.getGeoPos(dataset.X, dataset.Y);
+			GeoPosition matchedGeoPos = Coordinates.getGeoPos(dataset.getX(), dataset.getY());
 
-			GeoPosition unmatchedGeoPos = Coordinates.getGeoPos(dataset.Xunmatched, dataset.Yunmatched);
+			GeoPosition unmatchedGeoPos = Coordinates.getGeoPos(dataset.getXunmatched(), dataset.getYunmatched());
 
-			bWriter.write("," + latFormat.format(matchedGeoPos.getLatitude()) + ","
-					+ lonFormat.format(matchedGeoPos.getLongitude()));
-			bd.append("," + latFormat.format(matchedGeoPos.getLatitude()) + ","
-					+ lonFormat.format(matchedGeoPos.getLongitude()));
-			bWriter.write("," + latFormat.format(unmatchedGeoPos.getLatitude()) + ","
-					+ lonFormat.format(unmatchedGeoPos.getLongitude()));
-			bd.append("," + latFormat.format(unmatchedGeoPos.getLatitude()) + ","
-					+ lonFormat.format(unmatchedGeoPos.getLongitude()));
+			bWriter.write("," + latFormat.get().format(matchedGeoPos.getLatitude()) + ","
+					+ lonFormat.get().format(matchedGeoPos.getLongitude()));
+			bd.append("," + latFormat.get().format(matchedGeoPos.getLatitude()) + ","
+					+ lonFormat.get().format(matchedGeoPos.getLongitude()));
+			bWriter.write("," + latFormat.get().format(unmatchedGeoPos.getLatitude()) + ","
+					+ lonFormat.get().format(unmatchedGeoPos.getLongitude()));
+			bd.append("," + latFormat.get().format(unmatchedGeoPos.getLatitude()) + ","
+					+ lonFormat.get().format(unmatchedGeoPos.getLongitude()));
 
 			double distance = getDistance(matchedGeoPos.getLatitude(), matchedGeoPos.getLongitude(), unmatchedGeoPos.getLatitude(), unmatchedGeoPos.getLongitude());
 			
@@ -1512,32 +1594,32 @@ public class mySaveToFile {
 				}
 			}
 
-			bWriter.write("," + dataset.datarate);
-			bWriter.write("," + dataset.delay);
-			bWriter.write("," + dataset.loss_rate);
+			bWriter.write("," + dataset.getDatarate());
+			bWriter.write("," + dataset.getDelay());
+			bWriter.write("," + dataset.getLossRate());
 			
-			bd.append("," + dataset.datarate);
-			bd.append("," + dataset.delay);
-			bd.append("," + dataset.loss_rate);
+			bd.append("," + dataset.getDatarate());
+			bd.append("," + dataset.getDelay());
+			bd.append("," + dataset.getLossRate());
 			
 			bWriter.write("," + matchedLinkNr);
 	
 			bd.append("," + matchedLinkNr);
 			
-			if (dataset.cellInfo == null) {
+			if (dataset.getCellInfo() == null) {
 				bWriter.write(",null,null,null,null");
 				
 				bd.append(",null,null,null,null");
 			} else {
-				bWriter.write("," + dataset.cellInfo.w1_ch);
-				bWriter.write("," + dataset.cellInfo.w1_sc);
-				bWriter.write("," + dataset.cellInfo.g1_cellid);
-				bWriter.write("," + dataset.cellInfo.g1_lac);
-
-				bd.append("," + dataset.cellInfo.w1_ch);
-				bd.append("," + dataset.cellInfo.w1_sc);
-				bd.append("," + dataset.cellInfo.g1_cellid);
-				bd.append("," + dataset.cellInfo.g1_lac);
+				bWriter.write("," + dataset.getCellInfo().w1_ch);
+				bWriter.write("," + dataset.getCellInfo().w1_sc);
+				bWriter.write("," + dataset.getCellInfo().g1_cellid);
+				bWriter.write("," + dataset.getCellInfo().g1_lac);
+
+				bd.append("," + dataset.getCellInfo().w1_ch);
+				bd.append("," + dataset.getCellInfo().w1_sc);
+				bd.append("," + dataset.getCellInfo().g1_cellid);
+				bd.append("," + dataset.getCellInfo().g1_lac);
 			}
 			
 			bWriter.newLine();
@@ -1584,7 +1666,7 @@ public class mySaveToFile {
 							writeDataset(bWriter, lastDsDown, i, matchedNLink, true, new Double(disFromLastDatasetDown), null);							
 							disFromLastDatasetDown += matchedNLink.getStreetLink().edge.length;
 						}
-					} else if (matchedNLink.matchedDownDatasets.firstElement().matched_distribution_in_WayPart != 0.0) {
+					} else if (matchedNLink.matchedDownDatasets.firstElement().getMatchedDistributionInWayPart() != 0.0) {
 						if (lastDsDown != null) {
 							writeDataset(bWriter, lastDsDown, i, matchedNLink, true, new Double(disFromLastDatasetDown), null);
 						}
@@ -1593,9 +1675,9 @@ public class mySaveToFile {
 						writeDataset(bWriter, ds, i, null, true, null, null);
 						lastDsDown = ds;
 						disFromLastDatasetDown = matchedNLink.getStreetLink().edge.length;
-						disFromLastDatasetDown -= (disFromLastDatasetDown * ds.matched_distribution_in_WayPart);
+						disFromLastDatasetDown -= (disFromLastDatasetDown * ds.getMatchedDistributionInWayPart());
 					}
-					if (matchedNLink.matchedDownDatasets.size() == 0 ||  matchedNLink.matchedDownDatasets.lastElement().matched_distribution_in_WayPart != 1.0) {
+					if (matchedNLink.matchedDownDatasets.size() == 0 ||  matchedNLink.matchedDownDatasets.lastElement().getMatchedDistributionInWayPart() != 1.0) {
 						double disToNextDataset = matchedNLink.getStreetLink().edge.length;
 						for (int j = (i + 1); j < matchedNLinks.size(); j++) {
 							MatchedNLink nextMatchedNLink = matchedNLinks.get(j);
@@ -1606,7 +1688,7 @@ public class mySaveToFile {
 							} else {
 								if (nextMatchedNLink.getStreetLink().edge != null) {
 									disToNextDataset += (nextMatchedNLink.getStreetLink().edge.length * 
-											nextMatchedNLink.matchedDownDatasets.firstElement().matched_distribution_in_WayPart);
+											nextMatchedNLink.matchedDownDatasets.firstElement().getMatchedDistributionInWayPart());
 								}
 								writeDataset(bWriter, nextMatchedNLink.matchedDownDatasets.firstElement(), i, matchedNLink, true, null, new Double(disToNextDataset));
 								break;
@@ -1619,7 +1701,7 @@ public class mySaveToFile {
 							writeDataset(bWriter, lastDsUp, i, matchedNLink, false, new Double(disFromDatasetUp), null);
 							disFromDatasetUp += matchedNLink.getStreetLink().edge.length;
 						}
-					} else if (matchedNLink.matchedUpDatasets.firstElement().matched_distribution_in_WayPart != 0.0) {
+					} else if (matchedNLink.matchedUpDatasets.firstElement().getMatchedDistributionInWayPart() != 0.0) {
 						if (lastDsUp != null) {
 							writeDataset(bWriter, lastDsUp, i, matchedNLink, false, new Double(disFromDatasetUp), null);
 						}
@@ -1628,9 +1710,9 @@ public class mySaveToFile {
 						writeDataset(bWriter, ds, i, null, false, null, null);
 						lastDsUp = ds;
 						disFromDatasetUp = matchedNLink.getStreetLink().edge.length;
-						disFromDatasetUp -= (disFromDatasetUp * ds.matched_distribution_in_WayPart);
+						disFromDatasetUp -= (disFromDatasetUp * ds.getMatchedDistributionInWayPart());
 					}
-					if (matchedNLink.matchedUpDatasets.size() == 0 || matchedNLink.matchedUpDatasets.lastElement().matched_distribution_in_WayPart != 1.0) {
+					if (matchedNLink.matchedUpDatasets.size() == 0 || matchedNLink.matchedUpDatasets.lastElement().getMatchedDistributionInWayPart() != 1.0) {
 						double disToNextDataset = matchedNLink.getStreetLink().edge.length;
 						for (int j = (i + 1); j < matchedNLinks.size(); j++) {
 							MatchedNLink nextMatchedNLink = matchedNLinks.get(j);
@@ -1641,7 +1723,7 @@ public class mySaveToFile {
 							} else {
 								if (nextMatchedNLink.getStreetLink().edge != null) {
 									disToNextDataset += (nextMatchedNLink.getStreetLink().edge.length * 
-											nextMatchedNLink.matchedUpDatasets.firstElement().matched_distribution_in_WayPart);
+											nextMatchedNLink.matchedUpDatasets.firstElement().getMatchedDistributionInWayPart());
 								}
 								writeDataset(bWriter, nextMatchedNLink.matchedUpDatasets.firstElement(), i, matchedNLink, false, null, new Double(disToNextDataset));
 								break;
@@ -0,0 +1,198 @@
+package myClasses;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * lookup by time in a sequence of objects (GPS nodes, cell infos, ...)
+ *
+ * getLastAtOrBefore(t) returns the object with the highest index and
+ * timestamp <= t, getFirstAtOrAfter(t) the one with the lowest index and
+ * timestamp >= t, the same objects a backward / forward scan over the
+ * sequence finds.
+ *
+ * queries with ascending time move a cursor over the sorted timestamps, so
+ * matching a stream of objects sorted by time is a single merge pass. Other
+ * queries use binary search. If the sequence is not sorted by time, its
+ * timestamps are sorted and for each position the highest index before and
+ * the lowest index behind it are kept.
+ */
+public class myTimeIndex<T> {
+
+	// cursor is moved linearly at most this number of steps, then binary search is used
+	private static final int MAX_CURSOR_STEPS = 16;
+
+	private List<? extends T> objects;
+
+	// timestamps in ascending order
+	private long[] times;
+
+	// null if sequence is sorted, otherwise highest index of times[0 ... j] and
+	// lowest index of times[j ... n - 1] in sequence
+	private int[] maxIndex = null;
+	private int[] minIndex = null;
+
+	// number of times <= atOrBeforeTime
+	private int atOrBeforeCount = 0;
+	private long atOrBeforeTime = Long.MIN_VALUE;
+
+	// number of times < atOrAfterTime
+	private int beforeCount = 0;
+	private long atOrAfterTime = Long.MIN_VALUE;
+
+	/**
+	 * @param objects
+	 *            sequence
+	 * @param timestamps
+	 *            timestamp of each object of sequence
+	 */
+	public myTimeIndex(List<? extends T> objects, long[] timestamps) {
+		this.objects = objects;
+
+		int n = timestamps.length;
+
+		boolean sorted = true;
+		for (int i = 1; i < n && sorted; i++) {
+			sorted = timestamps[i - 1] <= timestamps[i];
+		}
+
+		if (sorted) {
+			times = timestamps;
+			return;
+		}
+
+		// sort indices by timestamp
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		final long[] t = timestamps;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Long.compare(t[i1], t[i2]);
+			}
+		});
+
+		times = new long[n];
+		maxIndex = new int[n];
+		minIndex = new int[n];
+
+		for (int j = 0; j < n; j++) {
+			times[j] = timestamps[order[j]];
+			maxIndex[j] = (j == 0) ? order[j] : Math.max(maxIndex[j - 1], order[j]);
+		}
+		for (int j = n - 1; j >= 0; j--) {
+			minIndex[j] = (j == n - 1) ? order[j] : Math.min(minIndex[j + 1], order[j]);
+		}
+	}
+
+	/**
+	 * return object with highest index and timestamp <= time, null if there
+	 * is none
+	 *
+	 * @param time
+	 * @return object
+	 */
+	public T getLastAtOrBefore(long time) {
+		int count = countAtOrBefore(time);
+
+		if (count == 0) {
+			return null;
+		}
+		return objects.get((maxIndex == null) ? count - 1 : maxIndex[count - 1]);
+	}
+
+	/**
+	 * return object with lowest index and timestamp >= time, null if there
+	 * is none
+	 *
+	 * @param time
+	 * @return object
+	 */
+	public T getFirstAtOrAfter(long time) {
+		int count = countBefore(time);
+
+		if (count == times.length) {
+			return null;
+		}
+		return objects.get((minIndex == null) ? count : minIndex[count]);
+	}
+
+	/*
+	 * return number of timestamps <= time
+	 */
+	private int countAtOrBefore(long time) {
+		int count = (time >= atOrBeforeTime) ? atOrBeforeCount : 0;
+		int steps = 0;
+
+		while (count < times.length && times[count] <= time) {
+			if (++steps > MAX_CURSOR_STEPS) {
+				count = searchFirstAfter(time, count);
+				break;
+			}
+			count++;
+		}
+
+		atOrBeforeCount = count;
+		atOrBeforeTime = time;
+		return count;
+	}
+
+	/*
+	 * return number of timestamps < time
+	 */
+	private int countBefore(long time) {
+		int count = (time >= atOrAfterTime) ? beforeCount : 0;
+		int steps = 0;
+
+		while (count < times.length && times[count] < time) {
+			if (++steps > MAX_CURSOR_STEPS) {
+				count = searchFirstAtOrAfter(time, count);
+				break;
+			}
+			count++;
+		}
+
+		beforeCount = count;
+		atOrAfterTime = time;
+		return count;
+	}
+
+	/*
+	 * return first position >= from with times[position] > time
+	 */
+	private int searchFirstAfter(long time, int from) {
+		int low = from;
+		int high = times.length;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/*
+	 * return first position >= from with times[position] >= time
+	 */
+	private int searchFirstAtOrAfter(long time, int from) {
+		int low = from;
+		int high = times.length;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,344 @@
+package myClasses;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Vector;
+
+import cartesian.Coordinates;
+import gps.GPSNode;
+
+/*
+ * uniform grid over all wayParts of a map (x/y at zoom level 1)
+ *
+ * every wayPart is stored in each cell its bounding box overlaps. Results are
+ * sorted by distance; wayParts with equal distance keep the order of
+ * myOSMMap.ways / myOSMWay.WayParts, so a query returns the same wayParts
+ * as a linear scan over the map.
+ */
+public class myWayPartIndex {
+
+	// wayParts in order of ways and WayParts of the map
+	private myOSMWayPart[] wayParts;
+
+	private double minX;
+	private double minY;
+	private double cellSize;
+	private int countX;
+	private int countY;
+
+	// wayPart indices of cell c: cellWayParts[cellStart[c]] ... cellWayParts[cellStart[c+1] - 1]
+	private int[] cellStart;
+	private int[] cellWayParts;
+
+	/*
+	 * wayPart found by a query
+	 */
+	private static class Candidate {
+		int index;
+		double distance;
+
+		Candidate(int index, double distance) {
+			this.index = index;
+			this.distance = distance;
+		}
+	}
+
+	// ascending distance, then order of the map
+	private static final Comparator<Candidate> NEAREST_FIRST = new Comparator<Candidate>() {
+		@Override
+		public int compare(Candidate c1, Candidate c2) {
+			if (c1.distance < c2.distance) {
+				return -1;
+			} else if (c1.distance > c2.distance) {
+				return 1;
+			}
+			return Integer.compare(c1.index, c2.index);
+		}
+	};
+
+	/**
+	 * build grid of all wayParts, x/y of the nodes must be set
+	 *
+	 * @param map
+	 */
+	public myWayPartIndex(myOSMMap map) {
+
+		wayParts = new myOSMWayPart[map.getNrOfAllWayParts()];
+
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		double sumExtent = 0;
+
+		minX = Double.MAX_VALUE;
+		minY = Double.MAX_VALUE;
+
+		int n = 0;
+		for (int i = 0; i < map.ways.size(); i++) {
+			myOSMWay w = map.ways.get(i);
+
+			for (int k = 0; k < w.WayParts.length; k++) {
+				myOSMWayPart wp = w.WayParts[k];
+
+				minX = Math.min(minX, Math.min(wp.startNode.x, wp.endNode.x));
+				minY = Math.min(minY, Math.min(wp.startNode.y, wp.endNode.y));
+				maxX = Math.max(maxX, Math.max(wp.startNode.x, wp.endNode.x));
+				maxY = Math.max(maxY, Math.max(wp.startNode.y, wp.endNode.y));
+
+				sumExtent += Math.max(Math.abs(wp.endNode.x - wp.startNode.x), Math.abs(wp.endNode.y - wp.startNode.y));
+
+				wayParts[n++] = wp;
+			}
+		}
+
+		if (n == 0) {
+			minX = 0;
+			minY = 0;
+			maxX = 0;
+			maxY = 0;
+		}
+
+		// about two wayParts per cell, but cells not smaller than an average wayPart
+		double width = Math.max(maxX - minX, 1e-9);
+		double height = Math.max(maxY - minY, 1e-9);
+
+		cellSize = Math.sqrt(width * height * 2 / Math.max(n, 1));
+		if (n > 0) {
+			cellSize = Math.max(cellSize, sumExtent / n);
+		}
+		cellSize = Math.max(cellSize, Math.max(width, height) / 4096);
+
+		countX = (int) (width / cellSize) + 1;
+		countY = (int) (height / cellSize) + 1;
+
+		// count wayParts per cell, then fill cells
+		cellStart = new int[countX * countY + 1];
+
+		for (int i = 0; i < n; i++) {
+			myOSMWayPart wp = wayParts[i];
+
+			for (int cy = getCellY(Math.min(wp.startNode.y, wp.endNode.y)); cy <= getCellY(Math.max(wp.startNode.y, wp.endNode.y)); cy++) {
+				for (int cx = getCellX(Math.min(wp.startNode.x, wp.endNode.x)); cx <= getCellX(Math.max(wp.startNode.x, wp.endNode.x)); cx++) {
+					cellStart[cy * countX + cx + 1]++;
+				}
+			}
+		}
+
+		for (int c = 0; c < countX * countY; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+
+		cellWayParts = new int[cellStart[countX * countY]];
+		int[] fill = new int[countX * countY];
+
+		for (int i = 0; i < n; i++) {
+			myOSMWayPart wp = wayParts[i];
+
+			for (int cy = getCellY(Math.min(wp.startNode.y, wp.endNode.y)); cy <= getCellY(Math.max(wp.startNode.y, wp.endNode.y)); cy++) {
+				for (int cx = getCellX(Math.min(wp.startNode.x, wp.endNode.x)); cx <= getCellX(Math.max(wp.startNode.x, wp.endNode.x)); cx++) {
+					int c = cy * countX + cx;
+					cellWayParts[cellStart[c] + fill[c]] = i;
+					fill[c]++;
+				}
+			}
+		}
+	}
+
+	/*
+	 * return number of wayParts in index
+	 */
+	public int size() {
+		return wayParts.length;
+	}
+
+	/**
+	 * return the k nearest wayParts to gps node
+	 *
+	 * @param gpsNode
+	 * @param k
+	 * @return up to k wayParts, nearest first
+	 */
+	public Vector<myOSMWayPart> getNearestWayParts(GPSNode gpsNode, int k) {
+		return getNearestWayParts(gpsNode.getX(), gpsNode.getY(), k);
+	}
+
+	/**
+	 * return the k nearest wayParts to point (x,y)
+	 *
+	 * @param x
+	 * @param y
+	 * @param k
+	 * @return up to k wayParts, nearest first
+	 */
+	public Vector<myOSMWayPart> getNearestWayParts(double x, double y, int k) {
+
+		Vector<myOSMWayPart> result = new Vector<myOSMWayPart>(Math.max(k, 0));
+
+		if (k <= 0 || wayParts.length == 0) {
+			return result;
+		}
+
+		// k best candidates, worst on top
+		PriorityQueue<Candidate> best = new PriorityQueue<Candidate>(k + 1, Collections.reverseOrder(NEAREST_FIRST));
+		HashSet<Integer> visited = new HashSet<Integer>();
+
+		int cx = getCellX(x);
+		int cy = getCellY(y);
+
+		int maxRing = Math.max(Math.max(cx, countX - 1 - cx), Math.max(cy, countY - 1 - cy));
+
+		for (int ring = 0; ring <= maxRing; ring++) {
+
+			// visit cells with distance "ring" to cell (cx,cy)
+			for (int iy = cy - ring; iy <= cy + ring; iy++) {
+				if (iy < 0 || iy >= countY) {
+					continue;
+				}
+
+				int step = (iy == cy - ring || iy == cy + ring) ? 1 : Math.max(2 * ring, 1);
+
+				for (int ix = cx - ring; ix <= cx + ring; ix += step) {
+					if (ix < 0 || ix >= countX) {
+						continue;
+					}
+
+					int c = iy * countX + ix;
+
+					for (int p = cellStart[c]; p < cellStart[c + 1]; p++) {
+						int index = cellWayParts[p];
+
+						if (visited.add(index)) {
+							double distance = getDistance(x, y, wayParts[index]);
+
+							// a linear scan never takes NaN distances
+							if (distance == distance) {
+								best.add(new Candidate(index, distance));
+								if (best.size() > k) {
+									best.poll();
+								}
+							}
+						}
+					}
+				}
+			}
+
+			// not visited wayParts are at least this far away
+			if (best.size() == k && best.peek().distance < getMinDistanceOutside(x, y, cx, cy, ring)) {
+				break;
+			}
+		}
+
+		Candidate[] sorted = best.toArray(new Candidate[best.size()]);
+		Arrays.sort(sorted, NEAREST_FIRST);
+
+		for (Candidate candidate : sorted) {
+			result.add(wayParts[candidate.index]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * return all wayParts with a distance to gps node not greater than radius
+	 *
+	 * @param gpsNode
+	 * @param radius
+	 * @return wayParts, nearest first
+	 */
+	public Vector<myOSMWayPart> getWayPartsWithinRadius(GPSNode gpsNode, double radius) {
+		return getWayPartsWithinRadius(gpsNode.getX(), gpsNode.getY(), radius);
+	}
+
+	/**
+	 * return all wayParts with a distance to point (x,y) not greater than radius
+	 *
+	 * @param x
+	 * @param y
+	 * @param radius
+	 * @return wayParts, nearest first
+	 */
+	public Vector<myOSMWayPart> getWayPartsWithinRadius(double x, double y, double radius) {
+
+		Vector<Candidate> found = new Vector<Candidate>();
+		HashSet<Integer> visited = new HashSet<Integer>();
+
+		for (int iy = getCellY(y - radius); iy <= getCellY(y + radius); iy++) {
+			for (int ix = getCellX(x - radius); ix <= getCellX(x + radius); ix++) {
+
+				int c = iy * countX + ix;
+
+				for (int p = cellStart[c]; p < cellStart[c + 1]; p++) {
+					int index = cellWayParts[p];
+
+					if (visited.add(index)) {
+						double distance = getDistance(x, y, wayParts[index]);
+
+						if (distance <= radius) {
+							found.add(new Candidate(index, distance));
+						}
+					}
+				}
+			}
+		}
+
+		Collections.sort(found, NEAREST_FIRST);
+
+		Vector<myOSMWayPart> result = new Vector<myOSMWayPart>(found.size());
+		for (Candidate candidate : found) {
+			result.add(wayParts[candidate.index]);
+		}
+
+		return result;
+	}
+
+	/*
+	 * same distance as Coordinates.getDistance(GPSNode, myOSMWayPart)
+	 */
+	private static double getDistance(double x, double y, myOSMWayPart wp) {
+		double nx = Coordinates.getNearestPointX(x, y, wp.startNode.x, wp.startNode.y, wp.endNode.x, wp.endNode.y);
+		double ny = Coordinates.getNearestPointY(x, y, wp.startNode.x, wp.startNode.y, wp.endNode.x, wp.endNode.y);
+
+		return Coordinates.getDistance(x, y, nx, ny);
+	}
+
+	/*
+	 * lower bound of the distance from (x,y) to wayParts outside the visited
+	 * cells around (cx,cy); infinity if all cells were visited
+	 */
+	private double getMinDistanceOutside(double x, double y, int cx, int cy, int ring) {
+
+		double min = Double.POSITIVE_INFINITY;
+
+		if (cx - ring > 0) {
+			min = Math.min(min, x - (minX + (cx - ring) * cellSize));
+		}
+		if (cx + ring < countX - 1) {
+			min = Math.min(min, (minX + (cx + ring + 1) * cellSize) - x);
+		}
+		if (cy - ring > 0) {
+			min = Math.min(min, y - (minY + (cy - ring) * cellSize));
+		}
+		if (cy + ring < countY - 1) {
+			min = Math.min(min, (minY + (cy + ring + 1) * cellSize) - y);
+		}
+
+		if (min == Double.POSITIVE_INFINITY) {
+			return min;
+		}
+
+		// keep ties and rounding on the safe side
+		return min - 1e-9 * (1 + Math.abs(min));
+	}
+
+	private int getCellX(double x) {
+		int c = (int) Math.floor((x - minX) / cellSize);
+		return Math.max(0, Math.min(countX - 1, c));
+	}
+
+	private int getCellY(double y) {
+		int c = (int) Math.floor((y - minY) / cellSize);
+		return Math.max(0, Math.min(countY - 1, c));
+	}
+}
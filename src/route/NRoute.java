@@ -1,11 +1,13 @@
 package route;
 
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import algorithm.MatchedLink;
 import myClasses.myOSMNode;
 import myClasses.myOSMWayPart;
+import myClasses.myRoadGraph;
 import cartesian.Coordinates;
 import gps.GPSNode;
 import gps.GPSTrace;
@@ -28,7 +30,7 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	public static final int BETTER_SCORE = -1;
 	public static final int WORSE_SCORE = 1;
 
-	public static int objCount = 0;
+	private static final AtomicInteger objCount = new AtomicInteger();
 	public int objID = 0;
 
 	// save reference to GPS trace
@@ -42,11 +44,46 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	public static final int DEFAULT_GPS_NODE_INDEX_OFFSET = 5;
 	public static final int MAX_GPS_NODE_INDEX_OFFSET = 10;
 
-	// save matched street links added to route as matched link
-	private Vector<MatchedLink> nRouteLinks;
+	/*
+	 * element of the (persistent) chain of matched links, every element points to
+	 * the link added before. A chain element is shared with cloned n routes and
+	 * never changed again, only the last link of a n route is its own one.
+	 */
+	private static class LinkNode {
+		final MatchedLink matchedLink;
+		final LinkNode previous;
+		final LinkNode first;
+		final int size;
+
+		LinkNode(MatchedLink matchedLink, LinkNode previous) {
+			this.matchedLink = matchedLink;
+			this.previous = previous;
+			this.first = (previous == null) ? this : previous.first;
+			this.size = (previous == null) ? 1 : previous.size + 1;
+		}
+	}
 
-	// save score of this route in respect of GPS trace
-	public LinkedList<Double> scoreList = new LinkedList<Double>();
+	/*
+	 * element of the (persistent) list of score differences, shared with cloned
+	 * n routes
+	 */
+	private static class ScoreNode {
+		final double difference;
+		final ScoreNode previous;
+		final int size;
+
+		ScoreNode(double difference, ScoreNode previous) {
+			this.difference = difference;
+			this.previous = previous;
+			this.size = (previous == null) ? 1 : previous.size + 1;
+		}
+	}
+
+	// save matched street links added to route as matched link (last added link)
+	private LinkNode lastLinkNode;
+
+	// save score of this route in respect of GPS trace (last added score difference)
+	private ScoreNode lastScoreNode;
 	private double score;
 	private double previousScore;
 	private int countUpdateScoreNegative = 0;
@@ -69,15 +106,15 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	 */
 	public NRoute(GPSTrace gpsTrace, String historyOfParent) {
 
-		objID = objCount;
-		objCount++;
+		objID = objCount.getAndIncrement();
 
 		//history = objID + " " + historyOfParent;
 
 		// save reference
 		this.gpsTrace = gpsTrace;
-		// initialize vector
-		this.nRouteLinks = new Vector<MatchedLink>();
+		// no links yet
+		this.lastLinkNode = null;
+		this.lastScoreNode = null;
 		// set score zero at beginning
 		score = 0;
 		// set previous route null for now
@@ -108,17 +145,7 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 			return false;
 		}
 
-		if (other.nRouteLinks.size() != this.nRouteLinks.size()) {
-			return false;
-		}
-
-		for (int i = 0; i < other.nRouteLinks.size(); i++) {
-			if (other.nRouteLinks.get(i).getStreetLink() != this.nRouteLinks.get(i).getStreetLink()) {
-				return false;
-			}
-		}
-
-		return true;
+		return hasEqualStreetLinks(other);
 	}
 
 	public boolean istNRouteLinksGleichUndScoreBesser(NRoute other) {
@@ -127,19 +154,36 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 			return false;
 		}
 
-		if (other.nRouteLinks.size() != this.nRouteLinks.size()) {
+		return hasEqualStreetLinks(other);
+	}
+
+	/*
+	 * check if both n routes consist of the same street links
+	 */
+	private boolean hasEqualStreetLinks(NRoute other) {
+
+		if (getNrOfLinks(other.lastLinkNode) != getNrOfLinks(this.lastLinkNode)) {
 			return false;
 		}
 
-		for (int i = 0; i < other.nRouteLinks.size(); i++) {
-			if (other.nRouteLinks.get(i).getStreetLink() != this.nRouteLinks.get(i).getStreetLink()) {
+		LinkNode otherNode = other.lastLinkNode;
+		LinkNode thisNode = this.lastLinkNode;
+
+		while (otherNode != null && otherNode != thisNode) {
+			if (otherNode.matchedLink.getStreetLink() != thisNode.matchedLink.getStreetLink()) {
 				return false;
 			}
+			otherNode = otherNode.previous;
+			thisNode = thisNode.previous;
 		}
 
 		return true;
 	}
 
+	private static int getNrOfLinks(LinkNode linkNode) {
+		return (linkNode == null) ? 0 : linkNode.size;
+	}
+
 	/**
 	 * add link to n route container, set matched range, and set as matched
 	 * 
@@ -151,7 +195,7 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 		// create new matched link
 		MatchedLink matchedLink = new MatchedLink(myWayPart, minGPSNodeIndex, maxGPSNodeIndex);
 		// add link and range
-		nRouteLinks.add(matchedLink);
+		lastLinkNode = new LinkNode(matchedLink, lastLinkNode);
 		this.addlength(matchedLink.getStreetLink().length);
 		// update score
 		updateScore(getScoreForLink(matchedLink));
@@ -188,10 +232,10 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 		matchToPreviousLink = true;
 
 		// check if n route link vector isn't empty
-		if (!nRouteLinks.isEmpty()) {
+		if (lastLinkNode != null) {
 
 			// get previous matched link and new GPS node
-			previousMatchedLink = nRouteLinks.lastElement();
+			previousMatchedLink = lastLinkNode.matchedLink;
 
 			/*
 			myOSMWayPart previousWayPart = previousMatchedLink.getStreetLink();
@@ -234,10 +278,10 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	 */
 	public boolean addGPSNodeToLastLink(int GPSNodeIndex) {
 		// add gpsNode to range of last added link, if container is not empty
-		if (!nRouteLinks.isEmpty()) {
+		if (lastLinkNode != null) {
 
 			// get last added link
-			MatchedLink lastAddedMatchedLink = nRouteLinks.lastElement();
+			MatchedLink lastAddedMatchedLink = lastLinkNode.matchedLink;
 
 			// if last GPS node was matched to previous link, check if we can
 			// match the new GPS node
@@ -318,9 +362,9 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 		// if (!nRouteLinks.isEmpty() &&
 		// (nRouteLinks.lastElement().getRangeSize() > 0)) {
 
-		if (!nRouteLinks.isEmpty()) {
+		if (lastLinkNode != null) {
 			// get last added matched link
-			MatchedLink lastAddedMatchedLink = nRouteLinks.lastElement();
+			MatchedLink lastAddedMatchedLink = lastLinkNode.matchedLink;
 			// update score by subtracting score
 			updateScore(-getScoreForLinkAndRange(lastAddedMatchedLink, lastAddedMatchedLink.getRangeEndIndex(),
 					lastAddedMatchedLink.getRangeEndIndex()));
@@ -351,26 +395,37 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 		if (0 <= difference) {
 			this.previousScore = this.score;
 			this.score = this.score + difference;
-			scoreList.add(difference);
+			lastScoreNode = new ScoreNode(difference, lastScoreNode);
 			countUpdateScoreNegative = 0;
 		} else {
 
+			if (lastScoreNode == null) {
+				throw new NoSuchElementException();
+			}
+
 			difference = difference * (-1.0);
-			if (scoreList.getLast() != difference) {
+			if (lastScoreNode.difference != difference) {
 				System.out.println("Error? Debug: NRoute: updateScore");
 			}
 			
 			if (countUpdateScoreNegative == 0) {
-				scoreList.removeLast();
+				lastScoreNode = lastScoreNode.previous;
 				this.score = this.previousScore;
 				countUpdateScoreNegative++;
 			} else {
+				// sum up in order of adding
+				double[] scores = new double[lastScoreNode.size];
+				int i = scores.length;
+				for (ScoreNode scoreNode = lastScoreNode; scoreNode != null; scoreNode = scoreNode.previous) {
+					scores[--i] = scoreNode.difference;
+				}
+
 				score = 0;
-				for (int i = 0; i < scoreList.size() - 1; i++) {
-					score += scoreList.get(i);
+				for (i = 0; i < scores.length - 1; i++) {
+					score += scores[i];
 				}
 				this.previousScore = this.score;
-				score += scoreList.getLast();
+				score += lastScoreNode.difference;
 			}
 		}
 	}
@@ -435,9 +490,9 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 		// create new instance
 		NRoute nRouteClone = new NRoute(this.gpsTrace, this.history);
 
-		// copy properties
+		// copy properties, score list is shared
 
-		nRouteClone.scoreList.addAll(this.scoreList);
+		nRouteClone.lastScoreNode = this.lastScoreNode;
 		nRouteClone.score = this.score;
 		nRouteClone.previousScore = this.previousScore;
 		
@@ -449,19 +504,15 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 		 * adopted, but copy (create new) matched ranges!
 		 */
 
-		// create new vector for copied matched link
-		Vector<MatchedLink> nRouteLinksClone = new Vector<MatchedLink>();
-
-		for (MatchedLink matchedLink : nRouteLinks) {
+		// share all links except the last one, which may still be changed
+		if (lastLinkNode != null) {
+			MatchedLink matchedLink = lastLinkNode.matchedLink;
 			// copy matched link
 			MatchedLink matchedLinkClone = new MatchedLink(matchedLink.getStreetLink(),
 					matchedLink.getRangeStartIndexForClone(), matchedLink.getRangeEndIndexForClone());
-			// add to vector
-			nRouteLinksClone.add(matchedLinkClone);
-		}
 
-		// assign copied vector to cloned object
-		nRouteClone.nRouteLinks = nRouteLinksClone;
+			nRouteClone.lastLinkNode = new LinkNode(matchedLinkClone, lastLinkNode.previous);
+		}
 
 		// return cloned NRoute
 		return nRouteClone;
@@ -505,6 +556,19 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	 * @return
 	 */
 	public Vector<MatchedLink> getNRouteLinks() {
+		// materialize chain of links
+		MatchedLink[] matchedLinks = new MatchedLink[getNrOfLinks(lastLinkNode)];
+
+		int i = matchedLinks.length;
+		for (LinkNode linkNode = lastLinkNode; linkNode != null; linkNode = linkNode.previous) {
+			matchedLinks[--i] = linkNode.matchedLink;
+		}
+
+		Vector<MatchedLink> nRouteLinks = new Vector<MatchedLink>(matchedLinks.length);
+		for (MatchedLink matchedLink : matchedLinks) {
+			nRouteLinks.add(matchedLink);
+		}
+
 		return nRouteLinks;
 	}
 
@@ -515,8 +579,8 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	 */
 	public MatchedLink getLastMatchedLink() {
 		// check if vector is empty
-		if (!nRouteLinks.isEmpty()) {
-			return nRouteLinks.lastElement();
+		if (lastLinkNode != null) {
+			return lastLinkNode.matchedLink;
 		}
 
 		// return null if there is no last added link
@@ -525,8 +589,8 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 
 	public MatchedLink getFirstMatchedLink() {
 		// check if vector is empty
-		if (!nRouteLinks.isEmpty()) {
-			return nRouteLinks.firstElement();
+		if (lastLinkNode != null) {
+			return lastLinkNode.first.matchedLink;
 		}
 
 		// return null if there is no last added link
@@ -536,24 +600,9 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 	public Vector<myOSMWayPart> getOutgoingLinksForLastLink() {
 
 		// check if vector is not empty
-		if (!nRouteLinks.isEmpty()) {
+		if (lastLinkNode != null) {
 
-			Vector<myOSMWayPart> vsl = new Vector<myOSMWayPart>();
-
-			Vector<myOSMWayPart> vwp = getNextOSMWayPart();
-
-			for (int i = 0; i < vwp.size(); i++) {
-
-				myOSMWayPart wp = vwp.get(i);
-
-				// StreetLink sl = wp.streetLink;
-
-				// vsl.add(sl);
-
-				vsl.add(wp);
-			}
-
-			return vsl;
+			return getNextOSMWayPart();
 
 			/*
 			 * 
@@ -635,7 +684,7 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 
 		// StreetLink lastSL =
 		// nRoute.getNRouteLinks().lastElement().getStreetLink();
-		myOSMWayPart lastWP = nRoute.getNRouteLinks().lastElement().getStreetLink();
+		myOSMWayPart lastWP = nRoute.getLastMatchedLink().getStreetLink();
 
 		vn.add(lastWP.endNode);
 
@@ -726,10 +775,21 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 
 		// StreetLink lastSL =
 		// nRoute.getNRouteLinks().lastElement().getStreetLink();
-		myOSMWayPart lastWP = nRoute.getNRouteLinks().lastElement().getStreetLink();
+		myOSMWayPart lastWP = nRoute.getLastMatchedLink().getStreetLink();
 
 		Vector<myOSMWayPart> vwp = new Vector<myOSMWayPart>();
 
+		myRoadGraph roadGraph = lastWP.getRoadGraph();
+
+		if (roadGraph != null) {
+			// successors of wayPart of map
+			int end = roadGraph.successorsEnd(lastWP);
+			for (int k = roadGraph.successorsBegin(lastWP); k < end; k++) {
+				vwp.add(roadGraph.getSuccessor(k));
+			}
+			return vwp;
+		}
+
 		for (int i = 0; i < lastWP.endNode.WayPartsOutgoing_size(); i++) {
 			myOSMWayPart wp = lastWP.endNode.WayPartsOutgoing_get(i);
 			if (wp.endNode != lastWP.startNode) {
@@ -1035,7 +1095,7 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 
 	public int getNRouteLenght() {
 		// get size of n route link vector
-		int nRouteLenght = nRouteLinks.size();
+		int nRouteLenght = getNrOfLinks(lastLinkNode);
 
 		// if previous n route existing, add whose size by recursion
 		if (previousNRoute != null)
@@ -1047,7 +1107,7 @@ public class NRoute implements Comparable<NRoute>, Cloneable {
 
 	public void print() {
 
-		for (MatchedLink matchedLink : nRouteLinks) {
+		for (MatchedLink matchedLink : getNRouteLinks()) {
 
 			System.out.println(matchedLink.getStreetLink().startNode.id + "-" + matchedLink.getStreetLink().endNode.id);
 
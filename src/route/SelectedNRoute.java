@@ -308,11 +308,16 @@ public class SelectedNRoute {
 		// get right node
 		myOSMNode n = getOutgoingStreetNode(nearestStreetLink, isFirstStreetLink);
 		
-		Vector<myOSMWayPart> adjustableLinks;
+		// adjustable links: incoming links of first link, except from its end node,
+		// or outgoing links of last link, except to its start node
+		int nrOfLinks;
+		myOSMNode excludedNode;
 		if (isFirstStreetLink) {
-			adjustableLinks = n.getIncomingWayPartExceptNotFrom(nearestStreetLink.endNode);
+			nrOfLinks = n.WayPartsIncoming_size();
+			excludedNode = nearestStreetLink.endNode;
 		} else {
-			adjustableLinks = n.getOutgoingWayPartExceptNotTo(nearestStreetLink.startNode);			
+			nrOfLinks = n.WayPartsOutgoing_size();
+			excludedNode = nearestStreetLink.startNode;
 		}
 
 		
@@ -320,7 +325,20 @@ public class SelectedNRoute {
 		distance = Double.MAX_VALUE;
         minDistance = Double.MAX_VALUE;
 		
-		for(myOSMWayPart streetLink : adjustableLinks) {
+		for (int i = 0; i < nrOfLinks; i++) {
+			
+			myOSMWayPart streetLink;
+			if (isFirstStreetLink) {
+				streetLink = n.WayPartsIncoming_get(i);
+				if (streetLink.startNode == excludedNode) {
+					continue;
+				}
+			} else {
+				streetLink = n.WayPartsOutgoing_get(i);
+				if (streetLink.endNode == excludedNode) {
+					continue;
+				}
+			}
 			
 			//get StartNode and EndNode of Link i
     		ax = streetLink.getStartX();
@@ -382,12 +400,12 @@ public class SelectedNRoute {
 		if (isNRouteSplitted && !streetLinksStart.isEmpty() && !streetLinksEnd.isEmpty()) {
 			myOSMWayPart streetLinkStartLast = streetLinksStart.get(streetLinksStart.size()-1);
 			
-			Vector<myOSMWayPart> startLinks = streetLinkStartLast.getStartNode().getOutgoingWayPartExcept(streetLinkStartLast);
-			Vector<myOSMWayPart> endLinks = streetLinkStartLast.getEndNode().getOutgoingWayPartExcept(streetLinkStartLast);
-			
 			myOSMWayPart streetLinkEndFirst = streetLinksEnd.get(0);
 			
-			if (startLinks.contains(streetLinkEndFirst) || endLinks.contains(streetLinkEndFirst)) {
+			// first link of second part is outgoing at one of the nodes of last link of first part
+			if (streetLinkEndFirst != streetLinkStartLast
+					&& (streetLinkStartLast.getStartNode().WayPartsOutgoing_contains(streetLinkEndFirst)
+					|| streetLinkStartLast.getEndNode().WayPartsOutgoing_contains(streetLinkEndFirst))) {
 				Logger.println("N Routes merged");
 				return true;
 			} 
@@ -3,6 +3,7 @@ package route;
 import java.util.NoSuchElementException;
 import java.util.Vector;
 
+import myClasses.myMatchState;
 import myClasses.myOSMMap;
 import myClasses.myOSMNode;
 import myClasses.myOSMWayPart;
@@ -29,6 +30,9 @@ public class SelectedRoute {
 	private myOSMWayPart selectableStreetLink;				// current street link which can be selected
 	private Vector<myOSMWayPart> selectableStreetLinksPool;	// pool of all selectable street links
 	private Vector<myOSMWayPart> selectedRoute;				// current selected Route
+	private Vector<myOSMWayPart> artificialLinks;			// artificial links of this route (not part of map)
+	
+	private myMatchState matchState;						// select counters and matched ranges of links
 
 	private boolean noSelectableLinkLeft;					// should all links be selectable, cause there isn't any selectable link left
 	private boolean allLinksSelectableMode;					// user wants to select all links
@@ -47,6 +51,8 @@ public class SelectedRoute {
 		this.myMap = myMap;
 		
 		selectedRoute = new Vector<myOSMWayPart>();
+		artificialLinks = new Vector<myOSMWayPart>();
+		matchState = new myMatchState(myMap);
 		selectableStreetLinksPool = new Vector<myOSMWayPart>();
 		noSelectableLinkLeft = false;
 		allLinksSelectableMode = false;
@@ -108,11 +114,24 @@ public class SelectedRoute {
 			// add all street links start forwarding from end node, if start node is the connecting link,
 			// or there is no connection between these links
 			if (streetLinkConnection == START_NODE || streetLinkConnection == BOTH_NODE || streetLinkConnection == NO_CONNECTION)
-				 selectableStreetLinksPool.addAll(lastAddedSelectedLink.getEndNode().getLinks());
+				 addLinksOfNodeToPool(lastAddedSelectedLink.getEndNode());
 			
 			// analog to above for end node
 			if (streetLinkConnection == END_NODE || streetLinkConnection == BOTH_NODE || streetLinkConnection == NO_CONNECTION)
-				selectableStreetLinksPool.addAll(lastAddedSelectedLink.getStartNode().getLinks());
+				addLinksOfNodeToPool(lastAddedSelectedLink.getStartNode());
+		}
+	}
+	
+	/**
+	 * add outgoing links of node and artificial links of this route at node to pool
+	 * @param node
+	 */
+	private void addLinksOfNodeToPool(myOSMNode node) {
+		selectableStreetLinksPool.addAll(node.getLinks());
+		
+		for (myOSMWayPart artificialLink : artificialLinks) {
+			if (artificialLink.getStartNode() == node || artificialLink.getEndNode() == node)
+				selectableStreetLinksPool.add(artificialLink);
 		}
 	}
 	
@@ -136,7 +155,7 @@ public class SelectedRoute {
 			adjustSelectableLink();
 				
 			// mark as selected, add link to vector
-			selectableStreetLink.increaseSelectCounter();
+			matchState.increaseSelectCounter(selectableStreetLink);
 			selectedRoute.add(selectableStreetLink);
 			
 			// get next selectable link, deactivate all links selectable mode
@@ -176,7 +195,7 @@ public class SelectedRoute {
 			// decrease select counter of last added link, remove just last element,  
 			// therefore we use index instead of object reference
 			myOSMWayPart lastAddedStreetLink = selectedRoute.lastElement();
-			lastAddedStreetLink.decreaseSelectCounter();
+			matchState.decreaseSelectCounter(lastAddedStreetLink);
 			removeLastSelectedLink();
 			
 			// update link pool and calculate next selectable link
@@ -210,6 +229,23 @@ public class SelectedRoute {
 		return null;
 	}
 	
+	/**
+	 * get number of times link is selected in this route
+	 * @param link
+	 * @return
+	 */
+	public int getSelectCounter(myOSMWayPart link){
+		return matchState.getSelectCounter(link);
+	}
+	
+	/**
+	 * get select counters and matched ranges of links of this route
+	 * @return
+	 */
+	public myMatchState getMatchState(){
+		return matchState;
+	}
+	
 	/**
 	 * get current selectable link
 	 * @return
@@ -318,9 +354,8 @@ public class SelectedRoute {
 				// create artificial link and set it as new selectable link
 				myOSMWayPart artificialLink = new myOSMWayPart(startNode, endNode, true, -2, startNode.id, endNode.id);
 				
-				// add link to start and end nodes
-				startNode.addLink(artificialLink);
-				endNode.addLink(artificialLink);
+				// keep link with this route, map is not changed
+				artificialLinks.add(artificialLink);
 				
 				//set new selectable link
 				selectableStreetLink = artificialLink;
@@ -344,10 +379,8 @@ public class SelectedRoute {
 			myOSMWayPart lastSelectedLink = selectedRoute.lastElement();
 			
 			// remove last link completely if its artificial and its select counter equals zero
-			// therefore delete v
-			if (lastSelectedLink.isArtificial() && lastSelectedLink.getSelectCounter() == 0) {
-				lastSelectedLink.getStartNode().removeLink(lastSelectedLink);
-				lastSelectedLink.getEndNode().removeLink(lastSelectedLink);
+			if (lastSelectedLink.isArtificial() && matchState.getSelectCounter(lastSelectedLink) == 0) {
+				artificialLinks.remove(lastSelectedLink);
 			}
 			
 			// remove by index not by reference, otherwise all elements in vector with same reference are removed
@@ -411,12 +444,4 @@ public class SelectedRoute {
 		lastKnownPosX = x;
 		lastKnownPosY = y;
 	}
-	
-	protected void finalize(){
-		System.out.println("Finalize" + this.getClass());
-		//set street links as not 
-		for (myOSMWayPart streetLink : selectedRoute){
-			streetLink.resetSelectCounter();
-		}
-	}
 }